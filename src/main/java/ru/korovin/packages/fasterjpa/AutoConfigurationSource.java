@@ -5,10 +5,12 @@ import ru.korovin.packages.fasterjpa.dto.DtoMapper;
 import jakarta.persistence.EntityManager;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Role;
@@ -46,6 +48,19 @@ public class AutoConfigurationSource {
         return validatorFactoryBean.getValidator();
     }
 
+    /**
+     * Группирует вставки и обновления по типу сущности, чтобы сущности разных типов,
+     * сохраняемые вперемешку, в том числе каскадно, отправлялись пакетами JDBC.
+     * Значения, заданные в {@code spring.jpa.properties}, не переопределяются
+     */
+    @Bean
+    public static HibernatePropertiesCustomizer orderedWritesHibernatePropertiesCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            hibernateProperties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+        };
+    }
+
     @Bean
     public DtoMapper dtoConverter() {
         return new DtoMapper();
@@ -0,0 +1,46 @@
+package ru.korovin.packages.fasterjpa.annotations;
+
+import ru.korovin.packages.fasterjpa.cache.EntityCache;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация для пометки JPA сущностей, запросы которых по идентификатору
+ * обслуживаются кэшем {@link EntityCache} сервиса {@link JpaCrudService}.
+ * Предназначена для редко изменяемых сущностей - справочников, настроек.
+ * Кэш ограничен количеством элементов (вытесняются давно не используемые)
+ * и временем жизни элемента.
+ *
+ * <pre>
+ *     {@code
+ *        @Entity
+ *        @CachedEntity(maxSize = 500, ttlSeconds = 600)
+ *        public class Currency {
+ *            @Id
+ *            private Long id;
+ *            private String code;
+ *        }
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CachedEntity {
+    /**
+     * Максимальное количество сущностей в кэше
+     */
+    int maxSize() default 1000;
+
+    /**
+     * Время жизни сущности в кэше, значение меньше или равное нулю отключает ограничение
+     */
+    long ttlSeconds() default 300;
+}
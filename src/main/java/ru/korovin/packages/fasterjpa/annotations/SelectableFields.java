@@ -0,0 +1,41 @@
+package ru.korovin.packages.fasterjpa.annotations;
+
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация для пометки наследников класса
+ * {@link Filter}, задающая белый список полей сущности,
+ * которые клиент может запросить параметром {@code fields}
+ * у {@link ru.korovin.packages.fasterjpa.queryparam.SearchRequest}.
+ * Вложенные to-one атрибуты указываются через точку.
+ * Выборка полей по фильтру без аннотации запрещена, в том числе по {@link Filter}
+ * без наследника, пустой список полей означает все поля белого списка.
+ *
+ * <pre>
+ *     {@code
+ *        @SelectableFields({"id", "firstName", "email"})
+ *        public class UserFilter extends Filter<User> {
+ *            private String firstName;
+ *        }
+ *
+ *        // GET /users?fields=id,email
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SelectableFields {
+    String NOT_SUPPORTED_MESSAGE = "Выборка полей не поддерживается для данного ресурса";
+    String NOT_ALLOWED_MESSAGE = "Недопустимые поля выборки: %s";
+
+    String[] value();
+}
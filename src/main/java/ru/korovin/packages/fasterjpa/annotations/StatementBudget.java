@@ -0,0 +1,40 @@
+package ru.korovin.packages.fasterjpa.annotations;
+
+import ru.korovin.packages.fasterjpa.instrumentation.StatementBudgetInterceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Максимальное количество SQL запросов одного вызова метода сервиса,
+ * проверяемое {@link StatementBudgetInterceptor}. Ищется на методе класса сервиса,
+ * затем на классе сервиса, затем на классе сущности сервиса.
+ *
+ * <pre>
+ *     {@code
+ *        @Service
+ *        @StatementBudget(3)
+ *        public class UserServiceImpl extends JpaCrudService<User, Long> {
+ *            @Override
+ *            @StatementBudget(1)
+ *            public User getById(Long id) {
+ *                return super.getById(id);
+ *            }
+ *        }
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface StatementBudget {
+    /**
+     * Максимальное количество запросов, значение меньше нуля отключает проверку
+     */
+    int value();
+}
@@ -0,0 +1,188 @@
+package ru.korovin.packages.fasterjpa.cache;
+
+import lombok.NonNull;
+import ru.korovin.packages.fasterjpa.annotations.CachedEntity;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Потокобезопасный кэш сущностей по идентификатору, ограниченный
+ * количеством элементов и временем жизни элемента.
+ * При превышении размера вытесняется давно не использованная сущность.
+ * Обращения, попадания, вытеснения и инвалидации учитываются в {@link ServiceMetrics} сервиса:
+ * <pre>
+ *     {@code
+ *     ServiceMetrics metrics = userService.getMetrics();
+ *     metrics.ratio(EntityCache.HIT_METRIC, EntityCache.REQUEST_METRIC);
+ *     metrics.getCounter(EntityCache.EVICTION_METRIC);
+ *     }
+ * </pre>
+ * Кэш хранит переданные экземпляры как есть, сервис помещает в кэш и выдаёт
+ * из кэша копии сущностей, чтобы изменение полученной сущности не затрагивало кэш.
+ * Загрузка с последующим помещением в кэш защищена от параллельной инвалидации:
+ * <pre>
+ *     {@code
+ *     long token = cache.loadToken();
+ *     T entity = load(id);
+ *     cache.putIfNotInvalidated(id, entity, token);
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class EntityCache<ID, T> {
+    public static final String REQUEST_METRIC = "cache.request";
+    public static final String HIT_METRIC = "cache.hit";
+    public static final String MISS_METRIC = "cache.miss";
+    public static final String EVICTION_METRIC = "cache.eviction";
+    public static final String EXPIRATION_METRIC = "cache.expiration";
+    public static final String INVALIDATION_METRIC = "cache.invalidation";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ServiceMetrics metrics;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<ID, Entry<T>> entries;
+    /**
+     * Счётчик инвалидаций, загрузка по токену, полученному до инвалидации,
+     * могла прочитать устаревшую строку и в кэш не помещается
+     */
+    private long invalidations;
+
+    public EntityCache(int maxSize, @NonNull Duration ttl, @NonNull ServiceMetrics metrics) {
+        this(maxSize, ttl, metrics, System::nanoTime);
+    }
+
+    /**
+     * @param ticker источник времени в наносекундах
+     */
+    public EntityCache(int maxSize, @NonNull Duration ttl, @NonNull ServiceMetrics metrics, @NonNull LongSupplier ticker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть больше нуля");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.isNegative() || ttl.isZero() ? 0 : ttl.toNanos();
+        this.metrics = metrics;
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ID, Entry<T>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    metrics.increment(EVICTION_METRIC);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Создаёт кэш по аннотации {@link CachedEntity} сущности
+     *
+     * @return Optional.empty() если сущность не помечена аннотацией
+     */
+    public static <ID, T> Optional<EntityCache<ID, T>> forEntity(@NonNull Class<T> entityType,
+                                                                @NonNull ServiceMetrics metrics) {
+        CachedEntity cachedEntity = entityType.getAnnotation(CachedEntity.class);
+        if (cachedEntity == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new EntityCache<>(cachedEntity.maxSize(),
+                Duration.ofSeconds(cachedEntity.ttlSeconds()), metrics));
+    }
+
+    public synchronized Optional<T> get(@NonNull ID id) {
+        metrics.increment(REQUEST_METRIC);
+        Entry<T> entry = entries.get(id);
+        if (entry != null && isExpired(entry, ticker.getAsLong())) {
+            entries.remove(id);
+            metrics.increment(EXPIRATION_METRIC);
+            entry = null;
+        }
+        metrics.increment(entry == null ? MISS_METRIC : HIT_METRIC);
+        return entry == null ? Optional.empty() : Optional.of(entry.value());
+    }
+
+    public synchronized void put(@NonNull ID id, @NonNull T entity) {
+        entries.put(id, new Entry<>(entity, ticker.getAsLong()));
+    }
+
+    /**
+     * Токен загрузки, который должен быть получен до чтения сущности из БД
+     *
+     * @see #putIfNotInvalidated(Object, Object, long)
+     */
+    public synchronized long loadToken() {
+        return invalidations;
+    }
+
+    /**
+     * Помещает сущность в кэш, если с момента получения токена не было инвалидаций
+     *
+     * @return true если сущность помещена в кэш
+     */
+    public synchronized boolean putIfNotInvalidated(@NonNull ID id, @NonNull T entity, long token) {
+        if (token != invalidations) {
+            return false;
+        }
+        put(id, entity);
+        return true;
+    }
+
+    public synchronized void invalidate(@NonNull ID id) {
+        invalidations++;
+        if (entries.remove(id) != null) {
+            metrics.increment(INVALIDATION_METRIC);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        metrics.add(INVALIDATION_METRIC, entries.size());
+        entries.clear();
+    }
+
+    /**
+     * Удаляет сущности с истёкшим временем жизни
+     */
+    public synchronized void cleanUp() {
+        long now = ticker.getAsLong();
+        Iterator<Entry<T>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next(), now)) {
+                iterator.remove();
+                metrics.increment(EXPIRATION_METRIC);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Доля попаданий от общего количества обращений к кэшу
+     */
+    public double hitRatio() {
+        return metrics.ratio(HIT_METRIC, REQUEST_METRIC);
+    }
+
+    private boolean isExpired(Entry<T> entry, long now) {
+        return ttlNanos > 0 && now - entry.loadedAt() >= ttlNanos;
+    }
+
+    private record Entry<T>(T value, long loadedAt) {
+    }
+}
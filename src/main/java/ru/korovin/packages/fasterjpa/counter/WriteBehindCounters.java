@@ -0,0 +1,277 @@
+package ru.korovin.packages.fasterjpa.counter;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+import ru.korovin.packages.fasterjpa.service.UpdateSpecification;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Накопитель приращений числовых счётчиков сущности с отложенной записью.
+ * Вместо обновления строки на каждое событие приращения суммируются в памяти
+ * по паре (id, свойство) и записываются одним вызовом {@link JpaCrudService#updateEach(Map)}
+ * не реже, чем раз в maxStaleness, либо раньше, когда число накопленных пар достигает maxPendingKeys:
+ * <pre>
+ *     {@code
+ *     @Bean
+ *     public WriteBehindCounters<Article, Long> articleCounters(ArticleService articleService) {
+ *         return new WriteBehindCounters<>(articleService, Duration.ofSeconds(1), 10_000);
+ *     }
+ *
+ *     articleCounters.increment(articleId, "views");
+ *     // update Article set views = views + case id when ? then ? ... end where id in (...)
+ *     }
+ * </pre>
+ * Накопитель - {@link SmartLifecycle}: бин Spring запускает запись по расписанию при старте контекста
+ * и записывает накопленные приращения при его остановке, вне контекста используются {@link #start()}
+ * и {@link #close()}. Приращения, не записанные до аварийного завершения процесса, теряются,
+ * поэтому maxStaleness ограничивает и объём возможной потери. При ошибке записи приращения
+ * возвращаются в накопитель и записываются следующей попыткой, приращения удалённых сущностей отбрасываются.
+ * <p>
+ * Коэффициент объединения - отношение числа событий к числу обновлённых строк:
+ * <pre>
+ *     {@code
+ *     metrics.ratio(WriteBehindCounters.EVENTS_METRIC, WriteBehindCounters.ROWS_METRIC);
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class WriteBehindCounters<T, ID> implements SmartLifecycle, AutoCloseable {
+    public static final String EVENTS_METRIC = "counter.events";
+    public static final String ROWS_METRIC = "counter.rows";
+    public static final String DROPPED_METRIC = "counter.dropped";
+    public static final String FLUSH_FAILED_METRIC = "counter.flush.failed";
+    /**
+     * Событий на обновлённую строку за одну запись
+     */
+    public static final String COALESCING_METRIC = "counter.coalescing";
+    private static final long[] COALESCING_BUCKETS = {1, 2, 5, 10, 100, 1_000, 10_000};
+
+    private final JpaCrudService<T, ID> service;
+    private final ServiceMetrics metrics;
+    private final Duration maxStaleness;
+    private final int maxPendingKeys;
+    private final Set<String> checkedFields = ConcurrentHashMap.newKeySet();
+    /**
+     * Приращения добавляются под блокировкой чтения, запись подменяет накопитель под блокировкой записи,
+     * поэтому приращение не попадает в уже записываемый накопитель
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private Map<CounterKey<ID>, LongAdder> pending = new ConcurrentHashMap<>();
+    private LongAdder pendingEvents = new LongAdder();
+    private volatile ScheduledExecutorService scheduler;
+
+    private record CounterKey<ID>(ID id, String field) {
+    }
+
+    /**
+     * @param maxStaleness   наибольшее время между событием и записью приращения
+     * @param maxPendingKeys число накопленных пар (id, свойство), при котором запись выполняется досрочно
+     */
+    public WriteBehindCounters(@NonNull JpaCrudService<T, ID> service,
+                               @NonNull Duration maxStaleness,
+                               int maxPendingKeys) {
+        if (maxStaleness.isNegative() || maxStaleness.isZero()) {
+            throw new IllegalArgumentException("Время ожидания записи должно быть положительным: " + maxStaleness);
+        }
+        if (maxPendingKeys <= 0) {
+            throw new IllegalArgumentException("Число накопленных счётчиков должно быть положительным: " + maxPendingKeys);
+        }
+        this.service = service;
+        this.metrics = service.getMetrics();
+        this.maxStaleness = maxStaleness;
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    public void increment(@NonNull ID id, @NonNull String field) {
+        add(id, field, 1);
+    }
+
+    /**
+     * @throws InvalidParameterException если свойство не найдено или не является числовым
+     */
+    public void add(@NonNull ID id, @NonNull String field, long delta) {
+        checkField(field);
+        int keys;
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(new CounterKey<>(id, field), key -> new LongAdder()).add(delta);
+            pendingEvents.increment();
+            keys = pending.size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        ScheduledExecutorService currentScheduler = scheduler;
+        if (keys >= maxPendingKeys && currentScheduler != null && flushRequested.compareAndSet(false, true)) {
+            currentScheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Записывает накопленные приращения
+     *
+     * @return количество обновлённых строк
+     * @throws ru.korovin.packages.fasterjpa.exception.EntityProcessingException если запись завершилась ошибкой,
+     *                                                                           приращения остаются в накопителе
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        Map<CounterKey<ID>, LongAdder> flushed;
+        long events;
+        swapLock.writeLock().lock();
+        try {
+            flushed = pending;
+            events = pendingEvents.sum();
+            pending = new ConcurrentHashMap<>();
+            pendingEvents = new LongAdder();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        Map<ID, UpdateSpecification> updates = new LinkedHashMap<>();
+        flushed.forEach((key, delta) -> {
+            long sum = delta.sum();
+            if (sum != 0) {
+                updates.computeIfAbsent(key.id(), id -> new UpdateSpecification(new LinkedHashMap<>()))
+                        .getUpdates().put(key.field(), UpdateSpecification.ub.plus(key.field(), sum));
+            }
+        });
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        List<BatchResultWithData<ID>> results;
+        try {
+            results = service.updateEach(updates);
+        } catch (RuntimeException e) {
+            metrics.increment(FLUSH_FAILED_METRIC);
+            restore(flushed, events);
+            throw e;
+        }
+        int rows = (int) results.stream().filter(result -> result.getStatus() == BatchOperationStatus.SUCCESS).count();
+        metrics.add(EVENTS_METRIC, events);
+        metrics.add(ROWS_METRIC, rows);
+        metrics.add(DROPPED_METRIC, results.size() - rows);
+        metrics.histogram(COALESCING_METRIC, COALESCING_BUCKETS).record(events / Math.max(1, rows));
+        return rows;
+    }
+
+    /**
+     * Количество накопленных пар (id, свойство)
+     */
+    public int getPendingKeys() {
+        swapLock.readLock().lock();
+        try {
+            return pending.size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "write-behind-" + metrics.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = maxStaleness.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Останавливает запись по расписанию и записывает накопленные приращения
+     */
+    @Override
+    public void stop() {
+        ScheduledExecutorService currentScheduler;
+        synchronized (this) {
+            currentScheduler = scheduler;
+            scheduler = null;
+        }
+        if (currentScheduler != null) {
+            currentScheduler.shutdown();
+            try {
+                currentScheduler.awaitTermination(maxStaleness.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка записи счётчиков {}, приращения будут записаны повторно", metrics.getName(), e);
+        }
+    }
+
+    private void restore(Map<CounterKey<ID>, LongAdder> flushed, long events) {
+        swapLock.readLock().lock();
+        try {
+            flushed.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(delta.sum()));
+            pendingEvents.add(events);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void checkField(String field) {
+        if (checkedFields.contains(field)) {
+            return;
+        }
+        Class<?> type = findFieldType(service.getEntityType(), field);
+        if (type == null || !(Number.class.isAssignableFrom(type) || type.isPrimitive() && type != boolean.class && type != char.class)) {
+            throw new InvalidParameterException(String.format("Свойство '%s' не является числовым свойством %s",
+                    field, service.getEntityType().getSimpleName()));
+        }
+        checkedFields.add(field);
+    }
+
+    private static Class<?> findFieldType(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field.getType();
+                }
+            }
+        }
+        return null;
+    }
+}
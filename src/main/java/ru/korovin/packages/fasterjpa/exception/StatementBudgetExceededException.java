@@ -0,0 +1,17 @@
+package ru.korovin.packages.fasterjpa.exception;
+
+/**
+ * Вызов метода сервиса выполнил больше SQL запросов, чем разрешено
+ * {@link ru.korovin.packages.fasterjpa.annotations.StatementBudget},
+ * либо повторил один запрос с разными параметрами (N+1).
+ * Выбрасывается только при {@code fasterjpa.statements.fail-on-violation=true}
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
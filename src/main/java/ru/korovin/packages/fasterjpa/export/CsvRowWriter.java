@@ -0,0 +1,59 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * CSV сериализатор по RFC 4180: значения, содержащие разделитель,
+ * кавычки или перевод строки, заключаются в кавычки, null записывается пустым значением.
+ */
+class CsvRowWriter implements RowWriter {
+    private final char delimiter;
+
+    CsvRowWriter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void writeHeader(Writer writer, List<String> columns) throws IOException {
+        writeRow(writer, columns.toArray());
+    }
+
+    @Override
+    public void writeRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            Object value = values[i];
+            if (value != null) {
+                writeValue(writer, value instanceof byte[] bytes
+                        ? Base64.getEncoder().encodeToString(bytes)
+                        : value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Writer writer, String value) throws IOException {
+        if (!requiresQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private boolean requiresQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
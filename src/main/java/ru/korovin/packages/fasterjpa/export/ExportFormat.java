@@ -0,0 +1,40 @@
+package ru.korovin.packages.fasterjpa.export;
+
+/**
+ * Формат выгрузки данных
+ * <ul>
+ *     <li>{@link #NDJSON} - один JSON объект на строку</li>
+ *     <li>{@link #CSV} - RFC 4180, первая строка содержит заголовки колонок</li>
+ * </ul>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    RowWriter createWriter(ExportOptions options) {
+        return switch (this) {
+            case NDJSON -> new NdjsonRowWriter();
+            case CSV -> new CsvRowWriter(options.getCsvDelimiter());
+        };
+    }
+}
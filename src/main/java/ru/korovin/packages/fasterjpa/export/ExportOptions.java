@@ -0,0 +1,81 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+
+import java.util.List;
+
+/**
+ * Параметры выгрузки данных
+ * <pre>
+ *     {@code
+ *     ExportOptions options = ExportOptions.builder()
+ *             .fields(List.of("id", "email", "user.firstName"))
+ *             .gzip(true)
+ *             .build();
+ *     userService.export(filter, sorting, ExportFormat.CSV, outputStream, options);
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Builder
+@ToString
+public class ExportOptions {
+    public static final int DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Пути выгружаемых атрибутов сущности из белого списка
+     * {@link ru.korovin.packages.fasterjpa.annotations.SelectableFields} класса фильтра,
+     * пустой список - все поля белого списка
+     */
+    @NonNull
+    @Builder.Default
+    private final List<String> fields = List.of();
+    /**
+     * Количество строк, после записи которых буфер сбрасывается в выходной поток
+     */
+    @Builder.Default
+    private final int flushInterval = DEFAULT_FLUSH_INTERVAL;
+    /**
+     * Размер буфера записи в байтах
+     */
+    @Builder.Default
+    private final int bufferSize = DEFAULT_BUFFER_SIZE;
+    @Builder.Default
+    private final boolean gzip = false;
+    @Builder.Default
+    private final char csvDelimiter = ',';
+
+    /**
+     * @throws InvalidParameterException если интервал сброса или размер буфера не положительны
+     */
+    private ExportOptions(@NonNull List<String> fields,
+                          int flushInterval,
+                          int bufferSize,
+                          boolean gzip,
+                          char csvDelimiter) {
+        if (flushInterval <= 0) {
+            throw new InvalidParameterException("Интервал сброса выгрузки должен быть положительным: " + flushInterval);
+        }
+        if (bufferSize <= 0) {
+            throw new InvalidParameterException("Размер буфера выгрузки должен быть положительным: " + bufferSize);
+        }
+        this.fields = fields;
+        this.flushInterval = flushInterval;
+        this.bufferSize = bufferSize;
+        this.gzip = gzip;
+        this.csvDelimiter = csvDelimiter;
+    }
+
+    public static ExportOptions defaults() {
+        return ExportOptions.builder().build();
+    }
+}
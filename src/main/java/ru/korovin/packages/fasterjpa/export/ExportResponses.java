@@ -0,0 +1,55 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import lombok.NonNull;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.Sorting;
+import ru.korovin.packages.fasterjpa.service.CrudService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формирование потокового HTTP ответа с выгрузкой данных.
+ * Требует наличия spring-webmvc в classpath.
+ * <pre>
+ *     {@code
+ *     @GetMapping("/users/export")
+ *     public ResponseEntity<StreamingResponseBody> export(@RequestParam MultiValueMap<String, String> params) {
+ *         SearchRequest<UserFilter, Sorting> request = ...;
+ *         return ExportResponses.of(userService, request.getFilter(), request.getSorting(),
+ *                 ExportFormat.CSV, ExportOptions.builder().fields(request.getFields()).build(), "users");
+ *     }
+ *     }
+ * </pre>
+ * При {@link ExportOptions#isGzip()} ответ передаётся с заголовком {@code Content-Encoding: gzip}.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class ExportResponses {
+    private ExportResponses() {
+    }
+
+    public static <T> ResponseEntity<StreamingResponseBody> of(@NonNull CrudService<T, ?> service,
+                                                               @NonNull Filter<T> filter,
+                                                               @NonNull Sorting sorting,
+                                                               @NonNull ExportFormat format,
+                                                               @NonNull ExportOptions options,
+                                                               @NonNull String fileName) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType(MediaType.parseMediaType(format.getContentType()), StandardCharsets.UTF_8));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(fileName + "." + format.getFileExtension(), StandardCharsets.UTF_8)
+                .build());
+        if (options.isGzip()) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = out -> service.export(filter, sorting, format, out, options);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Конвейер выгрузки: строки потока сериализуются по одной в буфер фиксированного размера,
+ * буфер сбрасывается в выходной поток каждые {@link ExportOptions#getFlushInterval()} строк.
+ * Потребление памяти не зависит от количества строк, а запись в медленный
+ * выходной поток (например сокет клиента) блокирует чтение следующих строк из БД.
+ * Выходной поток не закрывается.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class Exporter {
+    private Exporter() {
+    }
+
+    /**
+     * @param rows    строки выгрузки, значения в порядке columns
+     * @param columns имена колонок
+     * @return количество выгруженных строк
+     */
+    public static long write(@NonNull Stream<Object[]> rows,
+                             @NonNull List<String> columns,
+                             @NonNull ExportFormat format,
+                             @NonNull ExportOptions options,
+                             @NonNull OutputStream out) throws IOException {
+        OutputStream target = new NonClosingOutputStream(out);
+        GZIPOutputStream gzip = options.isGzip() ? new GZIPOutputStream(target, options.getBufferSize()) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip != null ? gzip : target, StandardCharsets.UTF_8),
+                options.getBufferSize());
+        RowWriter rowWriter = format.createWriter(options);
+        rowWriter.writeHeader(writer, columns);
+        long count = 0;
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            rowWriter.writeRow(writer, iterator.next());
+            if (++count % options.getFlushInterval() == 0) {
+                writer.flush();
+            }
+        }
+        writer.close();
+        return count;
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
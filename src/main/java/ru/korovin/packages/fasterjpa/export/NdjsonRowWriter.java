@@ -0,0 +1,98 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * NDJSON сериализатор, ключи объекта совпадают с путями атрибутов.
+ * Числа и логические значения записываются как есть, остальные значения -
+ * строками в формате {@code toString()}, например даты в ISO-8601.
+ */
+class NdjsonRowWriter implements RowWriter {
+    private String[] keys;
+
+    @Override
+    public void writeHeader(Writer writer, List<String> columns) {
+        keys = columns.stream()
+                .map(column -> quote(column) + ":")
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public void writeRow(Writer writer, Object[] values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(keys[i]);
+            writeValue(writer, values[i]);
+        }
+        writer.write("}\n");
+    }
+
+    private void writeValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof Boolean
+                || value instanceof Number number && isFinite(number)) {
+            writer.write(value.toString());
+        } else if (value instanceof byte[] bytes) {
+            writer.write('"');
+            writer.write(Base64.getEncoder().encodeToString(bytes));
+            writer.write('"');
+        } else {
+            writeString(writer, value.toString());
+        }
+    }
+
+    private boolean isFinite(Number number) {
+        return !(number instanceof Double d && !Double.isFinite(d))
+                && !(number instanceof Float f && !Float.isFinite(f));
+    }
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(builder, value.charAt(i));
+        }
+        return builder.append('"').toString();
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                writer.write(value, start, i - start);
+                StringBuilder escaped = new StringBuilder(6);
+                appendEscaped(escaped, c);
+                writer.write(escaped.toString());
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    private static void appendEscaped(StringBuilder builder, char c) {
+        switch (c) {
+            case '"' -> builder.append("\\\"");
+            case '\\' -> builder.append("\\\\");
+            case '\n' -> builder.append("\\n");
+            case '\r' -> builder.append("\\r");
+            case '\t' -> builder.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+    }
+}
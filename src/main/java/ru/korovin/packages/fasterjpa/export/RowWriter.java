@@ -0,0 +1,18 @@
+package ru.korovin.packages.fasterjpa.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Сериализатор строк выгрузки, не хранит строки в памяти
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+interface RowWriter {
+    void writeHeader(Writer writer, List<String> columns) throws IOException;
+
+    void writeRow(Writer writer, Object[] values) throws IOException;
+}
@@ -0,0 +1,200 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.korovin.packages.fasterjpa.service.FetchStrategy;
+import ru.korovin.packages.fasterjpa.service.Joins;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Обучает планы загрузки связей по ленивым загрузкам коллекций. Сущности, возвращённые вызовом
+ * сервиса, отслеживаются до закрытия контекста персистентности потока выполнения - транзакции
+ * или open-in-view, инициализация их коллекции засчитывается точке вызова. Следующий за minCalls
+ * наблюдаемыми вызов фиксирует план: в него входят не более maxJoins связей, загружавшихся
+ * лениво не реже minLoadRatio вызовов. Учитываются только коллекции возвращённых сущностей,
+ * вложенные пути и to-one прокси не отслеживаются. Вызовы без открытого контекста
+ * персистентности не наблюдаются: ленивая загрузка после них невозможна.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FetchPlanLearner implements InitializeCollectionEventListener {
+    private final FetchPlanLearningProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<String, CallSiteStats> callSites = new ConcurrentHashMap<>();
+    private final ThreadLocal<TrackedEntities> trackedEntities = new ThreadLocal<>();
+
+    /**
+     * Контекст персистентности, открытый транзакцией или open-in-view и переживающий вызов сервиса
+     */
+    public boolean hasOpenPersistenceContext() {
+        return getOpenSession() != null;
+    }
+
+    /**
+     * Отслеживает сущности, возвращённые вызовом точки callSite, до закрытия текущего контекста персистентности
+     */
+    public void observe(String callSite, Collection<?> entities) {
+        Session session = getOpenSession();
+        if (session == null) {
+            return;
+        }
+        CallSiteStats stats = callSites.get(callSite);
+        if (stats == null) {
+            if (callSites.size() >= properties.getMaxCallSites()) {
+                return;
+            }
+            stats = callSites.computeIfAbsent(callSite, CallSiteStats::new);
+        }
+        if (stats.plan != null) {
+            return;
+        }
+        if (stats.calls.sum() >= properties.getMinCalls()) {
+            learn(stats);
+            return;
+        }
+        stats.calls.increment();
+        Set<String> loadedPaths = ConcurrentHashMap.newKeySet();
+        stats.observations.add(loadedPaths);
+        Map<Object, Set<String>> tracked = getTrackedEntities(session);
+        for (Object entity : entities) {
+            if (tracked.size() >= properties.getMaxTrackedEntities()) {
+                break;
+            }
+            tracked.putIfAbsent(entity, loadedPaths);
+        }
+    }
+
+    /**
+     * Зафиксированный план точки вызова, пустой если план не сформирован или в нём нет связей
+     */
+    public Optional<Joins> getPlan(String callSite) {
+        CallSiteStats stats = callSites.get(callSite);
+        if (stats == null || stats.plan == null || stats.plan.joins().isEmpty()) {
+            return Optional.empty();
+        }
+        Joins joins = Joins.empty();
+        for (String path : stats.plan.joins()) {
+            joins = joins.with(path, FetchStrategy.BATCH);
+        }
+        return Optional.of(joins);
+    }
+
+    public List<LearnedFetchPlan> getReport() {
+        return callSites.values().stream()
+                .map(stats -> stats.plan != null ? stats.plan : stats.toPlan(properties, false))
+                .sorted(Comparator.comparing(LearnedFetchPlan::callSite))
+                .toList();
+    }
+
+    public void reset() {
+        callSites.clear();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        TrackedEntities tracked = trackedEntities.get();
+        Object owner = event.getAffectedOwnerOrNull();
+        if (tracked == null || owner == null) {
+            return;
+        }
+        Set<String> loadedPaths = tracked.entities().get(owner);
+        if (loadedPaths != null) {
+            loadedPaths.add(event.getCollection().getRole().substring(event.getAffectedOwnerEntityName().length() + 1));
+        }
+    }
+
+    private Session getOpenSession() {
+        if (!(TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder)
+                || !holder.getEntityManager().isOpen()) {
+            return null;
+        }
+        return holder.getEntityManager().unwrap(Session.class);
+    }
+
+    /**
+     * Сущности отслеживаются до закрытия сессии, отслеживание сущностей предыдущей сессии потока
+     * выполнения, закрытой в другом потоке, заменяется
+     */
+    private Map<Object, Set<String>> getTrackedEntities(Session session) {
+        TrackedEntities tracked = trackedEntities.get();
+        if (tracked == null || tracked.session() != session) {
+            tracked = new TrackedEntities(session, new IdentityHashMap<>());
+            trackedEntities.set(tracked);
+            TrackedEntities sessionTracked = tracked;
+            session.addEventListeners(new SessionEventListener() {
+                @Override
+                public void end() {
+                    if (trackedEntities.get() == sessionTracked) {
+                        trackedEntities.remove();
+                    }
+                }
+            });
+        }
+        return tracked.entities();
+    }
+
+    private void learn(CallSiteStats stats) {
+        synchronized (stats) {
+            if (stats.plan == null) {
+                stats.plan = stats.toPlan(properties, true);
+                log.info("План загрузки {}: {}", stats.callSite, stats.plan.joins().isEmpty()
+                        ? "связи не загружаются лениво" : "Joins.of(" + String.join(", ", stats.plan.joins()) + ")");
+            }
+        }
+    }
+
+    private record TrackedEntities(Session session, Map<Object, Set<String>> entities) {
+    }
+
+    /**
+     * Наблюдения точки вызова: пути, загруженные после каждого вызова. Пути последних вызовов
+     * дополняются до завершения их транзакций, поэтому доли загрузок считаются при построении плана
+     */
+    @RequiredArgsConstructor
+    private static final class CallSiteStats {
+        private final String callSite;
+        private final LongAdder calls = new LongAdder();
+        private final Collection<Set<String>> observations = new ConcurrentLinkedQueue<>();
+        private volatile LearnedFetchPlan plan;
+
+        private LearnedFetchPlan toPlan(FetchPlanLearningProperties properties, boolean learned) {
+            long callCount = Math.max(calls.sum(), 1);
+            Map<String, Integer> loads = new LinkedHashMap<>();
+            observations.forEach(paths -> paths.forEach(path -> loads.merge(path, 1, Integer::sum)));
+            Map<String, Double> loadRatios = new LinkedHashMap<>();
+            loads.forEach((path, count) -> loadRatios.put(path, (double) count / callCount));
+            List<String> joins = loadRatios.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= properties.getMinLoadRatio())
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(Math.max(properties.getMaxJoins(), 0))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (learned) {
+                observations.clear();
+            }
+            return new LearnedFetchPlan(callSite, calls.sum(), Map.copyOf(loadRatios), joins, learned);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+/**
+ * Автоконфигурация обучения планов загрузки связей, включается свойством
+ * {@code fasterjpa.fetch-learning.enabled=true}, см. {@link FetchPlanLearningProperties}.
+ * Регистрирует {@link FetchPlanLearner} слушателем инициализации коллекций Hibernate,
+ * оборачивает бины {@link JpaCrudService} в {@link FetchPlanLearningInterceptor}
+ * и при наличии actuator регистрирует отчёт {@link FetchPlanReportEndpoint}
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "fasterjpa.fetch-learning", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(FetchPlanLearningProperties.class)
+public class FetchPlanLearningAutoConfiguration {
+
+    @Bean
+    public FetchPlanLearner fetchPlanLearner(FetchPlanLearningProperties properties,
+                                             EntityManagerFactory entityManagerFactory) {
+        FetchPlanLearner learner = new FetchPlanLearner(properties, entityManagerFactory);
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.INIT_COLLECTION, learner);
+        return learner;
+    }
+
+    @Bean
+    public static BeanPostProcessor fetchPlanLearningBeanPostProcessor(ObjectProvider<FetchPlanLearner> learner,
+                                                                       ObjectProvider<FetchPlanLearningProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!JpaCrudService.class.isAssignableFrom(AopUtils.getTargetClass(bean))) {
+                    return bean;
+                }
+                FetchPlanLearningInterceptor interceptor =
+                        new FetchPlanLearningInterceptor(learner.getObject(), properties.getObject());
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(interceptor);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(bean.getClass().getClassLoader());
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    public FetchPlanReportEndpoint fetchPlanReportEndpoint(FetchPlanLearner learner) {
+        return new FetchPlanReportEndpoint(learner);
+    }
+}
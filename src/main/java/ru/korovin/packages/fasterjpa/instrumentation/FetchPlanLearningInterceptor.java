@@ -0,0 +1,91 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.service.MultiGetResult;
+import ru.korovin.packages.fasterjpa.service.PageableResult;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Передаёт {@link FetchPlanLearner} сущности, возвращённые методами {@code get*} и {@code find*}
+ * сервиса {@link JpaCrudService}, под отпечатком точки вызова: сервис, метод и форма аргументов.
+ * Форма {@link Filter} - свойства и операции условий без значений, поэтому вызовы
+ * с одинаковыми условиями и разными значениями обучают один план. В режиме
+ * {@link FetchPlanLearningProperties.Mode#APPLY} связи зафиксированного плана загружаются
+ * в возвращённые сущности через {@link JpaCrudService#loadAssociations(Collection, Joins)}
+ * сразу после вызова в контексте персистентности вызывающего кода.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@RequiredArgsConstructor
+public class FetchPlanLearningInterceptor implements MethodInterceptor {
+    private final FetchPlanLearner learner;
+    private final FetchPlanLearningProperties properties;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!(invocation.getThis() instanceof JpaCrudService<?, ?> service)
+                || !method.getName().startsWith("get") && !method.getName().startsWith("find")
+                || !learner.hasOpenPersistenceContext()) {
+            return invocation.proceed();
+        }
+        String callSite = toCallSite(service, method, invocation.getArguments());
+        Object result = invocation.proceed();
+        List<?> entities = extractEntities(result, service.getEntityType());
+        if (entities.isEmpty()) {
+            return result;
+        }
+        learner.observe(callSite, entities);
+        if (properties.getMode() == FetchPlanLearningProperties.Mode.APPLY) {
+            learner.getPlan(callSite).ifPresent(joins -> ((JpaCrudService) service).loadAssociations(entities, joins));
+        }
+        return result;
+    }
+
+    /**
+     * {@code UserService.getList(Filter[firstName:EQUALS], Pagination)}
+     */
+    static String toCallSite(JpaCrudService<?, ?> service, Method method, Object[] arguments) {
+        StringJoiner shape = new StringJoiner(", ", ClassUtils.getUserClass(service).getSimpleName()
+                + "." + method.getName() + "(", ")");
+        for (Object argument : arguments) {
+            if (argument instanceof Filter<?> filter) {
+                StringJoiner conditions = new StringJoiner(", ", "Filter[", "]");
+                filter.getConditions().forEach(condition ->
+                        conditions.add(condition.property() + ":" + condition.operation()));
+                shape.add(conditions.toString());
+            } else if (argument instanceof Joins joins) {
+                shape.add("Joins" + joins.properties());
+            } else {
+                shape.add(argument == null ? "null" : ClassUtils.getUserClass(argument).getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+
+    private static List<?> extractEntities(Object result, Class<?> entityType) {
+        Object value = result instanceof Optional<?> optional ? optional.orElse(null) : result;
+        Collection<?> values = value instanceof Collection<?> collection ? collection
+                : value instanceof PageableResult<?> page ? page.getData()
+                : value instanceof MultiGetResult<?, ?> multiGet ? multiGet.getList()
+                : value == null ? List.of() : List.of(value);
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream().filter(entityType::isInstance).toList();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки обучения планов загрузки связей по ленивым загрузкам, наблюдаемым после вызовов сервисов
+ * <pre>
+ *     fasterjpa.fetch-learning.enabled=true
+ *     fasterjpa.fetch-learning.mode=apply
+ *     fasterjpa.fetch-learning.min-calls=20
+ *     fasterjpa.fetch-learning.min-load-ratio=0.5
+ *     fasterjpa.fetch-learning.max-joins=3
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@ConfigurationProperties(prefix = "fasterjpa.fetch-learning")
+public class FetchPlanLearningProperties {
+    private boolean enabled;
+    private Mode mode = Mode.SUGGEST;
+    /**
+     * Количество наблюдаемых вызовов точки вызова, после которого план фиксируется
+     */
+    private int minCalls = 20;
+    /**
+     * Доля вызовов, после которых связь загружалась лениво, начиная с которой связь входит в план
+     */
+    private double minLoadRatio = 0.5;
+    /**
+     * Максимальное количество связей плана, связи выбираются по убыванию доли загрузок
+     */
+    private int maxJoins = 3;
+    /**
+     * Максимальное количество отслеживаемых точек вызова, новые точки сверх лимита не отслеживаются
+     */
+    private int maxCallSites = 1000;
+    /**
+     * Максимальное количество сущностей, отслеживаемых в одной транзакции
+     */
+    private int maxTrackedEntities = 1000;
+
+    public enum Mode {
+        /**
+         * План только записывается в лог и отчёт
+         */
+        SUGGEST,
+        /**
+         * Связи плана загружаются сразу после вызова запросами BATCH
+         */
+        APPLY
+    }
+}
@@ -0,0 +1,37 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Отчёт о планах загрузки связей, обученных {@link FetchPlanLearner}, как endpoint actuator
+ * {@code fetchplans}. Доступ и публикация настраиваются средствами actuator, например
+ * {@code management.endpoints.web.exposure.include=fetchplans}.
+ * Регистрируется {@link FetchPlanLearningAutoConfiguration}
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Endpoint(id = "fetchplans")
+@RequiredArgsConstructor
+public class FetchPlanReportEndpoint {
+    private final FetchPlanLearner learner;
+
+    @ReadOperation
+    public List<LearnedFetchPlan> getFetchPlans() {
+        return learner.getReport();
+    }
+
+    /**
+     * Сбрасывает наблюдения и планы, например после изменения кода вызывающей стороны
+     */
+    @DeleteOperation
+    public void resetFetchPlans() {
+        learner.reset();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма с фиксированными границами корзин.
+ * Корзина с индексом i содержит значения меньше bounds[i],
+ * последняя корзина - все значения больше или равные последней границе.
+ * <pre>
+ *     {@code
+ *     Histogram histogram = new Histogram(100, 1_000, 10_000);
+ *     histogram.record(250);
+ *     histogram.snapshot(); // {<100=0, <1000=1, <10000=0, >=10000=0}
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class Histogram {
+    private final long[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public Histogram(long... bounds) {
+        this.bounds = Arrays.copyOf(bounds, bounds.length);
+        Arrays.sort(this.bounds);
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        int index = Arrays.binarySearch(bounds, value);
+        int bucket = index >= 0 ? index + 1 : -index - 1;
+        buckets[bucket].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public double getMean() {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0 : (double) sum.sum() / currentCount;
+    }
+
+    public long getMax() {
+        return count.sum() == 0 ? 0 : max.get();
+    }
+
+    /**
+     * Снимок значений корзин, ключ - метка вида {@code <1000} или {@code >=1000}
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < bounds.length; i++) {
+            result.put("<" + bounds[i], buckets[i].sum());
+        }
+        result.put(bounds.length == 0 ? "all" : ">=" + bounds[bounds.length - 1], buckets[bounds.length].sum());
+        return result;
+    }
+
+    public void reset() {
+        Arrays.stream(buckets).forEach(LongAdder::reset);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram" + snapshot();
+    }
+}
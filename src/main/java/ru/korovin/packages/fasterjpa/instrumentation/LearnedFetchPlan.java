@@ -0,0 +1,20 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * План загрузки связей точки вызова сервиса, сформированный {@link FetchPlanLearner}
+ *
+ * @param callSite   отпечаток точки вызова: сервис, метод и форма аргументов без значений
+ * @param calls      количество наблюдаемых вызовов
+ * @param loadRatios доля вызовов, после которых связь загружалась лениво, по пути связи
+ * @param joins      пути плана, пустой список если связи не загружались достаточно часто
+ * @param learned    план зафиксирован и больше не изменяется
+ */
+public record LearnedFetchPlan(String callSite,
+                               long calls,
+                               Map<String, Double> loadRatios,
+                               List<String> joins,
+                               boolean learned) {
+}
@@ -0,0 +1,45 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.NonNull;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Снимок счётчиков кэша планов запросов Hibernate.
+ * Низкая доля попаданий означает, что текст запросов зависит от значений
+ * (значения передаются литералами, а не параметрами).
+ * Счётчики ведутся только при включённой статистике {@code hibernate.generate_statistics=true}.
+ * <pre>
+ *     {@code
+ *     QueryPlanCacheStats stats = QueryPlanCacheStats.of(entityManagerFactory);
+ *     stats.hitRatio();
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public record QueryPlanCacheStats(long hits, long misses) {
+
+    public static QueryPlanCacheStats of(@NonNull EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new QueryPlanCacheStats(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount());
+    }
+
+    /**
+     * @return 0 если обращений к кэшу не было
+     */
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Разница счётчиков относительно предыдущего снимка
+     */
+    public QueryPlanCacheStats minus(@NonNull QueryPlanCacheStats previous) {
+        return new QueryPlanCacheStats(hits - previous.hits, misses - previous.misses);
+    }
+}
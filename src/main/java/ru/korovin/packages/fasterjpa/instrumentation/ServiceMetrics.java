@@ -0,0 +1,94 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Набор счётчиков и гистограмм одного сервиса.
+ * Метрики создаются лениво при первом обращении по имени,
+ * поэтому реализации сервисов могут добавлять собственные метрики
+ * без предварительной регистрации.
+ * <pre>
+ *     {@code
+ *     ServiceMetrics metrics = userService.getMetrics();
+ *     metrics.histogram(JpaCrudService.OFFSET_DEPTH_METRIC).snapshot();
+ *     metrics.getCounter(JpaCrudService.DEEP_OFFSET_REJECTED_METRIC);
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class ServiceMetrics {
+    private final String name;
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public ServiceMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public void add(String counter, long value) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(value);
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Возвращает гистограмму по имени, создавая её с указанными границами
+     * при первом обращении. Границы последующих вызовов игнорируются.
+     */
+    public Histogram histogram(String histogram, long... bounds) {
+        return histograms.computeIfAbsent(histogram, k -> new Histogram(bounds));
+    }
+
+    public Optional<Histogram> findHistogram(String histogram) {
+        return Optional.ofNullable(histograms.get(histogram));
+    }
+
+    /**
+     * Отношение двух счётчиков, например попаданий к общему числу обращений.
+     *
+     * @return 0 если знаменатель равен нулю
+     */
+    public double ratio(String numerator, String denominator) {
+        long total = getCounter(denominator);
+        return total == 0 ? 0 : (double) getCounter(numerator) / total;
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    public Map<String, Histogram> histograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceMetrics(" + name + ")" + counters() + histograms();
+    }
+}
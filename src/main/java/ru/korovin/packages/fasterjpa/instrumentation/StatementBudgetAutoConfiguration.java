@@ -0,0 +1,70 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+import java.util.List;
+
+/**
+ * Автоконфигурация подсчёта SQL запросов вызовов сервисов, включается свойством
+ * {@code fasterjpa.statements.enabled=true}, см. {@link StatementBudgetProperties}.
+ * Регистрирует {@link StatementRecorder} в Hibernate, если другой {@code StatementInspector}
+ * не задан явно, и оборачивает бины {@link JpaCrudService} в {@link StatementBudgetInterceptor}
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "fasterjpa.statements", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+public class StatementBudgetAutoConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementRecorderHibernatePropertiesCustomizer() {
+        return hibernateProperties -> {
+            Object inspector = hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR,
+                    StatementRecorder.class.getName());
+            if (inspector != null) {
+                log.warn("Задан StatementInspector {}, запросы сервисов не будут подсчитаны", inspector);
+            }
+            hibernateProperties.putIfAbsent(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new StatementCauseIntegrator()));
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor statementBudgetBeanPostProcessor(ObjectProvider<StatementBudgetProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!JpaCrudService.class.isAssignableFrom(AopUtils.getTargetClass(bean))) {
+                    return bean;
+                }
+                StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(properties.getObject());
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, interceptor);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(bean.getClass().getClassLoader());
+            }
+        };
+    }
+}
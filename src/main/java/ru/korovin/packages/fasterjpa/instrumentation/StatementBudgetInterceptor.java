@@ -0,0 +1,103 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import ru.korovin.packages.fasterjpa.annotations.StatementBudget;
+import ru.korovin.packages.fasterjpa.exception.StatementBudgetExceededException;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Считает SQL запросы каждого вызова метода сервиса {@link JpaCrudService} через {@link StatementRecorder}.
+ * Вызов, превысивший бюджет {@link StatementBudget}, либо повторивший один запрос
+ * не менее repeatThreshold раз (N+1), записывается в лог с отпечатками запросов
+ * и увеличивает счётчики {@link #BUDGET_EXCEEDED_METRIC}, {@link #REPEATED_STATEMENTS_METRIC}
+ * метрик сервиса, а при {@code fail-on-violation} завершается {@link StatementBudgetExceededException}.
+ * Вложенные вызовы сервисов учитываются в бюджете внешнего вызова.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatementBudgetInterceptor implements MethodInterceptor {
+    public static final String STATEMENTS_METRIC = "statements.per.call";
+    public static final String BUDGET_EXCEEDED_METRIC = "statements.budget.exceeded";
+    public static final String REPEATED_STATEMENTS_METRIC = "statements.repeated";
+    private static final long[] STATEMENTS_BUCKETS = {1, 2, 5, 10, 50, 100};
+
+    private final StatementBudgetProperties properties;
+    private final Map<Method, Integer> budgets = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (StatementRecorder.current().isPresent()
+                || !(invocation.getThis() instanceof JpaCrudService<?, ?> service)) {
+            return invocation.proceed();
+        }
+        Object result;
+        try (StatementRecording recording = StatementRecorder.start()) {
+            result = invocation.proceed();
+            check(service, invocation.getMethod(), recording);
+        }
+        return result;
+    }
+
+    private void check(JpaCrudService<?, ?> service, Method method, StatementRecording recording) {
+        if (recording.getCount() == 0) {
+            return;
+        }
+        ServiceMetrics metrics = service.getMetrics();
+        metrics.histogram(STATEMENTS_METRIC, STATEMENTS_BUCKETS).record(recording.getCount());
+        List<String> violations = new ArrayList<>();
+        int budget = budgets.computeIfAbsent(method, m -> resolveBudget(service, m));
+        if (budget >= 0 && recording.getCount() > budget) {
+            metrics.increment(BUDGET_EXCEEDED_METRIC);
+            violations.add(String.format("выполнено %d SQL запросов при бюджете %d: %s",
+                    recording.getCount(), budget, recording.getFingerprints()));
+        }
+        if (properties.getRepeatThreshold() >= 2) {
+            List<StatementRecording.RepeatedStatement> repeated =
+                    recording.getRepeatedStatements(properties.getRepeatThreshold());
+            if (!repeated.isEmpty()) {
+                metrics.increment(REPEATED_STATEMENTS_METRIC);
+            }
+            repeated.forEach(statement -> violations.add(String.format("запрос выполнен %d раз%s (N+1): %s",
+                    statement.count(),
+                    statement.cause() == null ? "" : " при загрузке " + statement.cause(),
+                    statement.fingerprint())));
+        }
+        if (violations.isEmpty()) {
+            return;
+        }
+        String message = String.format("Вызов %s.%s: %s", ClassUtils.getUserClass(service).getSimpleName(),
+                method.getName(), String.join("; ", violations));
+        if (properties.isFailOnViolation()) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private int resolveBudget(JpaCrudService<?, ?> service, Method method) {
+        Class<?> serviceType = ClassUtils.getUserClass(service);
+        StatementBudget budget = AnnotatedElementUtils.findMergedAnnotation(
+                ClassUtils.getMostSpecificMethod(method, serviceType), StatementBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(serviceType, StatementBudget.class);
+        }
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(service.getEntityType(), StatementBudget.class);
+        }
+        return budget == null ? properties.getDefaultBudget() : budget.value();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки проверки количества SQL запросов вызовов сервисов
+ * <pre>
+ *     fasterjpa.statements.enabled=true
+ *     fasterjpa.statements.default-budget=10
+ *     fasterjpa.statements.repeat-threshold=3
+ *     fasterjpa.statements.fail-on-violation=true
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@ConfigurationProperties(prefix = "fasterjpa.statements")
+public class StatementBudgetProperties {
+    private boolean enabled;
+    /**
+     * Бюджет методов без {@link ru.korovin.packages.fasterjpa.annotations.StatementBudget},
+     * значение меньше нуля отключает проверку
+     */
+    private int defaultBudget = -1;
+    /**
+     * Количество выполнений одного запроса за вызов, начиная с которого запрос считается N+1,
+     * значение меньше двух отключает проверку
+     */
+    private int repeatThreshold = 3;
+    /**
+     * Выбрасывать {@link ru.korovin.packages.fasterjpa.exception.StatementBudgetExceededException}
+     * вместо записи в лог, предназначено для тестов
+     */
+    private boolean failOnViolation;
+}
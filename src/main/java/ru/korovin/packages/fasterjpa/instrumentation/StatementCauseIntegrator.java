@@ -0,0 +1,92 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Регистрирует слушатели Hibernate, сообщающие {@link StatementRecorder} причину
+ * следующего запроса: инициализацию ленивой коллекции ({@code User.orders})
+ * либо загрузку связанной сущности ({@code Order}). Слушатель, добавленный перед стандартным,
+ * отмечает причину, добавленный после - сбрасывает её, если загрузка не выполнила запрос.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class StatementCauseIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata,
+                          BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.INIT_COLLECTION, new CollectionCauseMarker());
+        registry.appendListeners(EventType.INIT_COLLECTION, new CollectionCauseReset());
+        registry.prependListeners(EventType.LOAD, new EntityCauseMarker());
+        registry.appendListeners(EventType.LOAD, new EntityCauseReset());
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory,
+                             SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    /**
+     * {@code ru.example.User.orders} -> {@code User.orders}
+     */
+    static String toCollectionCause(String role) {
+        int propertyStart = role.lastIndexOf('.');
+        return role.substring(role.lastIndexOf('.', propertyStart - 1) + 1);
+    }
+
+    /**
+     * Загрузки, выполняемые Hibernate для связей: инициализация прокси и внутренние загрузки
+     */
+    private static boolean isAssociationLoad(LoadEventListener.LoadType loadType) {
+        return loadType != LoadEventListener.GET
+                && loadType != LoadEventListener.LOAD
+                && loadType != LoadEventListener.RELOAD;
+    }
+
+    private static final class CollectionCauseMarker implements InitializeCollectionEventListener {
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            StatementRecorder.markCause(toCollectionCause(event.getCollection().getRole()));
+        }
+    }
+
+    private static final class CollectionCauseReset implements InitializeCollectionEventListener {
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            StatementRecorder.markCause(null);
+        }
+    }
+
+    private static final class EntityCauseMarker implements LoadEventListener {
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) {
+            if (isAssociationLoad(loadType)) {
+                String entityName = event.getEntityClassName();
+                StatementRecorder.markCause(entityName.substring(entityName.lastIndexOf('.') + 1));
+            }
+        }
+    }
+
+    private static final class EntityCauseReset implements LoadEventListener {
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) {
+            if (isAssociationLoad(loadType)) {
+                StatementRecorder.markCause(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Optional;
+
+/**
+ * {@link StatementInspector} Hibernate, записывающий SQL запросы потока выполнения
+ * в открытую им {@link StatementRecording}. Вне записи запросы не сохраняются.
+ * Регистрируется автоконфигурацией {@link StatementBudgetAutoConfiguration},
+ * либо вручную свойством
+ * <pre>
+ *     spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class StatementRecorder implements StatementInspector {
+    private static final ThreadLocal<StatementRecording> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Открывает запись запросов текущего потока выполнения
+     *
+     * @throws IllegalStateException если запись уже открыта
+     */
+    public static StatementRecording start() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Запись SQL запросов уже открыта в текущем потоке выполнения");
+        }
+        StatementRecording recording = new StatementRecording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static Optional<StatementRecording> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Указывает ленивую связь, загрузка которой выполнит следующий запрос
+     */
+    static void markCause(String cause) {
+        StatementRecording recording = CURRENT.get();
+        if (recording != null) {
+            recording.markCause(cause);
+        }
+    }
+
+    static void stop(StatementRecording recording) {
+        if (CURRENT.get() == recording) {
+            CURRENT.remove();
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        StatementRecording recording = CURRENT.get();
+        if (recording != null) {
+            recording.record(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.korovin.packages.fasterjpa.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL запросы, выполненные потоком выполнения между {@link StatementRecorder#start()} и {@link #close()}.
+ * Запросы сравниваются по отпечатку - тексту SQL, в котором литералы и списки IN
+ * заменены на {@code ?}, поэтому один и тот же запрос с разными параметрами
+ * имеет один отпечаток. Многократное повторение отпечатка - признак проблемы N+1,
+ * причиной повторения указывается ленивая связь, загрузка которой выполнила запрос.
+ * <pre>
+ *     {@code
+ *     try (StatementRecording recording = StatementRecorder.start()) {
+ *         users.forEach(user -> user.getOrders().size());
+ *         recording.getRepeatedStatements(2); // [RepeatedStatement[count=10, cause=User.orders, ...]]
+ *     }
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class StatementRecording implements AutoCloseable {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final List<Statement> statements = new ArrayList<>();
+    private String pendingCause;
+
+    StatementRecording() {
+    }
+
+    /**
+     * @param fingerprint текст запроса без значений параметров
+     * @param cause       ленивая связь, загрузка которой выполнила запрос, либо null
+     */
+    public record Statement(String sql, String fingerprint, String cause) {
+    }
+
+    /**
+     * @param cause ленивая связь, загрузка которой выполнила запросы, либо null если запросы выполнены не ей
+     */
+    public record RepeatedStatement(String fingerprint, int count, String cause) {
+    }
+
+    public static String fingerprint(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = IN_LIST.matcher(fingerprint).replaceAll("(?)");
+        return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+    }
+
+    void record(String sql) {
+        statements.add(new Statement(sql, fingerprint(sql), pendingCause));
+        pendingCause = null;
+    }
+
+    void markCause(String cause) {
+        pendingCause = cause;
+    }
+
+    public int getCount() {
+        return statements.size();
+    }
+
+    public List<Statement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Количество выполнений по отпечатку в порядке первого выполнения
+     */
+    public Map<String, Integer> getFingerprints() {
+        Map<String, Integer> fingerprints = new LinkedHashMap<>();
+        statements.forEach(statement -> fingerprints.merge(statement.fingerprint(), 1, Integer::sum));
+        return fingerprints;
+    }
+
+    /**
+     * Запросы, выполненные не менее threshold раз
+     */
+    public List<RepeatedStatement> getRepeatedStatements(int threshold) {
+        Map<String, String> causes = new LinkedHashMap<>();
+        statements.stream()
+                .filter(statement -> statement.cause() != null)
+                .forEach(statement -> causes.putIfAbsent(statement.fingerprint(), statement.cause()));
+        return getFingerprints().entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .map(entry -> new RepeatedStatement(entry.getKey(), entry.getValue(), causes.get(entry.getKey())))
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        StatementRecorder.stop(this);
+    }
+}
@@ -33,6 +33,7 @@ import java.util.stream.Collectors;
 import static ru.korovin.packages.fasterjpa.annotations.FieldParamMapping.NO_MAPPING;
 import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.fb;
 import static ru.korovin.packages.fasterjpa.queryparam.filterInternal.FilterOperation.IS;
+import static ru.korovin.packages.fasterjpa.queryparam.utils.CriteriaParameters.bind;
 
 /**
  * Параметр запроса для фильтрации запрашиваемых ресурсов.
@@ -173,7 +174,8 @@ public class Filter<T> implements Specification<T> {
         } else {
             queryConfigurers.forEach(c -> c.accept(root));
         }
-        Map<String, List<Predicate>> predicates = new HashMap<>();
+        // порядок условий сохраняется, чтобы текст SQL не зависел от значений и имён полей
+        Map<String, List<Predicate>> predicates = new LinkedHashMap<>();
         conditions.forEach(c -> {
             Predicate predicate = parsePredicate(c, root, cb);
             if (predicates.containsKey(c.property())) {
@@ -614,12 +616,12 @@ public class Filter<T> implements Specification<T> {
 
     private Predicate parseContainsPredicate(CriteriaBuilder cb, Expression<?> selection, String stringValue) {
         Expression<String> stringSelection = cb.lower(getTypedExpression(selection, String.class));
-        return cb.like(stringSelection, "%" + stringValue.toLowerCase() + "%");
+        return cb.like(stringSelection, bind(cb, "%" + stringValue.toLowerCase() + "%"));
     }
 
     private Predicate parseLikePredicate(CriteriaBuilder cb, Expression<?> selection, String stringValue) {
         Expression<String> stringPath = getTypedExpression(selection, String.class);
-        return cb.like(stringPath, stringValue);
+        return cb.like(stringPath, bind(cb, stringValue));
     }
 
     private void determineEntityType() {
@@ -0,0 +1,61 @@
+package ru.korovin.packages.fasterjpa.queryparam;
+
+import lombok.NonNull;
+
+/**
+ * Политика обработки глубоких смещений при постраничном доступе.
+ * Запрос вида {@code page=2000000&pageSize=100} заставляет БД
+ * прочитать и отбросить все предшествующие строки, поэтому
+ * смещение больше {@link #maxOffset()} считается глубоким и обрабатывается
+ * согласно {@link Strategy}:
+ * <ul>
+ *     <li>{@link Strategy#REJECT} - запрос отклоняется</li>
+ *     <li>{@link Strategy#KEYSET} - запрос отклоняется с предложением перейти на
+ *     keyset пагинацию по ключу {@link Pagination#getAfter()}</li>
+ * </ul>
+ * Страницы с ключом {@link Pagination#getAfter()} выбираются seek запросом без OFFSET
+ * и политикой не ограничиваются.
+ * <pre>
+ *     {@code
+ *     userService.setOffsetPolicy(OffsetPolicy.keysetFallback(10_000));
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public record OffsetPolicy(long maxOffset, @NonNull Strategy strategy) {
+    public static final long UNLIMITED = -1;
+
+    public enum Strategy {
+        REJECT,
+        KEYSET
+    }
+
+    public OffsetPolicy {
+        if (maxOffset < 0 && maxOffset != UNLIMITED) {
+            throw new IllegalArgumentException("Ограничение смещения не может быть отрицательным");
+        }
+    }
+
+    public static OffsetPolicy unlimited() {
+        return new OffsetPolicy(UNLIMITED, Strategy.REJECT);
+    }
+
+    public static OffsetPolicy reject(long maxOffset) {
+        return new OffsetPolicy(maxOffset, Strategy.REJECT);
+    }
+
+    public static OffsetPolicy keysetFallback(long maxOffset) {
+        return new OffsetPolicy(maxOffset, Strategy.KEYSET);
+    }
+
+    public boolean isLimited() {
+        return maxOffset != UNLIMITED;
+    }
+
+    public boolean isExceededBy(@NonNull Pagination pagination) {
+        return isLimited() && pagination.isPaged() && pagination.getOffset() > maxOffset;
+    }
+}
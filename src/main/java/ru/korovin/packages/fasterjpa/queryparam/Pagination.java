@@ -1,13 +1,16 @@
 package ru.korovin.packages.fasterjpa.queryparam;
 
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static ru.korovin.packages.fasterjpa.queryparam.factories.Paginations.*;
 
 /**
@@ -29,14 +32,30 @@ import static ru.korovin.packages.fasterjpa.queryparam.factories.Paginations.*;
  * @since 2025
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Pagination {
     public static final String MAX_CONSTRAINT_VIOLATION_MESSAGE = "Превышен максимальный размер страницы, текущий размер %d, максимальный размер %d";
     public static final String MIN_CONSTRAINT_VIOLATION_MESSAGE = "Нарушен минимальный размер страницы, текущий размер %d, максимальный размер %d";
     public static final String ILLEGAL_SIZE_CONSTRAINT_VALUE_MESSAGE = "Ограничение размера страницы не может быть меньше или равно нулю";
+    public static final String MAX_OFFSET_CONSTRAINT_VIOLATION_MESSAGE = "Превышено максимальное смещение страницы, текущее смещение %d, максимальное смещение %d";
+    public static final String ILLEGAL_OFFSET_CONSTRAINT_VALUE_MESSAGE = "Ограничение смещения страницы не может быть меньше нуля";
     private int page = DEFAULT_PAGE;
     private int size = DEFAULT_PAGE_SIZE;
+    /**
+     * Ключ keyset пагинации - значения атрибутов сортировки последней строки предыдущей страницы,
+     * завершающиеся идентификатором. Если задан, страница выбирается seek запросом
+     * после указанной строки без OFFSET, номер страницы не учитывается
+     */
+    private List<Object> after = List.of();
+
+    public Pagination(int page, int size) {
+        this.page = page;
+        this.size = size;
+    }
+
+    public void setAfter(List<?> after) {
+        this.after = after == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(after));
+    }
 
     //state checking methods
     public boolean isUnpaged() {
@@ -47,6 +66,17 @@ public class Pagination {
         return size != ALL_CONTENT_SIZE;
     }
 
+    public boolean isKeyed() {
+        return isPaged() && !after.isEmpty();
+    }
+
+    /**
+     * Смещение первой строки страницы, для запроса без пагинации равно нулю
+     */
+    public long getOffset() {
+        return isUnpaged() ? 0 : (long) page * size;
+    }
+
     //transform methods
     public Pageable toJpaPageable() {
         if (size == ALL_CONTENT_SIZE) {
@@ -99,4 +129,14 @@ public class Pagination {
         return this;
     }
 
+    public Pagination withMaxOffsetConstraint(long maxOffset) {
+        if (maxOffset < 0) {
+            throw new IllegalArgumentException(ILLEGAL_OFFSET_CONSTRAINT_VALUE_MESSAGE);
+        }
+        if (getOffset() > maxOffset) {
+            throw new IllegalStateException(String.format(MAX_OFFSET_CONSTRAINT_VIOLATION_MESSAGE, getOffset(), maxOffset));
+        }
+        return this;
+    }
+
 }
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import org.springframework.util.MultiValueMap;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.queryparam.factories.Paginations;
 import ru.korovin.packages.fasterjpa.queryparam.filterInternal.FilterCondition;
 import ru.korovin.packages.fasterjpa.queryparam.filterInternal.FilterOperation;
@@ -22,6 +24,8 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
     public final static String SORT_PARAM;
     public final static String PAGE_PARAM;
     public final static String PAGE_SIZE_PARAM;
+    public final static String FIELDS_PARAM;
+    public final static String AFTER_PARAM;
     private final static Pattern FILTER_PATTERN;
     private final static Map<String, String> FILTER_PREFIX_MAPPING;
 
@@ -46,12 +50,14 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
         SORT_PARAM = "sort";
         PAGE_PARAM = "page";
         PAGE_SIZE_PARAM = "pageSize";
+        FIELDS_PARAM = "fields";
+        AFTER_PARAM = "after";
         FILTER_PREFIX_MAPPING.put("gt", ">");
         FILTER_PREFIX_MAPPING.put("ge", ">=");
         FILTER_PREFIX_MAPPING.put("lt", "<");
         FILTER_PREFIX_MAPPING.put("le", "<=");
         FILTER_PREFIX_MAPPING.put("not_equals", "!=");
-        NON_FILTER_KEYS = Set.of(SORT_PARAM, PAGE_SIZE_PARAM, PAGE_PARAM);
+        NON_FILTER_KEYS = Set.of(SORT_PARAM, PAGE_SIZE_PARAM, PAGE_PARAM, FIELDS_PARAM, AFTER_PARAM);
     }
 
     @Getter
@@ -59,12 +65,31 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
     private final F filter;
     private final S sorting;
     private final Map<String, BiFunction<String, String, Filter<?>>> customParsers;
+    /**
+     * Поля сущности, запрошенные параметром {@code fields=id,email},
+     * пустой список - выборка всех полей
+     */
+    @Getter
+    private final List<String> fields;
 
 
     public SearchRequest(@NonNull MultiValueMap<String, String> params,
                          Class<F> filterClass,
                          Class<S> sortingClass,
                          @NonNull Map<String, BiFunction<String, String, Filter<?>>> customParsers) {
+        this(params, filterClass, sortingClass, customParsers, OffsetPolicy.UNLIMITED);
+    }
+
+    /**
+     * @param maxOffset максимально допустимое смещение страницы, запросы с большим
+     *                  смещением отклоняются с {@link InvalidParameterException}.
+     *                  {@link OffsetPolicy#UNLIMITED} - без ограничения
+     */
+    public SearchRequest(@NonNull MultiValueMap<String, String> params,
+                         Class<F> filterClass,
+                         Class<S> sortingClass,
+                         @NonNull Map<String, BiFunction<String, String, Filter<?>>> customParsers,
+                         long maxOffset) {
         this.customParsers = customParsers;
         if (filterClass == null) {
             Class<? extends Filter> fClass = Filter.class;
@@ -74,12 +99,18 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
             sortingClass = (Class<S>) Sorting.class;
         }
         this.pagination = parsePagination(params);
+        if (maxOffset != OffsetPolicy.UNLIMITED && pagination.getOffset() > maxOffset) {
+            throw new InvalidParameterException(String.format(Pagination.MAX_OFFSET_CONSTRAINT_VIOLATION_MESSAGE,
+                    pagination.getOffset(), maxOffset));
+        }
 
         this.filter = parseFilter(params, filterClass);
         this.filter.validateAndApplyAllies();
 
         this.sorting = parseSorting(params, sortingClass);
         this.sorting.validateAndApplyAllies();
+
+        this.fields = parseFields(params, filterClass);
     }
 
     public static SearchRequestBuilder builder() {
@@ -162,7 +193,44 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
         };
     }
 
+    private List<String> parseFields(MultiValueMap<String, String> params, Class<?> filterClass) {
+        if (!params.containsKey(FIELDS_PARAM)) {
+            return List.of();
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String value : params.get(FIELDS_PARAM)) {
+            for (String field : value.split(",")) {
+                field = field.trim();
+                if (field.isEmpty()) {
+                    continue;
+                }
+                if (!field.matches("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*")) {
+                    throw new InvalidParameterException("Недопустимое имя поля выборки: " + field);
+                }
+                fields.add(field);
+            }
+        }
+        SelectableFields selectableFields = filterClass.getAnnotation(SelectableFields.class);
+        if (selectableFields == null) {
+            throw new InvalidParameterException(SelectableFields.NOT_SUPPORTED_MESSAGE);
+        }
+        Set<String> notAllowedFields = new LinkedHashSet<>(fields);
+        Arrays.asList(selectableFields.value()).forEach(notAllowedFields::remove);
+        if (!notAllowedFields.isEmpty()) {
+            throw new InvalidParameterException(String.format(SelectableFields.NOT_ALLOWED_MESSAGE, notAllowedFields));
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Ключ keyset пагинации передаётся повторяющимся параметром {@code after=Smith&after=42}
+     * в порядке атрибутов сортировки, номер страницы при этом не требуется
+     */
     private Pagination parsePagination(MultiValueMap<String, String> params) {
+        if (params.containsKey(AFTER_PARAM) && params.containsKey(PAGE_SIZE_PARAM)) {
+            int pageSize = Integer.parseInt(Objects.requireNonNull(params.getFirst(PAGE_SIZE_PARAM)));
+            return Paginations.after(pageSize, params.get(AFTER_PARAM).toArray());
+        }
         if (!params.containsKey(PAGE_PARAM) || !params.containsKey(PAGE_SIZE_PARAM)) {
             return Paginations.unpaged();
         }
@@ -184,6 +252,7 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
         private Class<F> filterClass;
         private Class<S> sortingClass;
         private final Map<String, BiFunction<String, String, Filter<?>>> customParsers;
+        private long maxOffset = OffsetPolicy.UNLIMITED;
 
         SearchRequestBuilder() {
             customParsers = new HashMap<>();
@@ -209,12 +278,20 @@ public class SearchRequest<F extends Filter<?>, S extends Sorting> {
             return this;
         }
 
+        public SearchRequestBuilder<F, S> maxOffset(long maxOffset) {
+            if (maxOffset < 0) {
+                throw new IllegalArgumentException(Pagination.ILLEGAL_OFFSET_CONSTRAINT_VALUE_MESSAGE);
+            }
+            this.maxOffset = maxOffset;
+            return this;
+        }
+
         public SearchRequest build() {
-            return new SearchRequest(this.params, this.filterClass, this.sortingClass, customParsers);
+            return new SearchRequest(this.params, this.filterClass, this.sortingClass, customParsers, maxOffset);
         }
 
         public String toString() {
-            return "SearchRequest.SearchRequestBuilder(params=" + this.params + ", filterClass=" + this.filterClass + ", sortingClass=" + this.sortingClass + ")";
+            return "SearchRequest.SearchRequestBuilder(params=" + this.params + ", filterClass=" + this.filterClass + ", sortingClass=" + this.sortingClass + ", maxOffset=" + this.maxOffset + ")";
         }
     }
 }
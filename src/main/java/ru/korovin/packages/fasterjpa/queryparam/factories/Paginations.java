@@ -2,6 +2,8 @@ package ru.korovin.packages.fasterjpa.queryparam.factories;
 
 import ru.korovin.packages.fasterjpa.queryparam.Pagination;
 
+import java.util.Arrays;
+
 public class Paginations {
     public static final int ALL_CONTENT_SIZE = -1;
     public static final int DEFAULT_PAGE = 0;
@@ -19,6 +21,15 @@ public class Paginations {
         return pagination;
     }
 
+    /**
+     * Страница keyset пагинации после строки с указанными значениями атрибутов сортировки
+     */
+    public static Pagination after(int size, Object... after) {
+        Pagination pagination = ofSize(size);
+        pagination.setAfter(Arrays.asList(after));
+        return pagination;
+    }
+
     public static Pagination ofSize(int size){
         Pagination pagination = new Pagination();
         pagination.setSize(size);
@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static ru.korovin.packages.fasterjpa.queryparam.utils.CriteriaParameters.bind;
+
 public class CriteriaExpressionBuilder implements ASTVisitor<Expression<?>> {
     private final CriteriaBuilder cb;
     private final Root<?> root;
@@ -77,20 +79,23 @@ public class CriteriaExpressionBuilder implements ASTVisitor<Expression<?>> {
                 if (args.size() == 1) {
                     return cb.round((Expression<Number>) args.getFirst(), 0);
                 } else {
-                    return cb.round(getTypedExpression(args.getFirst(), Number.class),
-                            ((NumberLiteral) node.arguments.get(1)).value.intValue());
+                    // cb.round принимает точность только значением, поэтому функция вызывается по имени
+                    Expression<?> value = args.getFirst();
+                    Class<?> resultType = value.getJavaType() == null ? Number.class : value.getJavaType();
+                    return cb.function("round", resultType, value,
+                            bind(cb, ((NumberLiteral) node.arguments.get(1)).value.intValue()));
                 }
 
             case "mod":
                 return cb.mod((Expression<Integer>) args.getFirst(),
-                        ((NumberLiteral) node.arguments.get(1)).value.intValue());
+                        bind(cb, ((NumberLiteral) node.arguments.get(1)).value.intValue()));
 
             case "sqrt":
                 return cb.sqrt(getTypedExpression(args.getFirst(), Number.class));
 
             case "left":
-                return cb.substring((Expression<String>) args.getFirst(), 1,
-                        convertToInteger(node.arguments.get(1)));
+                return cb.substring((Expression<String>) args.getFirst(), bind(cb, 1),
+                        bind(cb, convertToInteger(node.arguments.get(1))));
 
             case "right":
                 String str = args.get(0).toString();
@@ -234,12 +239,12 @@ public class CriteriaExpressionBuilder implements ASTVisitor<Expression<?>> {
 
     @Override
     public Expression<?> visit(StringLiteral node) {
-        return cb.literal(node.value);
+        return bind(cb, node.value);
     }
 
     @Override
     public Expression<?> visit(NumberLiteral node) {
-        return cb.literal(node.value);
+        return bind(cb, node.value);
     }
 
     /**
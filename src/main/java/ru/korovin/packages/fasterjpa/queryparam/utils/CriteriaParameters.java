@@ -0,0 +1,34 @@
+package ru.korovin.packages.fasterjpa.queryparam.utils;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import lombok.NonNull;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+/**
+ * Передача значений в Criteria запрос параметрами вместо литералов.
+ * Литерал {@link CriteriaBuilder#literal(Object)} попадает в текст SQL,
+ * поэтому каждое новое значение порождает новый план запроса Hibernate
+ * и новое подготовленное выражение JDBC. Параметр оставляет текст SQL неизменным:
+ * <pre>
+ *     {@code
+ *     cb.literal(7)                    // ... where mod(e.id, 7) = 1
+ *     CriteriaParameters.bind(cb, 7)   // ... where mod(e.id, ?) = ?
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class CriteriaParameters {
+    private CriteriaParameters() {
+    }
+
+    public static <X> Expression<X> bind(@NonNull CriteriaBuilder cb, @NonNull X value) {
+        if (cb instanceof HibernateCriteriaBuilder hcb) {
+            return hcb.value(value);
+        }
+        return cb.literal(value);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.korovin.packages.fasterjpa.routing;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Автоконфигурация маршрутизации чтения на реплики, включается свойством
+ * {@code fasterjpa.routing.enabled=true}, см. {@link ReplicaRoutingProperties}
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "fasterjpa.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({ReplicaRoutingProperties.class, DataSourceProperties.class})
+public class ReplicaRoutingAutoConfiguration {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties routingProperties) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+        List<DataSource> replicas = routingProperties.getReplicas().stream()
+                .<DataSource>map(replica -> DataSourceBuilder.create()
+                        .url(replica.getUrl())
+                        .username(replica.getUsername())
+                        .password(replica.getPassword())
+                        .driverClassName(replica.getDriverClassName())
+                        .build())
+                .toList();
+        return new ReplicaRoutingDataSource(primary, replicas, routingProperties.getStickyWindow());
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * По умолчанию сессия удерживает соединение до своего закрытия, и при open-in-view
+     * соединение с репликой, полученное read-only транзакцией, использовалось бы следующими
+     * пишущими транзакциями той же сессии. Соединение освобождается по завершении каждой транзакции,
+     * чтобы маршрут выбирался для каждой транзакции заново
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaRoutingConnectionHandlingCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.korovin.packages.fasterjpa.routing;
+
+import lombok.NonNull;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник данных, направляющий соединения на основную БД или на реплики.
+ * Соединение с репликой выдаётся read-only транзакции, реплики выбираются по кругу,
+ * соединения вне транзакции и пишущих транзакций выдаются основной БД.
+ * После фиксации пишущей транзакции потоком выполнения его чтение направляется
+ * на основную БД в течение окна stickyWindow, чтобы поток видел собственные изменения,
+ * ещё не доставленные на реплики.
+ * <p>
+ * Решение принимается при получении соединения, поэтому источник должен быть обёрнут
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * откладывающий получение соединения транзакции до первого запроса, когда признак
+ * read-only транзакции уже установлен, а Hibernate должен освобождать соединение
+ * по завершении транзакции, см. {@link ReplicaRoutingAutoConfiguration}.
+ * </p>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY_KEY = "primary";
+    public static final String PRIMARY_METRIC = "routing.primary";
+    public static final String REPLICA_METRIC = "routing.replica";
+    public static final String STICKY_METRIC = "routing.sticky";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final long stickyWindowNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ServiceMetrics metrics = new ServiceMetrics("routing");
+
+    public ReplicaRoutingDataSource(@NonNull DataSource primary,
+                                    @NonNull List<DataSource> replicas,
+                                    @NonNull Duration stickyWindow) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        this.stickyWindowNanos = stickyWindow.toNanos();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicaKeys.isEmpty()) {
+            if (!isSticky()) {
+                metrics.increment(REPLICA_METRIC);
+                return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+            }
+            metrics.increment(STICKY_METRIC);
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            markWriteOnCommit();
+        }
+        metrics.increment(PRIMARY_METRIC);
+        return PRIMARY_KEY;
+    }
+
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    private boolean isSticky() {
+        OptionalLong lastWrite = RoutingContext.getLastWriteNanos();
+        return lastWrite.isPresent() && System.nanoTime() - lastWrite.getAsLong() < stickyWindowNanos;
+    }
+
+    /**
+     * Изменения становятся видимыми только после фиксации, поэтому окно согласованности
+     * отсчитывается от фиксации пишущей транзакции, откат записью не считается
+     */
+    private static void markWriteOnCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        RoutingContext.markWrite();
+                    }
+                }
+            });
+        }
+    }
+}
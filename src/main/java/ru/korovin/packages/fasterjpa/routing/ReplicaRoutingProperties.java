@@ -0,0 +1,42 @@
+package ru.korovin.packages.fasterjpa.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки маршрутизации чтения на реплики.
+ * Основная БД настраивается стандартными свойствами {@code spring.datasource.*}
+ * <pre>
+ *     fasterjpa.routing.enabled=true
+ *     fasterjpa.routing.sticky-window=2s
+ *     fasterjpa.routing.replicas[0].url=jdbc:postgresql://replica-1:5432/app
+ *     fasterjpa.routing.replicas[0].username=app
+ *     fasterjpa.routing.replicas[0].password=secret
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@ConfigurationProperties(prefix = "fasterjpa.routing")
+public class ReplicaRoutingProperties {
+    private boolean enabled;
+    /**
+     * Время после записи, в течение которого чтение потока выполнения направляется на основную БД
+     */
+    private Duration stickyWindow = Duration.ofSeconds(1);
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.korovin.packages.fasterjpa.routing;
+
+import java.util.OptionalLong;
+
+/**
+ * Контекст маршрутизации запросов потока выполнения между основной БД и репликами.
+ * Запросы read-only транзакции могут быть направлены на реплику
+ * источником данных {@link ReplicaRoutingDataSource}, все остальные - на основную БД:
+ * <pre>
+ *     {@code
+ *     @Transactional(readOnly = true)
+ *     public long countByStatus(Status status) {
+ *         return orderRepository.countByStatus(status);
+ *     }
+ *     }
+ * </pre>
+ * Контекст хранит время последней зафиксированной записи потока выполнения,
+ * после которой его чтение направляется на основную БД в течение окна согласованности.
+ * Без {@link ReplicaRoutingDataSource} контекст ни на что не влияет.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class RoutingContext {
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    /**
+     * Отмечает запись в основную БД текущим потоком выполнения,
+     * после которой чтение направляется на основную БД в течение окна согласованности
+     */
+    public static void markWrite() {
+        LAST_WRITE.set(System.nanoTime());
+    }
+
+    /**
+     * Время последней записи по {@link System#nanoTime()}
+     */
+    public static OptionalLong getLastWriteNanos() {
+        Long lastWrite = LAST_WRITE.get();
+        return lastWrite == null ? OptionalLong.empty() : OptionalLong.of(lastWrite);
+    }
+
+    /**
+     * Сбрасывает отметку записи, например по завершении обработки запроса в пуле потоков
+     */
+    public static void clear() {
+        LAST_WRITE.remove();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.korovin.packages.fasterjpa.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Параметры выполнения массовой операции частями: каждая часть выбирает не более
+ * {@link #getChunkSize()} идентификаторов по фильтру, изменяет строки по идентификаторам
+ * и фиксируется отдельной транзакцией, поэтому блокировки строк удерживаются только на время части.
+ * <pre>
+ *     {@code
+ *     AtomicBoolean stopped = new AtomicBoolean();
+ *     ChunkOptions options = ChunkOptions.builder()
+ *             .chunkSize(5000)
+ *             .pause(Duration.ofMillis(200))
+ *             .progressListener(progress -> log.info("удалено {}", progress.totalAffected()))
+ *             .cancelled(stopped::get)
+ *             .build();
+ *     long deleted = orderService.deleteByFilterChunked(filter, options);
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Builder
+@ToString
+public class ChunkOptions {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    @Builder.Default
+    private final int chunkSize = DEFAULT_CHUNK_SIZE;
+    /**
+     * Пауза между частями, ограничивающая нагрузку на БД и отставание реплик
+     */
+    @NonNull
+    @Builder.Default
+    private final Duration pause = Duration.ZERO;
+    /**
+     * Вызывается после фиксации каждой части
+     */
+    @NonNull
+    @Builder.Default
+    private final Consumer<ChunkProgress> progressListener = progress -> {
+    };
+    /**
+     * Проверяется перед каждой частью, true - операция останавливается,
+     * уже зафиксированные части не откатываются
+     */
+    @NonNull
+    @Builder.Default
+    private final BooleanSupplier cancelled = () -> false;
+
+    public static ChunkOptions of(int chunkSize, Duration pause) {
+        return ChunkOptions.builder().chunkSize(chunkSize).pause(pause).build();
+    }
+}
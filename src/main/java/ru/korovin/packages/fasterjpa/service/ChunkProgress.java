@@ -0,0 +1,14 @@
+package ru.korovin.packages.fasterjpa.service;
+
+/**
+ * Ход выполнения массовой операции частями после фиксации очередной части
+ *
+ * @param chunk         номер зафиксированной части, начиная с 1
+ * @param affected      количество строк, изменённых частью
+ * @param totalAffected количество строк, изменённых всеми частями
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public record ChunkProgress(int chunk, int affected, long totalAffected) {
+}
@@ -1,8 +1,10 @@
 package ru.korovin.packages.fasterjpa.service;
 
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
 
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -27,4 +29,68 @@ public interface CrudBatchService<T, ID> extends CrudService<T, ID> {
 
     void batchDeleteAtomic(List<ID> ids, int batchSize);
 
+    List<BatchResultWithData<T>> batchUpdate(List<T> models);
+
+    /**
+     * Пакетное полное обновление, выполняется не атомарно: сущности порции загружаются одним запросом,
+     * состояние моделей переносится в загруженные сущности и записывается одним сбросом контекста
+     * пакетом JDBC. Не найденные сущности и модели, версия {@code @Version} которых не совпадает
+     * с версией в БД, получают результат
+     * {@link ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus#FAILED},
+     * остальные модели продолжают обновляться.
+     *
+     * @throws InvalidParameterException если размер пакета не положителен
+     */
+    List<BatchResultWithData<T>> batchUpdate(List<T> models, int batchSize);
+
+    List<BatchResultWithData<T>> batchPatch(Map<ID, T> models);
+
+    /**
+     * Пакетное частичное обновление, не null свойства модели переносятся в сущность с указанным id,
+     * как в {@link #patchUpdate(Object, Object)}, выполняется не атомарно, как {@link #batchUpdate(List, int)}
+     */
+    List<BatchResultWithData<T>> batchPatch(Map<ID, T> models, int batchSize);
+
+    List<T> batchUpdateAtomic(List<T> models);
+
+    /**
+     * Атомарное пакетное полное обновление в одной транзакции, при провале одной операции
+     * выполнение прерывается, транзакция откатывается
+     *
+     * @throws ru.korovin.packages.fasterjpa.exception.BatchOperationException если сущность не найдена,
+     *                                                                          изменена другой транзакцией либо не прошла валидацию
+     */
+    List<T> batchUpdateAtomic(List<T> models, int batchSize);
+
+    List<T> batchPatchAtomic(Map<ID, T> models);
+
+    /**
+     * Атомарное пакетное частичное обновление в одной транзакции, как {@link #batchUpdateAtomic(List, int)}
+     */
+    List<T> batchPatchAtomic(Map<ID, T> models, int batchSize);
+
+    /**
+     * Вставляет модели, либо обновляет строки, совпадающие с моделью по ключу конфликта,
+     * одним запросом на строку без предварительной проверки существования: MERGE для H2 и Oracle,
+     * INSERT ... ON CONFLICT DO UPDATE для PostgreSQL, INSERT ... ON DUPLICATE KEY UPDATE для MySQL.
+     * Запросы отправляются пакетами JDBC в одной транзакции. Ключ конфликта - свойства сущности,
+     * по которым в таблице есть первичный ключ или уникальный индекс.
+     * <p>
+     * Модели, не прошедшие валидацию, получают результат {@link ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus#FAILED},
+     * остальные - SUCCESS с сообщением inserted или updated, если БД различает вставку и обновление, иначе upserted.
+     * Модель без идентификатора вставляется, только если идентификатор генерирует БД при вставке (IDENTITY),
+     * при генерации последовательностью или присвоении приложением она получает результат FAILED.
+     * Сгенерированный идентификатор записывается в модель, если драйвер вернул ключи всех изменённых строк пакета,
+     * иначе результат SUCCESS такой модели не содержит данных.
+     * Генераторы значений Hibernate ({@code @CreationTimestamp} и т.п.) не применяются,
+     * версия {@code @Version} увеличивается при обновлении.
+     *
+     * @param conflictKey свойства сущности, по которым строка считается существующей
+     * @throws InvalidParameterException если ключ конфликта пуст или не соответствует столбцам сущности
+     * @throws ru.korovin.packages.fasterjpa.exception.BatchOperationException если пакет отклонён БД, транзакция откатывается
+     */
+    List<BatchResultWithData<T>> upsertAll(List<T> models, List<String> conflictKey);
+
+    List<BatchResultWithData<T>> upsertAll(List<T> models, List<String> conflictKey, int batchSize);
+
 }
@@ -3,14 +3,23 @@ package ru.korovin.packages.fasterjpa.service;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.NonUniqueResultException;
 import ru.korovin.packages.fasterjpa.exception.EntityProcessingException;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
 import ru.korovin.packages.fasterjpa.exception.SoftDeleteUnsupportedException;
+import ru.korovin.packages.fasterjpa.export.ExportFormat;
+import ru.korovin.packages.fasterjpa.export.ExportOptions;
 import ru.korovin.packages.fasterjpa.queryparam.Filter;
 import ru.korovin.packages.fasterjpa.queryparam.Pagination;
 import ru.korovin.packages.fasterjpa.queryparam.Sorting;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
 
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -21,6 +30,7 @@ import java.util.stream.Stream;
  *         <li>{@link #getPage(Filter, Sorting, Pagination)}</li>
  *         <li>{@link #getById(ID)}</li>
  *         <li>{@link #getById(ID, LockModeType)}</li>
+ *         <li>{@link #getAllByIds(Collection)}</li>
  *         <li>{@link #getByFilter(Filter)}</li>
  *         <li>{@link #getByFilterWithLock(Filter, LockModeType)}</li>
  *         <li>{@link #create(T)}</li>
@@ -29,12 +39,14 @@ import java.util.stream.Stream;
  *         <li>{@link #deleteAll()}</li>
  *         <li>{@link #deleteById(ID)}</li>
  *         <li>{@link #deleteByFilter(Filter)}</li>
+ *         <li>{@link #deleteByFilterChunked(Filter, ChunkOptions)}</li>
  *         <li>{@link #countAll()}</li>
  *         <li>{@link #countByFilter(Filter)}</li>
  *         <li>{@link #existsById(ID)}</li>
  *         <li>{@link #existsByFilter(Filter)}</li>
  *         <li>{@link #softDeleteById(ID)}</li>
  *         <li>{@link #softDeleteByFilter(Filter)}</li>
+ *         <li>{@link #softDeleteByFilterChunked(Filter, ChunkOptions)}</li>
  *         <li>{@link #softDeleteAll()}</li>
  *         <li>{@link #restoreById(ID)}</li>
  *         <li>{@link #restoreByFilter(Filter)}</li>
@@ -68,6 +80,33 @@ public interface CrudService<T, ID> {
      */
     PageableResult<T> getPage(Filter<T> filter, Pagination pagination);
 
+    /**
+     * Запрос на получение страницы проекций сущностей с учётом фильтрации, сортировки, пагинации.
+     * В запрос попадают только колонки, соответствующие свойствам DTO,
+     * вложенные свойства вида {@code userFirstName} разрешаются через to-one связи.
+     *
+     * @param sorting    параметр запроса сортировки
+     * @param filter     параметр запроса фильтрации
+     * @param pagination параметр запроса постраничного доступа
+     * @param projection класс DTO, record либо класс с конструктором без аргументов
+     * @return PageableResult - результат постраничного запроса к БД, содержащий DTO
+     * и параметры страниц
+     */
+    <D> PageableResult<D> getPage(Filter<T> filter, Sorting sorting, Pagination pagination, Class<D> projection);
+
+    /**
+     * Запрос на получение страницы с выборкой только указанных полей сущности,
+     * например полей, запрошенных клиентом через {@link ru.korovin.packages.fasterjpa.queryparam.SearchRequest#getFields()}.
+     * Вложенные поля вида {@code user.email} возвращаются вложенными Map.
+     * Поля проверяются по белому списку {@link ru.korovin.packages.fasterjpa.annotations.SelectableFields}
+     * класса фильтра, без аннотации выборка полей запрещена.
+     *
+     * @param fields пути атрибутов сущности, пустой список - все поля белого списка
+     * @return PageableResult - результат постраничного запроса к БД, строки которого
+     * содержат только запрошенные поля
+     */
+    PageableResult<Map<String, Object>> getPage(Filter<T> filter, Sorting sorting, Pagination pagination, List<String> fields);
+
     /**
      * Запрос на получение полного списка сущностей
      *
@@ -93,9 +132,41 @@ public interface CrudService<T, ID> {
     List<T> getList(Filter<T> filter, Sorting sorting);
 
     /**
-     * Запрос на получение потока данных
+     * Запрос на получение списка проекций сущностей с учётом фильтрации
+     *
+     * @param filter     параметр запроса фильтрации
+     * @param projection класс DTO, record либо класс с конструктором без аргументов
+     * @return List типа D - результат запроса к БД, содержащий только колонки свойств DTO
+     */
+    <D> List<D> getList(Filter<T> filter, Class<D> projection);
+
+    /**
+     * Запрос на получение списка проекций сущностей с учётом фильтрации и сортировки
+     *
+     * @param filter     параметр запроса фильтрации
+     * @param sorting    параметр запроса сортировки
+     * @param projection класс DTO, record либо класс с конструктором без аргументов
+     * @return List типа D - результат запроса к БД, содержащий только колонки свойств DTO
+     */
+    <D> List<D> getList(Filter<T> filter, Sorting sorting, Class<D> projection);
+
+    /**
+     * Запрос на получение списка с выборкой только указанных полей сущности
+     * из белого списка {@link ru.korovin.packages.fasterjpa.annotations.SelectableFields} класса фильтра
+     *
+     * @param fields пути атрибутов сущности, пустой список - все поля белого списка
+     * @return List строк, содержащих только запрошенные поля
+     */
+    List<Map<String, Object>> getList(Filter<T> filter, Sorting sorting, List<String> fields);
+
+    /**
+     * Запрос на получение потока данных. Поток присоединяется к транзакции вызывающего кода,
+     * либо открывает собственную read-only транзакцию, которая завершается после чтения
+     * последней строки или закрытием потока, поэтому поток следует закрывать try-with-resources.
+     * Незакрытый поток освобождается после сборки мусора с предупреждением в лог
      *
      * @return Stream типа T - поток данных сущностей из БД
+     * @see #withDataStream(Filter, Sorting, Function)
      */
     Stream<T> getDataStream();
 
@@ -122,6 +193,44 @@ public interface CrudService<T, ID> {
      */
     Stream<T> getDataStream(Filter<T> filter, Sorting sorting);
 
+    /**
+     * Обработка потока данных в собственной read-only транзакции, либо в транзакции
+     * вызывающего кода. Поток закрывается, а транзакция завершается по выходу из action,
+     * поэтому поток не должен использоваться за пределами action.
+     * <pre>
+     *     {@code
+     *     long count = userService.withDataStream(filter, sorting, Stream::count);
+     *     }
+     * </pre>
+     *
+     * @param action обработка потока данных сущностей
+     * @return результат обработки потока
+     */
+    <R> R withDataStream(Filter<T> filter, Sorting sorting, Function<Stream<T>, R> action);
+
+    /**
+     * Выгрузка полей белого списка {@link ru.korovin.packages.fasterjpa.annotations.SelectableFields}
+     * класса фильтра с учётом фильтрации и сортировки
+     *
+     * @see #export(Filter, Sorting, ExportFormat, OutputStream, ExportOptions)
+     */
+    long export(Filter<T> filter, Sorting sorting, ExportFormat format, OutputStream out);
+
+    /**
+     * Потоковая выгрузка сущностей в выходной поток с постоянным потреблением памяти.
+     * Строки читаются курсором БД и сериализуются по одной, выходной поток не закрывается.
+     * Выгружаемые поля проверяются по белому списку {@link ru.korovin.packages.fasterjpa.annotations.SelectableFields}
+     * класса фильтра, без аннотации выгрузка запрещена.
+     *
+     * @param format  формат выгрузки
+     * @param out     выходной поток, например тело HTTP ответа
+     * @param options выгружаемые поля, интервал сброса буфера, сжатие
+     * @return количество выгруженных строк
+     * @throws InvalidParameterException если поля выгрузки не входят в белый список
+     * @throws java.io.UncheckedIOException при ошибке записи в выходной поток
+     */
+    long export(Filter<T> filter, Sorting sorting, ExportFormat format, OutputStream out, ExportOptions options);
+
     /**
      * Запрос на получение сущности по идентификатору
      *
@@ -148,6 +257,41 @@ public interface CrudService<T, ID> {
      */
     Optional<T> findById(ID id, Joins fetchingProperties);
 
+    /**
+     * Запрос на получение сущностей по набору идентификаторов. Запрос выполняется
+     * порциями IN запросов, с учётом мягкого удаления.
+     *
+     * @param ids идентификаторы сущностей, повторы игнорируются
+     * @return List типа T - сущности в порядке переданных идентификаторов
+     * @throws ResourceNotFoundException в случае отсутствия в БД хотя бы одной сущности
+     */
+    List<T> getAllByIds(Collection<ID> ids) throws ResourceNotFoundException;
+
+    /**
+     * @see #getAllByIds(Collection)
+     */
+    List<T> getAllByIds(Collection<ID> ids, Joins joins) throws ResourceNotFoundException;
+
+    /**
+     * Запрос на получение сущностей по набору идентификаторов
+     *
+     * @return Map идентификатор - сущность в порядке переданных идентификаторов,
+     * отсутствующие сущности не включаются
+     */
+    Map<ID, T> getMapByIds(Collection<ID> ids);
+
+    /**
+     * Запрос на получение сущностей по набору идентификаторов без ошибки при отсутствии сущностей
+     *
+     * @return MultiGetResult - найденные сущности и идентификаторы отсутствующих сущностей
+     */
+    MultiGetResult<T, ID> findAllByIds(Collection<ID> ids);
+
+    /**
+     * @see #findAllByIds(Collection)
+     */
+    MultiGetResult<T, ID> findAllByIds(Collection<ID> ids, Joins joins);
+
     /**
      * Запрос на получение сущности по идентификатору с возможностью блокировки
      * записи на уровне базы данных
@@ -200,7 +344,8 @@ public interface CrudService<T, ID> {
     T create(T model) throws EntityProcessingException;
 
     /**
-     * Создание (POST) списка сущностей в БД
+     * Создание (POST) списка сущностей в БД в одной транзакции. Модели проверяются валидатором
+     * до сохранения, сохранение выполняется порциями пакетами JDBC
      *
      * @return список объектов сущностей после сохранение в БД - новый
      */
@@ -225,6 +370,37 @@ public interface CrudService<T, ID> {
      */
     T patchUpdate(ID id, T model) throws ResourceNotFoundException, EntityProcessingException;
 
+    /**
+     * Частичное (PATCH) обновление одним запросом UPDATE без загрузки сущности: записываются
+     * не null свойства модели, пустые коллекции пропускаются. Мягко удалённые сущности не обновляются,
+     * версия модели, если задана, проверяется условием запроса.
+     * Значения {@link org.hibernate.annotations.UpdateTimestamp} и других генерируемых в памяти
+     * при обновлении свойств вычисляются и записываются запросом. Обработчики
+     * {@link jakarta.persistence.PreUpdate}/{@link jakarta.persistence.PostUpdate},
+     * слушатели {@link jakarta.persistence.EntityListeners} (например, аудит Spring Data)
+     * и слушатели событий обновления Hibernate не вызываются - для таких сущностей используйте
+     * {@link #patchUpdate(Object, Object)}.
+     * Для получения обновлённой сущности используйте {@link #getById(Object)}
+     *
+     * @param id    идентификатор сущности
+     * @param model объект сущности с обновляемыми свойствами
+     * @return количество обновлённых записей: 0 если сущность не найдена, удалена мягко или версия модели устарела
+     * @throws InvalidParameterException если модель содержит непустую коллекцию
+     */
+    int patchUpdateById(ID id, T model) throws EntityProcessingException;
+
+    /**
+     * Частичное (PATCH) обновление одним запросом UPDATE без загрузки сущности. Как и
+     * {@link #patchUpdateById(Object, Object)}, не вызывает обработчики и слушатели обновления сущности
+     *
+     * @param id     идентификатор сущности
+     * @param values новые значения по имени свойства, null значение записывается как null
+     * @return количество обновлённых записей: 0 если сущность не найдена, удалена мягко или версия устарела
+     * @throws InvalidParameterException если свойство не найдено, является идентификатором или коллекцией
+     * @see #patchUpdateById(Object, Object)
+     */
+    int patchUpdateById(ID id, Map<String, Object> values) throws EntityProcessingException;
+
     /**
      * Массовое обновление по условию
      *
@@ -234,6 +410,26 @@ public interface CrudService<T, ID> {
      */
     int updateByFilter(UpdateSpecification specification, Filter<T> filter);
 
+    /**
+     * Обновление каждой сущности по своей спецификации. Идентификаторы, спецификации которых
+     * изменяют одни и те же свойства одними действиями, обновляются одним запросом
+     * {@code update ... where id in (...)}, различающиеся значения объединяются в выражение
+     * {@code case id when ? then ? ... end}:
+     * <pre>
+     *     {@code
+     *     userService.updateEach(Map.of(1L, minus("stock", 2), 2L, minus("stock", 5)));
+     *     // update User set stock = stock + case id when 1 then -2 when 2 then -5 end where id in (1, 2)
+     *     }
+     * </pre>
+     * Все запросы выполняются в одной транзакции, при ошибке запроса транзакция откатывается.
+     *
+     * @param updates спецификация обновления по идентификатору сущности
+     * @return результат по каждому идентификатору в порядке updates: SUCCESS если сущность обновлена,
+     * FAILED если она не найдена, удалена мягко или спецификация пуста
+     * @throws EntityProcessingException если запрос обновления завершился ошибкой
+     */
+    List<BatchResultWithData<ID>> updateEach(Map<ID, UpdateSpecification> updates) throws EntityProcessingException;
+
     /**
      * Физическое удаление сущности по ID
      *
@@ -256,6 +452,28 @@ public interface CrudService<T, ID> {
      */
     long deleteByFilter(Filter<T> filter) throws EntityProcessingException;
 
+    /**
+     * Физическое удаление сущностей по фильтру частями по chunkSize строк с паузой между частями
+     *
+     * @see #deleteByFilterChunked(Filter, ChunkOptions)
+     */
+    long deleteByFilterChunked(Filter<T> filter, int chunkSize, Duration pause) throws EntityProcessingException;
+
+    /**
+     * Физическое удаление сущностей по фильтру частями вместо одного массового запроса.
+     * Каждая часть выбирает идентификаторы строк, удовлетворяющих фильтру, удаляет их
+     * запросом {@code delete ... where id in (...)} и фиксируется отдельной транзакцией.
+     * Удалённые строки больше не удовлетворяют фильтру, поэтому после сбоя или отмены
+     * повторный вызов с тем же фильтром продолжает удаление оставшихся строк.
+     *
+     * @param options размер части, пауза между частями, слушатель хода выполнения и признак отмены
+     * @return количество удалённых строк всеми зафиксированными частями
+     * @throws InvalidParameterException если размер части не положителен
+     * @throws EntityProcessingException если удаление части завершилось ошибкой,
+     *                                   ранее зафиксированные части не откатываются
+     */
+    long deleteByFilterChunked(Filter<T> filter, ChunkOptions options) throws EntityProcessingException;
+
     /**
      * Кол-во сущностей с учётом фильтрации
      *
@@ -313,6 +531,26 @@ public interface CrudService<T, ID> {
      */
     int softDeleteByFilter(Filter<T> filter) throws SoftDeleteUnsupportedException, EntityProcessingException;
 
+    /**
+     * Мягкое удаление по фильтру частями по chunkSize строк с паузой между частями
+     *
+     * @see #softDeleteByFilterChunked(Filter, ChunkOptions)
+     */
+    long softDeleteByFilterChunked(Filter<T> filter, int chunkSize, Duration pause)
+            throws SoftDeleteUnsupportedException, EntityProcessingException;
+
+    /**
+     * Мягкое удаление по фильтру частями, аналогично {@link #deleteByFilterChunked(Filter, ChunkOptions)}:
+     * каждая часть выбирает идентификаторы не удалённых строк, удовлетворяющих фильтру,
+     * помечает их удалёнными и фиксируется отдельной транзакцией, повторный вызов
+     * продолжает с оставшихся строк
+     *
+     * @return количество помеченных удалёнными строк всеми зафиксированными частями
+     * @throws SoftDeleteUnsupportedException если сущность не поддерживает мягкое удаление
+     */
+    long softDeleteByFilterChunked(Filter<T> filter, ChunkOptions options)
+            throws SoftDeleteUnsupportedException, EntityProcessingException;
+
     /**
      * Восстановление после мягкого удаления по ID
      *
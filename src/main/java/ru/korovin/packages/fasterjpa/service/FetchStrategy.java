@@ -0,0 +1,29 @@
+package ru.korovin.packages.fasterjpa.service;
+
+/**
+ * Способ загрузки связи, указанной в {@link Joins}
+ * <ul>
+ *     <li>{@link #AUTO} - {@link #JOIN} для to-one связей и первой коллекции,
+ *     {@link #BATCH} для остальных коллекций</li>
+ *     <li>{@link #JOIN} - LEFT JOIN FETCH в основном запросе. Несколько коллекций
+ *     в одном запросе дают декартово произведение строк, поэтому коллекция без уникальности
+ *     элементов (List, Collection) не может быть присоединена вместе с другой коллекцией -
+ *     её элементы повторились бы</li>
+ *     <li>{@link #BATCH} - отдельный запрос после основного по идентификаторам загруженных
+ *     сущностей {@code WHERE id IN (...)}, порциями размера multiGetBatchSize</li>
+ *     <li>{@link #SUBSELECT} - отдельный запрос после основного с условиями основного запроса
+ *     вместо списка идентификаторов</li>
+ * </ul>
+ * Связи {@link #BATCH} и {@link #SUBSELECT} загружаются каждая своим запросом,
+ * поэтому k таких коллекций загружаются за 1+k запросов без размножения строк.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public enum FetchStrategy {
+    AUTO,
+    JOIN,
+    BATCH,
+    SUBSELECT
+}
@@ -1,23 +1,73 @@
 package ru.korovin.packages.fasterjpa.service;
 
+import jakarta.persistence.EntityGraph;
+import lombok.NonNull;
+
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Связи, загружаемые вместе с сущностью, и способ их загрузки {@link FetchStrategy}.
+ * <pre>
+ *     {@code
+ *     userService.getById(id, Joins.of("orders", "roles"));
+ *     userService.getById(id, Joins.of("department").with("orders", FetchStrategy.SUBSELECT));
+ *     userService.getById(id, Joins.entityGraph("User.withOrders"));
+ *     }
+ * </pre>
+ *
+ * @param properties      пути связей в порядке добавления
+ * @param strategies      способ загрузки по пути связи, для отсутствующих путей {@link FetchStrategy#AUTO}
+ * @param entityGraphName имя {@link jakarta.persistence.NamedEntityGraph}, применяемого к основному запросу
+ * @param entityGraph     динамический граф, созданный через {@link jakarta.persistence.EntityManager#createEntityGraph(Class)}
+ */
+public record Joins(Set<String> properties,
+                    Map<String, FetchStrategy> strategies,
+                    String entityGraphName,
+                    EntityGraph<?> entityGraph) {
 
-public record Joins(Set<String> properties) {
+    public Joins(Set<String> properties) {
+        this(properties, Map.of(), null, null);
+    }
 
     public static Joins of(String... fetchingProperties) {
-        return new Joins(new HashSet<>(Arrays.asList(fetchingProperties)));
+        return new Joins(new LinkedHashSet<>(Arrays.asList(fetchingProperties)));
     }
 
     public static Joins of(Collection<String> fetchingProperties) {
-        return new Joins(new HashSet<>(fetchingProperties));
+        return new Joins(new LinkedHashSet<>(fetchingProperties));
     }
 
     public static Joins empty(){
-        return new Joins(new HashSet<>());
+        return new Joins(new LinkedHashSet<>());
+    }
+
+    public static Joins entityGraph(@NonNull String entityGraphName) {
+        return new Joins(new LinkedHashSet<>(), Map.of(), entityGraphName, null);
+    }
+
+    public static Joins entityGraph(@NonNull EntityGraph<?> entityGraph) {
+        return new Joins(new LinkedHashSet<>(), Map.of(), null, entityGraph);
+    }
+
+    public Joins with(@NonNull String property, @NonNull FetchStrategy strategy) {
+        Set<String> resultProperties = new LinkedHashSet<>(properties);
+        resultProperties.add(property);
+        Map<String, FetchStrategy> resultStrategies = new HashMap<>(strategies);
+        resultStrategies.put(property, strategy);
+        return new Joins(resultProperties, resultStrategies, entityGraphName, entityGraph);
+    }
+
+    public FetchStrategy strategy(String property) {
+        return strategies.getOrDefault(property, FetchStrategy.AUTO);
+    }
+
+    public boolean isEmpty() {
+        return properties.isEmpty() && entityGraphName == null && entityGraph == null;
     }
 
 }
@@ -0,0 +1,41 @@
+package ru.korovin.packages.fasterjpa.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MultiGetResult - результат запроса сущностей по набору идентификаторов.
+ * Найденные сущности упорядочены в порядке переданных идентификаторов,
+ * идентификаторы отсутствующих или мягко удалённых сущностей перечислены в {@link #getMissingIds()}.
+ * <pre>
+ *     {@code
+ *     MultiGetResult<User, Long> result = userService.findAllByIds(List.of(3L, 1L, 100L));
+ *     result.getList();       // [User(3), User(1)]
+ *     result.getMissingIds(); // [100]
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class MultiGetResult<T, ID> {
+    private final Map<ID, T> found;
+    private final List<ID> missingIds;
+
+    public List<T> getList() {
+        return new ArrayList<>(found.values());
+    }
+
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+}
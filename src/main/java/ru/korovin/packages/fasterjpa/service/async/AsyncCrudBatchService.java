@@ -3,6 +3,7 @@ package ru.korovin.packages.fasterjpa.service.async;
 import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -58,4 +59,52 @@ public interface AsyncCrudBatchService<T, ID> extends AsyncCrudService<T, ID> {
      * выполнение прерывается, транзакция откатывается
      */
     CompletableFuture<Void> batchDeleteAtomicAsync(List<ID> ids, int batchSize);
+
+    /**
+     * Асинхронное пакетное полное обновление, выполняется не атомарно, при провале
+     * одной операции, выполнение продолжается
+     */
+    CompletableFuture<List<BatchResultWithData<T>>> batchUpdateAsync(List<T> models);
+
+    /**
+     * Асинхронное пакетное частичное обновление, выполняется не атомарно, при провале
+     * одной операции, выполнение продолжается
+     */
+    CompletableFuture<List<BatchResultWithData<T>>> batchPatchAsync(Map<ID, T> models);
+
+    /**
+     * Асинхронное атомарное полное обновление, при провале одной операции
+     * выполнение прерывается, транзакция откатывается
+     */
+    CompletableFuture<List<T>> batchUpdateAtomicAsync(List<T> models);
+
+    /**
+     * Асинхронное атомарное частичное обновление, при провале одной операции
+     * выполнение прерывается, транзакция откатывается
+     */
+    CompletableFuture<List<T>> batchPatchAtomicAsync(Map<ID, T> models);
+
+    /**
+     * Асинхронное пакетное полное обновление, выполняется не атомарно, при провале
+     * одной операции, выполнение продолжается
+     */
+    CompletableFuture<List<BatchResultWithData<T>>> batchUpdateAsync(List<T> models, int batchSize);
+
+    /**
+     * Асинхронное пакетное частичное обновление, выполняется не атомарно, при провале
+     * одной операции, выполнение продолжается
+     */
+    CompletableFuture<List<BatchResultWithData<T>>> batchPatchAsync(Map<ID, T> models, int batchSize);
+
+    /**
+     * Асинхронное атомарное полное обновление, при провале одной операции
+     * выполнение прерывается, транзакция откатывается
+     */
+    CompletableFuture<List<T>> batchUpdateAtomicAsync(List<T> models, int batchSize);
+
+    /**
+     * Асинхронное атомарное частичное обновление, при провале одной операции
+     * выполнение прерывается, транзакция откатывается
+     */
+    CompletableFuture<List<T>> batchPatchAtomicAsync(Map<ID, T> models, int batchSize);
 }
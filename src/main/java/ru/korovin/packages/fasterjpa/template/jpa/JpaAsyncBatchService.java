@@ -11,6 +11,7 @@ import ru.korovin.packages.fasterjpa.service.async.AsyncCrudBatchService;
 import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -85,4 +86,44 @@ public class JpaAsyncBatchService<T, ID> extends JpaAsyncCrudService<T, ID>
     public CompletableFuture<Void> batchDeleteAtomicAsync(List<ID> ids) {
         return batchDeleteAtomicAsync(ids, DEFAULT_BATCH_SIZE);
     }
+
+    @Override
+    public CompletableFuture<List<BatchResultWithData<T>>> batchUpdateAsync(List<T> models, int batchSize) {
+        return CompletableFuture.supplyAsync(() -> batchCrudService.batchUpdate(models, batchSize), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResultWithData<T>>> batchPatchAsync(Map<ID, T> models, int batchSize) {
+        return CompletableFuture.supplyAsync(() -> batchCrudService.batchPatch(models, batchSize), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<T>> batchUpdateAtomicAsync(List<T> models, int batchSize) {
+        return CompletableFuture.supplyAsync(() -> batchCrudService.batchUpdateAtomic(models, batchSize), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<T>> batchPatchAtomicAsync(Map<ID, T> models, int batchSize) {
+        return CompletableFuture.supplyAsync(() -> batchCrudService.batchPatchAtomic(models, batchSize), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResultWithData<T>>> batchUpdateAsync(List<T> models) {
+        return batchUpdateAsync(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResultWithData<T>>> batchPatchAsync(Map<ID, T> models) {
+        return batchPatchAsync(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public CompletableFuture<List<T>> batchUpdateAtomicAsync(List<T> models) {
+        return batchUpdateAtomicAsync(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public CompletableFuture<List<T>> batchPatchAtomicAsync(Map<ID, T> models) {
+        return batchPatchAtomicAsync(models, DEFAULT_BATCH_SIZE);
+    }
 }
@@ -1,8 +1,17 @@
 package ru.korovin.packages.fasterjpa.template.jpa;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import lombok.SneakyThrows;
 import lombok.experimental.SuperBuilder;
 import ru.korovin.packages.fasterjpa.exception.BatchOperationException;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
 import ru.korovin.packages.fasterjpa.exception.ValidationException;
 import ru.korovin.packages.fasterjpa.service.CrudBatchService;
@@ -13,13 +22,26 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
 
 
 /**
@@ -31,8 +53,24 @@ import java.util.Set;
 public class JpaBatchCrudService<T, ID>
         extends JpaCrudService<T, ID>
         implements CrudBatchService<T, ID> {
+    /**
+     * Количество половин порций {@link #batchCreate(List, int)}, сохранённых повторно после ошибки
+     */
+    public static final String BATCH_CREATE_RETRIES_METRIC = "batch.create.retries";
+    /**
+     * Количество половин порций {@link #batchDelete(List, int)}, удалённых повторно после ошибки
+     */
+    public static final String BATCH_DELETE_RETRIES_METRIC = "batch.delete.retries";
+    /**
+     * Количество половин порций {@link #batchUpdate(List, int)} и {@link #batchPatch(Map, int)},
+     * обновлённых повторно после ошибки
+     */
+    public static final String BATCH_UPDATE_RETRIES_METRIC = "batch.update.retries";
     private static final int DEFAULT_BATCH_SIZE = 100;
 
+    private final Map<List<Object>, JpaUpsertStatement> upsertStatements = new ConcurrentHashMap<>();
+    private boolean cascadeBatchDelete;
+
     public JpaBatchCrudService(JpaRepository<T, ID> jpaRepository,
                                JpaSpecificationExecutor<T> jpaSpecificationExecutor,
                                EntityManager persistenceContext,
@@ -62,82 +100,193 @@ public class JpaBatchCrudService<T, ID>
         batchDeleteAtomic(ids, DEFAULT_BATCH_SIZE);
     }
 
+    /**
+     * Проверяет модели валидатором и сохраняет прошедшие проверку порциями по batchSize:
+     * каждая порция сохраняется отдельной транзакцией одним пакетом JDBC. Если порция не сохранена,
+     * её транзакция откатывается, моделям возвращается состояние до сохранения и порция делится пополам,
+     * пока ошибка не сведётся к отдельным моделям, поэтому ошибочная модель стоит около log2(batchSize)
+     * повторных пакетов вместо запроса на каждую модель. Точки сохранения для этого не подходят:
+     * Hibernate помечает транзакцию только для отката при любой ошибке сброса.
+     * <p>
+     * Сохранённые порции фиксируются независимо друг от друга и от внешней транзакции,
+     * для сохранения всех моделей в одной транзакции используется {@link #batchCreateAtomic(List, int)}.
+     * Количество повторно сохранённых половин порций записывается в счётчик {@link #BATCH_CREATE_RETRIES_METRIC}.
+     *
+     * @return результаты в порядке моделей, сохранённые модели отсоединены от контекста персистентности
+     */
     @Override
     public List<BatchResultWithData<T>> batchCreate(List<T> models, int batchSize) {
-        return transactionTemplate.execute(status -> {
-            List<BatchResultWithData<T>> results = new ArrayList<>();
-            int counter = 0;
-            for (T model : models) {
-                try {
-                    Set<ConstraintViolation<T>> violations = validator.validate(model);
-                    if (!violations.isEmpty()) {
-                        throw new ValidationException("Ошибка валидации сущности " + getEntityTypeName(),violations);
-                    }
-                    model = repository.save(model);
-                    BatchResultWithDataImpl<T> result = BatchResultWithDataImpl
-                            .<T>builder()
-                            .data(model)
-                            .status(BatchOperationStatus.SUCCESS)
-                            .message("created")
-                            .build();
-                    results.add(result);
-                } catch (Exception e) {
-                    BatchResultWithDataImpl<T> result = BatchResultWithDataImpl
-                            .<T>builder()
-                            .status(BatchOperationStatus.FAILED)
-                            .message("create operation fails for entity: " + model.toString())
-                            .details(e.getMessage())
-                            .build();
-                    results.add(result);
+        if (batchSize <= 0) {
+            throw new InvalidParameterException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        List<BatchResultWithData<T>> results = new ArrayList<>(Collections.nCopies(models.size(), null));
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            T model = models.get(i);
+            Set<ConstraintViolation<T>> violations = validator.validate(model);
+            if (!violations.isEmpty()) {
+                results.set(i, createFailed(model, new ValidationException(
+                        "Ошибка валидации сущности " + getEntityTypeName(), violations).getMessage()));
+            } else {
+                valid.add(i);
+            }
+        }
+        for (int from = 0; from < valid.size(); from += batchSize) {
+            createBisecting(models, valid.subList(from, Math.min(from + batchSize, valid.size())), results);
+        }
+        return results;
+    }
 
-                }
-                if (++counter % batchSize == 0) {
-                    persistenceContext.flush();
-                    persistenceContext.clear();
-                }
+    private void createBisecting(List<T> models, List<Integer> indexes, List<BatchResultWithData<T>> results) {
+        List<T> batch = indexes.stream().map(models::get).toList();
+        List<Runnable> restores = batch.stream().map(this::snapshot).toList();
+        try {
+            persistBatch(batch);
+        } catch (RuntimeException e) {
+            restores.forEach(Runnable::run);
+            if (indexes.size() == 1) {
+                log.debug("create operation fails for entity: {}\ncause: {}", batch.get(0), e.getMessage());
+                results.set(indexes.get(0), createFailed(batch.get(0), e.getMessage()));
+                return;
             }
-            persistenceContext.flush();
-            persistenceContext.clear();
-            return results;
-        });
+            metrics.add(BATCH_CREATE_RETRIES_METRIC, 2);
+            int middle = indexes.size() / 2;
+            createBisecting(models, indexes.subList(0, middle), results);
+            createBisecting(models, indexes.subList(middle, indexes.size()), results);
+            return;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            results.set(indexes.get(i), BatchResultWithDataImpl.<T>builder()
+                    .data(batch.get(i))
+                    .status(BatchOperationStatus.SUCCESS)
+                    .message("created")
+                    .build());
+        }
     }
 
+    private void persistBatch(List<T> batch) {
+        chunkTransactionTemplate.executeWithoutResult(status -> {
+            Session session = persistenceContext.unwrap(Session.class);
+            Integer jdbcBatchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(batch.size());
+            try {
+                batch.forEach(persistenceContext::persist);
+                persistenceContext.flush();
+            } finally {
+                session.setJdbcBatchSize(jdbcBatchSize);
+            }
+        });
+    }
 
+    /**
+     * Удаляет сущности порциями по batchSize: каждая порция - отдельная транзакция из двух запросов
+     * <pre>
+     *     {@code
+     *     select e.id from User e where e.id in (...) and e.deletedAt is null
+     *     delete from User e where e.id in (...)
+     *     }
+     * </pre>
+     * Результат идентификатора определяется по найденным идентификаторам: не найденные и повторные
+     * идентификаторы завершаются ошибкой {@link ResourceNotFoundException}. Массовое удаление не выполняет
+     * каскадное удаление и orphanRemoval связанных сущностей, для таких сущностей
+     * {@link #setCascadeBatchDelete(boolean)} включает загрузку сущностей порции и удаление через
+     * контекст персистентности. Если порция не удалена, например из-за внешнего ключа,
+     * она делится пополам, пока ошибка не сведётся к отдельным идентификаторам,
+     * как в {@link #batchCreate(List, int)}.
+     */
     @Override
     public List<BatchResultWithData<ID>> batchDelete(List<ID> ids, int batchSize) {
-        return transactionTemplate.execute(status -> {
-            List<BatchResultWithData<ID>> results = new ArrayList<>();
-            int counter = 0;
-            for (ID id : ids) {
-                try {
-                    if (!existsById(id)) {
-                        throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
-                    }
-                    repository.deleteById(id);
-                    persistenceContext.flush();
-                    BatchResultWithDataImpl result = BatchResultWithDataImpl.builder()
-                            .message("deleted")
-                            .data(id)
-                            .status(BatchOperationStatus.SUCCESS)
-                            .build();
-                    results.add(result);
-                } catch (Exception e) {
-                    BatchResultWithDataImpl result = BatchResultWithDataImpl.builder()
-                            .message("delete operation fails for entity with id: " + id.toString())
-                            .status(BatchOperationStatus.FAILED)
-                            .details(e.getMessage())
-                            .build();
-                    results.add(result);
-                }
-                if (++counter % batchSize == 0) {
-                    persistenceContext.flush();
-                    persistenceContext.clear();
-                }
+        if (batchSize <= 0) {
+            throw new InvalidParameterException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        List<BatchResultWithData<ID>> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        Set<ID> requested = new HashSet<>();
+        List<Integer> unique = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (requested.add(ids.get(i))) {
+                unique.add(i);
+            } else {
+                results.set(i, deleteFailed(ids.get(i), getResourceNotFoundMessage(ids.get(i))));
+            }
+        }
+        for (int from = 0; from < unique.size(); from += batchSize) {
+            deleteBisecting(ids, unique.subList(from, Math.min(from + batchSize, unique.size())), results);
+        }
+        return results;
+    }
+
+    private void deleteBisecting(List<ID> ids, List<Integer> indexes, List<BatchResultWithData<ID>> results) {
+        List<ID> chunk = indexes.stream().map(ids::get).toList();
+        Set<ID> deleted;
+        try {
+            deleted = chunkTransactionTemplate.execute(status -> deleteExisting(chunk));
+        } catch (RuntimeException e) {
+            if (indexes.size() == 1) {
+                log.debug("delete operation fails for entity with id: {}\ncause: {}", chunk.get(0), e.getMessage());
+                results.set(indexes.get(0), deleteFailed(chunk.get(0), e.getMessage()));
+                return;
+            }
+            metrics.add(BATCH_DELETE_RETRIES_METRIC, 2);
+            int middle = indexes.size() / 2;
+            deleteBisecting(ids, indexes.subList(0, middle), results);
+            deleteBisecting(ids, indexes.subList(middle, indexes.size()), results);
+            return;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            ID id = chunk.get(i);
+            if (deleted.contains(id)) {
+                invalidateCached(id);
+                results.set(indexes.get(i), BatchResultWithDataImpl.<ID>builder()
+                        .message("deleted")
+                        .data(id)
+                        .status(BatchOperationStatus.SUCCESS)
+                        .build());
+            } else {
+                results.set(indexes.get(i), deleteFailed(id, getResourceNotFoundMessage(id)));
+            }
+        }
+    }
+
+    /**
+     * @return идентификаторы удалённых сущностей порции
+     */
+    @SuppressWarnings("unchecked")
+    private Set<ID> deleteExisting(List<ID> chunk) {
+        if (cascadeBatchDelete) {
+            PersistenceUnitUtil persistenceUnitUtil = persistenceContext.getEntityManagerFactory().getPersistenceUnitUtil();
+            Set<ID> deleted = new HashSet<>();
+            for (T entity : persistenceContext.createQuery(idQueries.selectActiveByIds(), entityType)
+                    .setParameter(JpaIdQueries.IDS_PARAM, chunk)
+                    .getResultList()) {
+                deleted.add((ID) persistenceUnitUtil.getIdentifier(entity));
+                persistenceContext.remove(entity);
             }
             persistenceContext.flush();
-            persistenceContext.clear();
-            return results;
-        });
+            return deleted;
+        }
+        Set<ID> existing = new HashSet<>(persistenceContext
+                .createQuery(idQueries.selectActiveIds(), (Class<ID>) idField.getType())
+                .setParameter(JpaIdQueries.IDS_PARAM, chunk)
+                .getResultList());
+        if (!existing.isEmpty()) {
+            persistenceContext.createQuery(idQueries.deleteByIds())
+                    .setParameter(JpaIdQueries.IDS_PARAM, existing)
+                    .executeUpdate();
+        }
+        return existing;
+    }
+
+    public boolean isCascadeBatchDelete() {
+        return cascadeBatchDelete;
+    }
+
+    /**
+     * Удалять сущности {@link #batchDelete(List, int)} через контекст персистентности: сущности порции
+     * загружаются одним запросом и удаляются с каскадным удалением связанных сущностей и orphanRemoval.
+     * Требуется сущностям, связи которых удаляются каскадно, либо с обработчиками {@link jakarta.persistence.PreRemove}
+     */
+    public void setCascadeBatchDelete(boolean cascadeBatchDelete) {
+        this.cascadeBatchDelete = cascadeBatchDelete;
     }
 
     @Override
@@ -179,6 +328,7 @@ public class JpaBatchCrudService<T, ID>
                         throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
                     }
                     repository.deleteById(id);
+                    invalidateCached(id);
                 } catch (Exception e) {
                     log.error("delete operation fails for entity with id: {} \ncause: {}",
                             id,
@@ -197,4 +347,415 @@ public class JpaBatchCrudService<T, ID>
         });
     }
 
+    @Override
+    public List<BatchResultWithData<T>> batchUpdate(List<T> models) {
+        return batchUpdate(models, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Порции, как в {@link #batchCreate(List, int)}, фиксируются отдельными транзакциями,
+     * поэтому ошибка сброса порции, например изменение строки другой транзакцией после загрузки,
+     * не отменяет остальные порции: порция делится пополам до отдельных моделей.
+     * Модели без версии получают версию загруженной сущности
+     */
+    @Override
+    public List<BatchResultWithData<T>> batchUpdate(List<T> models, int batchSize) {
+        return batchWrite(getModelIds(models), models, batchSize, this::mergeLoaded);
+    }
+
+    @Override
+    public List<BatchResultWithData<T>> batchPatch(Map<ID, T> models) {
+        return batchPatch(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<BatchResultWithData<T>> batchPatch(Map<ID, T> models, int batchSize) {
+        return batchWrite(new ArrayList<>(models.keySet()), new ArrayList<>(models.values()), batchSize,
+                JpaBatchCrudService::patchLoaded);
+    }
+
+    @Override
+    public List<T> batchUpdateAtomic(List<T> models) {
+        return batchUpdateAtomic(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<T> batchUpdateAtomic(List<T> models, int batchSize) {
+        return batchWriteAtomic(getModelIds(models), models, batchSize, this::mergeLoaded);
+    }
+
+    @Override
+    public List<T> batchPatchAtomic(Map<ID, T> models) {
+        return batchPatchAtomic(models, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<T> batchPatchAtomic(Map<ID, T> models, int batchSize) {
+        return batchWriteAtomic(new ArrayList<>(models.keySet()), new ArrayList<>(models.values()), batchSize,
+                JpaBatchCrudService::patchLoaded);
+    }
+
+    private List<BatchResultWithData<T>> batchWrite(List<ID> ids, List<T> models, int batchSize, BinaryOperator<T> apply) {
+        List<BatchResultWithData<T>> results = new ArrayList<>(Collections.nCopies(models.size(), null));
+        List<Integer> valid = validateUpdates(ids, models, batchSize, results);
+        for (int from = 0; from < valid.size(); from += batchSize) {
+            updateBisecting(ids, models, valid.subList(from, Math.min(from + batchSize, valid.size())), apply, results);
+        }
+        return results;
+    }
+
+    private List<T> batchWriteAtomic(List<ID> ids, List<T> models, int batchSize, BinaryOperator<T> apply) {
+        List<BatchResultWithData<T>> results = new ArrayList<>(Collections.nCopies(models.size(), null));
+        List<Integer> valid = validateUpdates(ids, models, batchSize, results);
+        results.stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .ifPresent(failed -> {
+                    throw new BatchOperationException(failed.getDetails());
+                });
+        return transactionTemplate.execute(status -> {
+            List<T> updated = new ArrayList<>(models.size());
+            for (int from = 0; from < valid.size(); from += batchSize) {
+                List<Integer> chunk = valid.subList(from, Math.min(from + batchSize, valid.size()));
+                UpdatedChunk<T> chunkResults;
+                try {
+                    chunkResults = updateChunk(ids, models, chunk, apply);
+                } catch (RuntimeException e) {
+                    log.error("update operation fails for entity {}\ncause: {}", getEntityTypeName(), e.getMessage(), e);
+                    status.setRollbackOnly();
+                    throw new BatchOperationException(e.getMessage(), e);
+                }
+                metrics.add(UPDATE_CONFLICT_METRIC, chunkResults.conflicts());
+                for (BatchResultWithData<T> result : chunkResults.results().values()) {
+                    if (result.getStatus() == BatchOperationStatus.FAILED) {
+                        status.setRollbackOnly();
+                        throw new BatchOperationException(result.getDetails());
+                    }
+                    updated.add(result.getData());
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Отмечает результатом FAILED модели без идентификатора, с повторным идентификатором
+     * и не прошедшие валидацию
+     *
+     * @return индексы остальных моделей
+     */
+    private List<Integer> validateUpdates(List<ID> ids,
+                                          List<T> models,
+                                          int batchSize,
+                                          List<BatchResultWithData<T>> results) {
+        if (batchSize <= 0) {
+            throw new InvalidParameterException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        Set<ID> requested = new HashSet<>();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            T model = models.get(i);
+            ID id = ids.get(i);
+            Set<ConstraintViolation<T>> violations = validator.validate(model);
+            if (id == null) {
+                results.set(i, updateFailed(model, "Ошибка обновления сущности " + getEntityTypeName() + ", id = null"));
+            } else if (!requested.add(id)) {
+                results.set(i, updateFailed(model, "Повторное обновление сущности с id = " + id));
+            } else if (!violations.isEmpty()) {
+                results.set(i, updateFailed(model, new ValidationException(
+                        "Ошибка валидации сущности " + getEntityTypeName(), violations).getMessage()));
+            } else {
+                valid.add(i);
+            }
+        }
+        return valid;
+    }
+
+    private void updateBisecting(List<ID> ids,
+                                 List<T> models,
+                                 List<Integer> indexes,
+                                 BinaryOperator<T> apply,
+                                 List<BatchResultWithData<T>> results) {
+        UpdatedChunk<T> chunkResults;
+        try {
+            chunkResults = chunkTransactionTemplate.execute(status -> updateChunk(ids, models, indexes, apply));
+        } catch (RuntimeException e) {
+            if (indexes.size() == 1) {
+                T model = models.get(indexes.get(0));
+                log.debug("update operation fails for entity: {}\ncause: {}", model, e.getMessage());
+                if (e instanceof OptimisticLockException || e instanceof OptimisticLockingFailureException) {
+                    metrics.increment(UPDATE_CONFLICT_METRIC);
+                }
+                results.set(indexes.get(0), updateFailed(model, e.getMessage()));
+                return;
+            }
+            metrics.add(BATCH_UPDATE_RETRIES_METRIC, 2);
+            int middle = indexes.size() / 2;
+            updateBisecting(ids, models, indexes.subList(0, middle), apply, results);
+            updateBisecting(ids, models, indexes.subList(middle, indexes.size()), apply, results);
+            return;
+        }
+        metrics.add(UPDATE_CONFLICT_METRIC, chunkResults.conflicts());
+        chunkResults.results().forEach(results::set);
+    }
+
+    /**
+     * Загружает сущности порции одним запросом, переносит в них состояние моделей и записывает
+     * изменения одним сбросом контекста пакетом JDBC. Версия модели, если задана, сравнивается
+     * с версией загруженной сущности до переноса, изменение строки после загрузки Hibernate
+     * обнаруживает при сбросе условием по версии. Отсоединяются только сущности, загруженные порцией,
+     * сущности контекста персистентности вызывающей транзакции остаются управляемыми
+     *
+     * @return результаты моделей порции по их индексам
+     */
+    @SuppressWarnings("unchecked")
+    private UpdatedChunk<T> updateChunk(List<ID> ids,
+                                                             List<T> models,
+                                                             List<Integer> indexes,
+                                                             BinaryOperator<T> apply) {
+        PersistenceUnitUtil persistenceUnitUtil = persistenceContext.getEntityManagerFactory().getPersistenceUnitUtil();
+        EntityPersister persister = getEntityPersister();
+        SessionImplementor session = persistenceContext.unwrap(SessionImplementor.class);
+        Set<Object> managedBefore = managedEntities(session);
+        Map<ID, T> loaded = new HashMap<>();
+        persistenceContext.createQuery(idQueries.selectActiveByIds(), entityType)
+                .setParameter(JpaIdQueries.IDS_PARAM, indexes.stream().map(ids::get).toList())
+                .getResultList()
+                .forEach(entity -> loaded.put((ID) persistenceUnitUtil.getIdentifier(entity), entity));
+        Map<Integer, BatchResultWithData<T>> results = new LinkedHashMap<>();
+        int conflicts = 0;
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(indexes.size());
+        try {
+            for (int index : indexes) {
+                ID id = ids.get(index);
+                T model = models.get(index);
+                T entity = loaded.get(id);
+                Object modelVersion = persister.isVersioned() ? persister.getVersion(model) : null;
+                if (entity == null) {
+                    results.put(index, updateFailed(model, getResourceNotFoundMessage(id)));
+                } else if (modelVersion != null && !modelVersion.equals(persister.getVersion(entity))) {
+                    conflicts++;
+                    results.put(index, updateFailed(model, "Сущность с id = " + id + " изменена другой транзакцией"));
+                } else {
+                    results.put(index, BatchResultWithDataImpl.<T>builder()
+                            .data(apply.apply(entity, model))
+                            .status(BatchOperationStatus.SUCCESS)
+                            .message("updated")
+                            .build());
+                }
+            }
+            persistenceContext.flush();
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+        if (managedBefore.isEmpty()) {
+            persistenceContext.clear();
+        } else {
+            for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+                if (!managedBefore.contains(entry.getKey())) {
+                    session.detach(entry.getKey());
+                }
+            }
+        }
+        results.forEach((index, result) -> {
+            if (result.getStatus() == BatchOperationStatus.SUCCESS) {
+                invalidateCached(ids.get(index));
+            }
+        });
+        return new UpdatedChunk<>(results, conflicts);
+    }
+
+    /**
+     * Результаты порции обновления и число конфликтов версий среди них. Конфликты учитываются
+     * в метрике только для порции, изменения которой сохранены, повторное обновление половин
+     * порции после ошибки не учитывает их дважды
+     */
+    private record UpdatedChunk<T>(Map<Integer, BatchResultWithData<T>> results, int conflicts) {
+    }
+
+    private static Set<Object> managedEntities(SessionImplementor session) {
+        Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            managed.add(entry.getKey());
+        }
+        return managed;
+    }
+
+    /**
+     * Переносит состояние модели в загруженную сущность. Модель без версии получает версию сущности
+     * на время слияния, иначе Hibernate считает её новой, после слияния версия модели восстанавливается
+     */
+    private T mergeLoaded(T loaded, T model) {
+        EntityPersister persister = getEntityPersister();
+        if (!persister.isVersioned() || persister.getVersion(model) != null) {
+            return persistenceContext.merge(model);
+        }
+        persister.setValue(model, persister.getVersionProperty(), persister.getVersion(loaded));
+        try {
+            return persistenceContext.merge(model);
+        } finally {
+            persister.setValue(model, persister.getVersionProperty(), null);
+        }
+    }
+
+    private static <T> T patchLoaded(T loaded, T model) {
+        JpaEntityPropertyPatcher.patchIgnoreNulls(model, loaded);
+        return loaded;
+    }
+
+    @SneakyThrows
+    private List<ID> getModelIds(List<T> models) {
+        List<ID> ids = new ArrayList<>(models.size());
+        for (T model : models) {
+            ids.add((ID) idField.get(model));
+        }
+        return ids;
+    }
+
+    @Override
+    public List<BatchResultWithData<T>> upsertAll(List<T> models, List<String> conflictKey) {
+        return upsertAll(models, conflictKey, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<BatchResultWithData<T>> upsertAll(List<T> models, List<String> conflictKey, int batchSize) {
+        if (conflictKey.isEmpty()) {
+            throw new InvalidParameterException("Ключ конфликта не может быть пустым");
+        }
+        if (batchSize <= 0) {
+            throw new InvalidParameterException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        PersistenceUnitUtil persistenceUnitUtil = persistenceContext.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<BatchResultWithData<T>> results = new ArrayList<>(Collections.nCopies(models.size(), null));
+        List<Integer> withId = new ArrayList<>();
+        List<Integer> withoutId = new ArrayList<>();
+        boolean idGeneratedOnExecution = getEntityPersister().getGenerator().generatedOnExecution();
+        for (int i = 0; i < models.size(); i++) {
+            T model = models.get(i);
+            Set<ConstraintViolation<T>> violations = validator.validate(model);
+            if (!violations.isEmpty()) {
+                results.set(i, upsertFailed(model, new ValidationException(
+                        "Ошибка валидации сущности " + getEntityTypeName(), violations).getMessage()));
+            } else if (persistenceUnitUtil.getIdentifier(model) != null) {
+                withId.add(i);
+            } else if (conflictKey.contains(idField.getName())) {
+                results.set(i, upsertFailed(model, "Идентификатор входит в ключ конфликта и не может быть null"));
+            } else if (!idGeneratedOnExecution) {
+                results.set(i, upsertFailed(model, "Идентификатор сущности " + getEntityTypeName() +
+                        " не генерируется БД при вставке и не может быть null"));
+            } else {
+                withoutId.add(i);
+            }
+        }
+        JpaUpsertStatement idStatement = withId.isEmpty() ? null : getUpsertStatement(conflictKey, true);
+        JpaUpsertStatement generatedIdStatement = withoutId.isEmpty() ? null : getUpsertStatement(conflictKey, false);
+        transactionTemplate.executeWithoutResult(status -> {
+            SessionImplementor session = persistenceContext.unwrap(SessionImplementor.class);
+            session.flush();
+            try {
+                session.doWork(connection -> {
+                    executeUpsert(connection, session, idStatement, models, withId, batchSize, results);
+                    executeUpsert(connection, session, generatedIdStatement, models, withoutId, batchSize, results);
+                });
+            } catch (RuntimeException e) {
+                log.error("upsert operation fails for entity {}\ncause: {}", getEntityTypeName(), e.getMessage(), e);
+                status.setRollbackOnly();
+                throw new BatchOperationException(e.getMessage(), e);
+            }
+            detachManaged(session);
+            invalidateCache();
+        });
+        return results;
+    }
+
+    private JpaUpsertStatement getUpsertStatement(List<String> conflictKey, boolean includeId) {
+        try {
+            return upsertStatements.computeIfAbsent(List.of(List.copyOf(conflictKey), includeId),
+                    key -> JpaUpsertStatement.of(persistenceContext.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class),
+                            entityType, conflictKey, includeId));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidParameterException(e.getMessage(), e);
+        }
+    }
+
+    private void executeUpsert(Connection connection,
+                               SessionImplementor session,
+                               JpaUpsertStatement upsert,
+                               List<T> models,
+                               List<Integer> indexes,
+                               int batchSize,
+                               List<BatchResultWithData<T>> results) throws SQLException {
+        if (upsert == null) {
+            return;
+        }
+        EntityPersister persister = getEntityPersister();
+        try (PreparedStatement statement = upsert.prepare(connection)) {
+            for (int from = 0; from < indexes.size(); from += batchSize) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + batchSize, indexes.size()));
+                for (int index : chunk) {
+                    upsert.addBatch(statement, models.get(index), session);
+                }
+                int[] updateCounts = statement.executeBatch();
+                List<Object> generatedIds = upsert.readGeneratedIds(statement, updateCounts, session);
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = chunk.get(i);
+                    T model = models.get(index);
+                    Object generatedId = generatedIds.get(i);
+                    if (generatedId != null) {
+                        persister.setIdentifier(model, generatedId, session);
+                    }
+                    results.set(index, BatchResultWithDataImpl.<T>builder()
+                            .data(upsert.generatedId() == null || generatedId != null ? model : null)
+                            .status(BatchOperationStatus.SUCCESS)
+                            .message(upsert.outcome(updateCounts[i]))
+                            .build());
+                }
+            }
+        }
+    }
+
+    /**
+     * Отсоединяет загруженные сессией сущности, строки которых могли быть изменены в обход неё
+     */
+    private void detachManaged(SessionImplementor session) {
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entityType.isInstance(entry.getKey())) {
+                session.detach(entry.getKey());
+            }
+        }
+    }
+
+    private BatchResultWithData<ID> deleteFailed(ID id, String details) {
+        return BatchResultWithDataImpl.<ID>builder()
+                .message("delete operation fails for entity with id: " + id)
+                .status(BatchOperationStatus.FAILED)
+                .details(details)
+                .build();
+    }
+
+    private BatchResultWithData<T> updateFailed(T model, String details) {
+        return BatchResultWithDataImpl.<T>builder()
+                .status(BatchOperationStatus.FAILED)
+                .message("update operation fails for entity: " + model.toString())
+                .details(details)
+                .build();
+    }
+
+    private BatchResultWithData<T> createFailed(T model, String details) {
+        return BatchResultWithDataImpl.<T>builder()
+                .status(BatchOperationStatus.FAILED)
+                .message("create operation fails for entity: " + model.toString())
+                .details(details)
+                .build();
+    }
+
+    private BatchResultWithData<T> upsertFailed(T model, String details) {
+        return BatchResultWithDataImpl.<T>builder()
+                .status(BatchOperationStatus.FAILED)
+                .message("upsert operation fails for entity: " + model.toString())
+                .details(details)
+                .build();
+    }
+
 }
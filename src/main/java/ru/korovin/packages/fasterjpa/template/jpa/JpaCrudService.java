@@ -2,6 +2,9 @@ package ru.korovin.packages.fasterjpa.template.jpa;
 
 import jakarta.persistence.*;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.Builder;
@@ -9,23 +12,62 @@ import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.Generator;
 import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
 import ru.korovin.packages.fasterjpa.annotations.SoftDeleteFlag;
 import ru.korovin.packages.fasterjpa.exception.*;
+import ru.korovin.packages.fasterjpa.export.ExportFormat;
+import ru.korovin.packages.fasterjpa.export.ExportOptions;
+import ru.korovin.packages.fasterjpa.export.Exporter;
+import ru.korovin.packages.fasterjpa.cache.EntityCache;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
 import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.OffsetPolicy;
 import ru.korovin.packages.fasterjpa.queryparam.Pagination;
 import ru.korovin.packages.fasterjpa.queryparam.Sorting;
 import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.queryparam.sortingInternal.SortingUnit;
+import ru.korovin.packages.fasterjpa.service.ChunkOptions;
+import ru.korovin.packages.fasterjpa.service.ChunkProgress;
 import ru.korovin.packages.fasterjpa.service.CrudService;
+import ru.korovin.packages.fasterjpa.routing.RoutingContext;
+import ru.korovin.packages.fasterjpa.service.FetchStrategy;
 import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.service.MultiGetResult;
 import ru.korovin.packages.fasterjpa.service.PageableResult;
 import ru.korovin.packages.fasterjpa.service.UpdateSpecification;
-
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.BatchResultWithDataImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -33,11 +75,18 @@ import java.sql.Date;
 import java.sql.Timestamp;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static ru.korovin.packages.fasterjpa.queryparam.Filter.softDeleteFilter;
 import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.equal;
+import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.inCollection;
+import static ru.korovin.packages.fasterjpa.queryparam.utils.CriteriaParameters.bind;
 import static ru.korovin.packages.fasterjpa.service.UpdateSpecification.updateValue;
 
 
@@ -80,7 +129,47 @@ import static ru.korovin.packages.fasterjpa.service.UpdateSpecification.updateVa
  * @since 2025
  */
 @Slf4j
-public class JpaCrudService<T, ID> implements CrudService<T, ID> {
+public class JpaCrudService<T, ID> implements CrudService<T, ID>, DisposableBean {
+    public static final String OFFSET_DEPTH_METRIC = "page.offset.depth";
+    public static final String DEEP_OFFSET_REJECTED_METRIC = "page.offset.deep.rejected";
+    public static final String DEEP_OFFSET_KEYSET_METRIC = "page.offset.deep.keyset";
+    private static final long[] OFFSET_DEPTH_BUCKETS = {1, 100, 1_000, 10_000, 100_000, 1_000_000};
+    public static final String UPDATE_COLUMNS_METRIC = "update.columns";
+    public static final String UPDATE_CONFLICT_METRIC = "update.conflict";
+    private static final long[] UPDATE_COLUMNS_BUCKETS = {0, 1, 2, 5, 10, 20};
+    /**
+     * Количество групп спецификаций вызова {@link #updateEach(Map)}, каждая группа - отдельный запрос UPDATE
+     */
+    public static final String UPDATE_EACH_GROUPS_METRIC = "update.each.groups";
+    private static final long[] UPDATE_EACH_GROUPS_BUCKETS = {1, 2, 5, 10, 100, 1_000};
+    private static final int UPDATE_EACH_CHUNK_SIZE = 500;
+    /**
+     * Количество операций в группе {@link #enableGroupCommit(int, Duration)}
+     */
+    public static final String GROUP_COMMIT_SIZE_METRIC = "group.commit.size";
+    /**
+     * Количество групп, операции которых после ошибки выполнены по одной
+     */
+    public static final String GROUP_COMMIT_FALLBACK_METRIC = "group.commit.fallback";
+    /**
+     * Действия, значения которых различающиеся спецификации могут передать выражением CASE
+     */
+    private static final Set<UpdateSpecification.Action> FOLDABLE_UPDATE_ACTIONS = EnumSet.of(
+            UpdateSpecification.Action.UPDATE,
+            UpdateSpecification.Action.SUM,
+            UpdateSpecification.Action.MULTIPLY,
+            UpdateSpecification.Action.DIVIDE,
+            UpdateSpecification.Action.CONCAT);
+    public static final int DEFAULT_MULTI_GET_BATCH_SIZE = 500;
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+    public static final int DEFAULT_STREAM_CLEAR_INTERVAL = 1000;
+    public static final int DEFAULT_CREATE_CHUNK_SIZE = 500;
+    private static final int STREAM_BATCH_FETCH_SIZE = 100;
+    private static final String KEYSET_INCOMPATIBLE_SORTING_MESSAGE = "Сортировка %s несовместима с keyset пагинацией";
+    private static final String KEYSET_KEY_REQUIRED_MESSAGE = "Превышено максимальное смещение страницы, текущее смещение %d, " +
+            "максимальное смещение %d, для глубоких страниц используйте ключ keyset пагинации";
+    private static final String KEYSET_KEY_SIZE_MESSAGE = "Ключ keyset пагинации должен содержать %d значений " +
+            "для сортировки %s, передано %d";
 
     private static final Set<Class<?>> SUPPORTED_SOFT_DELETE_TYPES = Set.of(
             Boolean.class, boolean.class,
@@ -117,11 +206,27 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     protected final JpaRepository<T, ID> repository;
     protected final JpaSpecificationExecutor<T> specificationExecutor;
     protected final TransactionTemplate transactionTemplate;
+    protected final TransactionTemplate readOnlyTransactionTemplate;
+    /**
+     * Транзакция части массовой операции, фиксируется независимо от транзакции вызывающего кода
+     */
+    protected final TransactionTemplate chunkTransactionTemplate;
     protected final Validator validator;
     protected final Class<T> entityType;
+    protected final ServiceMetrics metrics;
+    protected OffsetPolicy offsetPolicy = OffsetPolicy.unlimited();
+    protected EntityCache<ID, T> entityCache;
+    protected int multiGetBatchSize = DEFAULT_MULTI_GET_BATCH_SIZE;
+    protected int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+    protected int streamClearInterval = DEFAULT_STREAM_CLEAR_INTERVAL;
+    protected int createChunkSize = DEFAULT_CREATE_CHUNK_SIZE;
+    protected boolean parallelValidation;
     protected boolean isSoftDeleteSupported;
     protected Field softDeleteField;
     protected Field idField;
+    JpaIdQueries idQueries;
+    private volatile JpaGroupCommitter groupCommitter;
+    private final Map<Class<?>, JpaProjection<?>> projections = new ConcurrentHashMap<>();
 
 
     public JpaCrudService(JpaRepository<T, ID> repository,
@@ -133,6 +238,11 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         this.specificationExecutor = specificationExecutor;
         this.persistenceContext = persistenceContext;
         this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.validator = validator;
 
         //initialize entity class definition
@@ -156,24 +266,27 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
             log.error("Не удалось определить тип сущности для класса {}", currentClass, e);
             throw e;
         }
+        this.metrics = new ServiceMetrics(entityType.getSimpleName());
+        this.entityCache = EntityCache.<ID, T>forEntity(entityType, metrics).orElse(null);
         defineSoftDeleteSupport();
         defineIdField();
+        this.idQueries = JpaIdQueries.of(entityType, idField, softDeleteField);
     }
 
     //method findById
     @Override
     public Optional<T> findById(@NonNull ID id) {
-        return repository.findById(id);
+        return findCached(id, () -> read(() -> repository.findById(id)));
     }
 
     @Override
     public Optional<T> findById(@NonNull ID id,
                                 @NonNull Joins joins) {
-        Filter<T> baseIdFilter = equal(idField.getName(), id);
-        Filter<T> resultIdFilter = getSoftDeleteSupportedFilter(baseIdFilter);
-        resultIdFilter.setEntityType(entityType);
-        joins.properties().forEach(resultIdFilter::withFetchJoin);
-        return specificationExecutor.findOne(resultIdFilter);
+        if (joins.isEmpty()) {
+            return findActiveById(id);
+        }
+        Filter<T> activeIdFilter = getActiveIdFilter(id);
+        return read(() -> fetch(activeIdFilter, joins, null).stream().findFirst());
     }
 
     @Override
@@ -186,24 +299,130 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     public Optional<T> findById(@NonNull ID id,
                                 @NonNull LockModeType lockType,
                                 @NonNull Joins fetchingProperties) {
-        Filter<T> baseIdFilter = equal(idField.getName(), id);
-        Filter<T> resultIdFilter = getSoftDeleteSupportedFilter(baseIdFilter);
-        resultIdFilter.setEntityType(entityType);
-        fetchingProperties.properties().forEach(resultIdFilter::withFetchJoin);
-        return findByFilterWithLock(resultIdFilter, lockType);
+        if (fetchingProperties.isEmpty()) {
+            return findActiveByIdWithLock(id, lockType);
+        }
+        Filter<T> activeIdFilter = getActiveIdFilter(id);
+        return transactionTemplate.execute(status -> fetch(activeIdFilter, fetchingProperties, lockType)
+                .stream()
+                .findFirst());
     }
 
     @Override
     public T getById(@NonNull ID id) throws ResourceNotFoundException {
         Supplier<ResourceNotFoundException> exceptionSupplier = () ->
                 new ResourceNotFoundException(getResourceNotFoundMessage(id));
-        Filter<T> idFilter = equal(idField.getName(), id.toString());
-        idFilter.setEntityType(entityType);
-        return !isSoftDeleteSupported ?
-                repository.findById(id)
-                        .orElseThrow(exceptionSupplier) :
-                specificationExecutor.findOne(getSoftDeleteSupportedFilter(idFilter))
-                        .orElseThrow(exceptionSupplier);
+        return findCached(id, () -> findActiveById(id))
+                .orElseThrow(exceptionSupplier);
+    }
+
+    private Optional<T> findActiveById(ID id) {
+        if (!isSoftDeleteSupported) {
+            return read(() -> repository.findById(id));
+        }
+        return read(() -> persistenceContext.createQuery(idQueries.selectActiveById(), entityType)
+                .setParameter(JpaIdQueries.ID_PARAM, id)
+                .getResultList()
+                .stream()
+                .findFirst());
+    }
+
+    private Filter<T> getActiveIdFilter(ID id) {
+        Filter<T> activeIdFilter = getSoftDeleteSupportedFilter(equal(idField.getName(), id));
+        activeIdFilter.setEntityType(entityType);
+        return activeIdFilter;
+    }
+
+    /**
+     * Выборка сущностей по фильтру с загрузкой связей по плану {@link JpaFetchPlan}.
+     * Связи BATCH и SUBSELECT загружаются отдельными запросами в уже выбранные сущности,
+     * поэтому метод выполняется в открытой сессии: внутри {@link #read(Supplier)} или транзакции
+     */
+    private List<T> fetch(Filter<T> filter, Joins joins, LockModeType lockType) {
+        JpaFetchPlan plan = getFetchPlan(joins);
+        plan.joinPaths().forEach(filter::withFetchJoin);
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityType);
+        Root<T> root = cq.from(entityType);
+        cq.select(root);
+        cq.where(filter.toPredicate(root, cq, cb));
+        TypedQuery<T> query = persistenceContext.createQuery(cq);
+        if (lockType != null) {
+            query.setLockMode(lockType);
+        }
+        EntityGraph<?> entityGraph = joins.entityGraphName() == null ? joins.entityGraph()
+                : persistenceContext.getEntityGraph(joins.entityGraphName());
+        if (entityGraph != null) {
+            query.setHint(SpecHints.HINT_SPEC_LOAD_GRAPH, entityGraph);
+        }
+        List<T> roots = query.getResultList();
+        if (roots.isEmpty() || !plan.hasFollowUpQueries()) {
+            return roots;
+        }
+        fetchBatches(roots, plan);
+        for (String path : plan.subselectPaths()) {
+            CriteriaQuery<T> subselect = cb.createQuery(entityType);
+            Root<T> subselectRoot = subselect.from(entityType);
+            JpaFetchPlan.fetch(subselectRoot, path);
+            Filter<T> subselectFilter = filter.copy();
+            subselect.select(subselectRoot);
+            subselect.where(subselectFilter.toPredicate(subselectRoot, cb));
+            persistenceContext.createQuery(subselect).getResultList();
+        }
+        return roots;
+    }
+
+    /**
+     * Загружает связи joins в уже выбранные сущности запросами {@link FetchStrategy#BATCH}
+     * по их идентификаторам независимо от стратегий joins. Сущности должны принадлежать
+     * текущему контексту персистентности, иначе связи загружаются в другие экземпляры.
+     * Используется для применения плана загрузки после выполнения запроса,
+     * например {@link ru.korovin.packages.fasterjpa.instrumentation.FetchPlanLearningInterceptor}
+     *
+     * @throws InvalidParameterException если путь joins не соответствует связи сущности
+     */
+    public void loadAssociations(@NonNull Collection<T> entities, @NonNull Joins joins) {
+        if (entities.isEmpty() || joins.properties().isEmpty()) {
+            return;
+        }
+        Joins batchJoins = Joins.empty();
+        for (String path : joins.properties()) {
+            batchJoins = batchJoins.with(path, FetchStrategy.BATCH);
+        }
+        fetchBatches(entities, getFetchPlan(batchJoins));
+    }
+
+    private JpaFetchPlan getFetchPlan(Joins joins) {
+        try {
+            return JpaFetchPlan.of(persistenceContext.getMetamodel().entity(entityType), idField.getName(), joins);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage(), e);
+        }
+    }
+
+    private void fetchBatches(Collection<T> roots, JpaFetchPlan plan) {
+        if (plan.batchQueries().isEmpty()) {
+            return;
+        }
+        PersistenceUnitUtil persistenceUnitUtil = persistenceContext.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = roots.stream().map(persistenceUnitUtil::getIdentifier).distinct().toList();
+        for (String batchQuery : plan.batchQueries().values()) {
+            for (int from = 0; from < ids.size(); from += multiGetBatchSize) {
+                persistenceContext.createQuery(batchQuery, entityType)
+                        .setParameter(JpaFetchPlan.IDS_PARAM, ids.subList(from, Math.min(from + multiGetBatchSize, ids.size())))
+                        .getResultList();
+            }
+        }
+    }
+
+    private Optional<T> findActiveByIdWithLock(ID id, LockModeType lockType) {
+        return transactionTemplate.execute(status -> persistenceContext
+                .createQuery(idQueries.selectActiveById(), entityType)
+                .setParameter(JpaIdQueries.ID_PARAM, id)
+                .setLockMode(lockType)
+                .getResultList()
+                .stream()
+                .findFirst());
     }
 
     @Override
@@ -211,13 +430,7 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
                      @NonNull Joins joins) throws ResourceNotFoundException {
         Supplier<ResourceNotFoundException> exceptionSupplier = () ->
                 new ResourceNotFoundException(getResourceNotFoundMessage(id));
-        Filter<T> baseIdFilter = equal(idField.getName(), id);
-        Filter<T> resultIdFilter = getSoftDeleteSupportedFilter(baseIdFilter);
-        joins.properties().forEach(resultIdFilter::withFetchJoin);
-
-        resultIdFilter.setEntityType(entityType);
-        return specificationExecutor.findOne(resultIdFilter)
-                .orElseThrow(exceptionSupplier);
+        return findById(id, joins).orElseThrow(exceptionSupplier);
     }
 
     @Override
@@ -230,17 +443,68 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     public T getById(@NonNull ID id,
                      @NonNull LockModeType lockType,
                      @NonNull Joins properties) throws ResourceNotFoundException {
-        Filter<T> idFilter = equal(idField.getName(), id);
-        idFilter.setEntityType(entityType);
-        properties.properties().forEach(idFilter::withFetchJoin);
-        return getByFilterWithLock(idFilter, lockType);
+        return findById(id, lockType, properties)
+                .orElseThrow(() -> new ResourceNotFoundException(getResourceNotFoundMessage(id)));
     }
 
 
+    @Override
+    public List<T> getAllByIds(@NonNull Collection<ID> ids) throws ResourceNotFoundException {
+        return getAllByIds(ids, Joins.empty());
+    }
+
+    @Override
+    public List<T> getAllByIds(@NonNull Collection<ID> ids,
+                               @NonNull Joins joins) throws ResourceNotFoundException {
+        MultiGetResult<T, ID> result = findAllByIds(ids, joins);
+        if (!result.isComplete()) {
+            throw new ResourceNotFoundException("Сущности " + getEntityTypeName()
+                    + " с id = " + result.getMissingIds() + " не найдены.");
+        }
+        return result.getList();
+    }
+
+    @Override
+    public Map<ID, T> getMapByIds(@NonNull Collection<ID> ids) {
+        return findAllByIds(ids, Joins.empty()).getFound();
+    }
+
+    @Override
+    public MultiGetResult<T, ID> findAllByIds(@NonNull Collection<ID> ids) {
+        return findAllByIds(ids, Joins.empty());
+    }
+
+    @SneakyThrows
+    @Override
+    public MultiGetResult<T, ID> findAllByIds(@NonNull Collection<ID> ids,
+                                              @NonNull Joins joins) {
+        List<ID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<ID, T> loaded = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += multiGetBatchSize) {
+            List<ID> chunk = distinctIds.subList(from, Math.min(from + multiGetBatchSize, distinctIds.size()));
+            Filter<T> idFilter = getSoftDeleteSupportedFilter(inCollection(idField.getName(), chunk));
+            idFilter.setEntityType(entityType);
+            for (T entity : read(() -> fetch(idFilter, joins, null))) {
+                loaded.put((ID) idField.get(entity), entity);
+            }
+        }
+        Map<ID, T> found = new LinkedHashMap<>();
+        List<ID> missingIds = new ArrayList<>();
+        for (ID id : distinctIds) {
+            T entity = loaded.get(id);
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                found.put(id, entity);
+            }
+        }
+        return new MultiGetResult<>(found, missingIds);
+    }
+
     @Override
     public Optional<T> findByFilter(@NonNull Filter<T> filter) {
         filter.setEntityType(entityType);
-        return specificationExecutor.findOne(getSoftDeleteSupportedFilter(filter));
+        return read(() -> specificationExecutor.findOne(getSoftDeleteSupportedFilter(filter)));
     }
 
     @Override
@@ -282,13 +546,13 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     @Override
     public List<T> getList(Filter<T> filter, Sorting sorting) {
         filter.setEntityType(entityType);
-        return specificationExecutor.findAll(getSoftDeleteSupportedFilter(filter), sorting.toJpaSort());
+        return read(() -> specificationExecutor.findAll(getSoftDeleteSupportedFilter(filter), sorting.toJpaSort()));
     }
 
     @Override
     public List<T> getList(Filter<T> filter) {
         filter.setEntityType(entityType);
-        return specificationExecutor.findAll(getSoftDeleteSupportedFilter(filter));
+        return read(() -> specificationExecutor.findAll(getSoftDeleteSupportedFilter(filter)));
     }
 
     @Override
@@ -300,18 +564,67 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     @Override
     public Stream<T> getDataStream(Filter<T> filter, Sorting sorting) {
         filter.setEntityType(entityType);
-        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
-        CriteriaQuery<T> criteriaQuery = cb.createQuery(entityType);
-        Root<T> root = criteriaQuery.from(entityType);
-        criteriaQuery.select(root);
-        criteriaQuery.where(getSoftDeleteSupportedFilter(filter)
-                .toPredicate(root, cb));
-        criteriaQuery.orderBy(sorting.toCriteriaOrderList(root, cb));
-        TypedQuery<T> typedQuery = persistenceContext.createQuery(criteriaQuery);
-        return typedQuery
-                .setHint(HibernateHints.HINT_BATCH_FETCH_SIZE, "100")
-                .setHint(HibernateHints.HINT_READ_ONLY, true)
-                .getResultStream();
+        return JpaScrollStream.open(persistenceContext, getStreamQueryFactory(filter, sorting),
+                streamFetchSize, streamClearInterval, metrics);
+    }
+
+    @Override
+    public <R> R withDataStream(@NonNull Filter<T> filter,
+                                @NonNull Sorting sorting,
+                                @NonNull Function<Stream<T>, R> action) {
+        filter.setEntityType(entityType);
+        return JpaScrollStream.withScroll(persistenceContext,
+                transactionTemplate.getTransactionManager(), getStreamQueryFactory(filter, sorting),
+                streamFetchSize, streamClearInterval, metrics, action);
+    }
+
+    private Function<Session, SelectionQuery<T>> getStreamQueryFactory(Filter<T> filter, Sorting sorting) {
+        Filter<T> softDeleteSupportedFilter = getSoftDeleteSupportedFilter(filter);
+        return session -> {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<T> criteriaQuery = cb.createQuery(entityType);
+            Root<T> root = criteriaQuery.from(entityType);
+            criteriaQuery.select(root);
+            criteriaQuery.where(softDeleteSupportedFilter.toPredicate(root, cb));
+            criteriaQuery.orderBy(sorting.toCriteriaOrderList(root, cb));
+            return session.createQuery(criteriaQuery)
+                    .setHint(HibernateHints.HINT_BATCH_FETCH_SIZE, STREAM_BATCH_FETCH_SIZE);
+        };
+    }
+
+    @Override
+    public long export(@NonNull Filter<T> filter,
+                       @NonNull Sorting sorting,
+                       @NonNull ExportFormat format,
+                       @NonNull OutputStream out) {
+        return export(filter, sorting, format, out, ExportOptions.defaults());
+    }
+
+    @Override
+    public long export(@NonNull Filter<T> filter,
+                       @NonNull Sorting sorting,
+                       @NonNull ExportFormat format,
+                       @NonNull OutputStream out,
+                       @NonNull ExportOptions options) {
+        filter.setEntityType(entityType);
+        List<String> attributePaths = resolveSelectableFields(filter, options.getFields());
+        Filter<T> softDeleteSupportedFilter = getSoftDeleteSupportedFilter(filter);
+        //строки выбираются кортежами и не попадают в контекст персистентности, очистка не требуется
+        return JpaScrollStream.withScroll(persistenceContext, transactionTemplate.getTransactionManager(), session -> {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+            Root<T> root = criteriaQuery.from(entityType);
+            criteriaQuery.multiselect(JpaProjection.toSelections(root, attributePaths));
+            criteriaQuery.where(softDeleteSupportedFilter.toPredicate(root, cb));
+            criteriaQuery.orderBy(sorting.toCriteriaOrderList(root, cb));
+            return session.createQuery(criteriaQuery);
+        }, streamFetchSize, 0, metrics, rows -> {
+            try {
+                return Exporter.write(rows.map(Tuple::toArray), attributePaths, format, options, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка выгрузки сущностей " + getEntityTypeName(), e);
+            }
+        });
     }
 
     @Override
@@ -319,21 +632,282 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
                                      @NonNull Sorting sorting,
                                      @NonNull Pagination pagination) {
         filter.setEntityType(entityType);
+        if (pagination.isKeyed()) {
+            return read(() -> getSeekPage(filter, sorting, pagination));
+        }
+        if (pagination.isPaged()) {
+            metrics.histogram(OFFSET_DEPTH_METRIC, OFFSET_DEPTH_BUCKETS).record(pagination.getOffset());
+            if (offsetPolicy.isExceededBy(pagination)) {
+                throw rejectDeepPage(pagination);
+            }
+        }
+        return read(() -> getOffsetPage(filter, sorting, pagination));
+    }
+
+    @Override
+    public <D> PageableResult<D> getPage(@NonNull Filter<T> filter,
+                                         @NonNull Sorting sorting,
+                                         @NonNull Pagination pagination,
+                                         @NonNull Class<D> projection) {
+        filter.setEntityType(entityType);
+        JpaProjection<D> jpaProjection = getProjection(projection);
+        return getTuplePage(filter, sorting, pagination, jpaProjection.getAttributePaths(), jpaProjection::map);
+    }
+
+    @Override
+    public PageableResult<Map<String, Object>> getPage(@NonNull Filter<T> filter,
+                                                       @NonNull Sorting sorting,
+                                                       @NonNull Pagination pagination,
+                                                       @NonNull List<String> fields) {
+        filter.setEntityType(entityType);
+        List<String> attributePaths = resolveSelectableFields(filter, fields);
+        return getTuplePage(filter, sorting, pagination, attributePaths,
+                tuple -> JpaProjection.toMap(tuple, attributePaths));
+    }
+
+    @Override
+    public List<Map<String, Object>> getList(@NonNull Filter<T> filter,
+                                             @NonNull Sorting sorting,
+                                             @NonNull List<String> fields) {
+        filter.setEntityType(entityType);
+        List<String> attributePaths = resolveSelectableFields(filter, fields);
+        return findTuples(getSoftDeleteSupportedFilter(filter), sorting, attributePaths,
+                Pageable.unpaged(), tuple -> JpaProjection.toMap(tuple, attributePaths));
+    }
+
+    private <R> PageableResult<R> getTuplePage(Filter<T> filter,
+                                               Sorting sorting,
+                                               Pagination pagination,
+                                               List<String> attributePaths,
+                                               Function<Tuple, R> mapper) {
+        if (pagination.isKeyed()) {
+            //seek запрос поддерживается только для страниц сущностей
+            throw new InvalidParameterException("Keyset пагинация не поддерживается для выборки полей");
+        }
+        if (pagination.isPaged()) {
+            metrics.histogram(OFFSET_DEPTH_METRIC, OFFSET_DEPTH_BUCKETS).record(pagination.getOffset());
+            if (offsetPolicy.isExceededBy(pagination)) {
+                throw rejectDeepPage(pagination);
+            }
+        }
+        Filter<T> softDeleteSupportedFilter = getSoftDeleteSupportedFilter(filter);
+        Filter<T> countFilter = softDeleteSupportedFilter.copy();
+        Pageable pageable = pagination.toJpaPageable();
+        return read(() -> {
+            List<R> data = findTuples(softDeleteSupportedFilter, sorting, attributePaths, pageable, mapper);
+            return PageableResult.of(PageableExecutionUtils.getPage(data, pageable,
+                    () -> specificationExecutor.count(countFilter)));
+        });
+    }
+
+    /**
+     * Проверка полей выборки по белому списку {@link SelectableFields} класса фильтра,
+     * без аннотации выборка полей запрещена
+     *
+     * @param fields поля выборки, пустой список - все поля белого списка
+     */
+    private List<String> resolveSelectableFields(Filter<T> filter, List<String> fields) {
+        SelectableFields selectableFields = filter.getClass().getAnnotation(SelectableFields.class);
+        if (selectableFields == null) {
+            throw new InvalidParameterException(SelectableFields.NOT_SUPPORTED_MESSAGE);
+        }
+        List<String> allowedFields = List.of(selectableFields.value());
+        if (fields.isEmpty()) {
+            return resolveFieldPaths(allowedFields);
+        }
+        Set<String> notAllowedFields = new LinkedHashSet<>(fields);
+        allowedFields.forEach(notAllowedFields::remove);
+        if (!notAllowedFields.isEmpty()) {
+            throw new InvalidParameterException(String.format(SelectableFields.NOT_ALLOWED_MESSAGE, notAllowedFields));
+        }
+        return resolveFieldPaths(fields);
+    }
+
+    private List<String> resolveFieldPaths(List<String> fields) {
+        try {
+            return JpaProjection.resolveFieldPaths(persistenceContext.getMetamodel().entity(entityType), fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <D> List<D> getList(@NonNull Filter<T> filter,
+                               @NonNull Class<D> projection) {
+        return getList(filter, Sortings.unsorted(), projection);
+    }
+
+    @Override
+    public <D> List<D> getList(@NonNull Filter<T> filter,
+                               @NonNull Sorting sorting,
+                               @NonNull Class<D> projection) {
+        filter.setEntityType(entityType);
+        JpaProjection<D> jpaProjection = getProjection(projection);
+        return findTuples(getSoftDeleteSupportedFilter(filter), sorting, jpaProjection.getAttributePaths(),
+                Pageable.unpaged(), jpaProjection::map);
+    }
+
+    /**
+     * Выборка только указанных атрибутов сущности без загрузки самих сущностей
+     * в контекст персистентности.
+     *
+     * @param attributePaths пути атрибутов, вложенные to-one атрибуты присоединяются через LEFT JOIN
+     * @param mapper         преобразование строки результата, значения в порядке attributePaths
+     */
+    protected <R> List<R> findTuples(Filter<T> filter,
+                                     Sorting sorting,
+                                     List<String> attributePaths,
+                                     Pageable pageable,
+                                     Function<Tuple, R> mapper) {
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(entityType);
+        cq.multiselect(JpaProjection.toSelections(root, attributePaths));
+        cq.where(filter.toPredicate(root, cb));
+        cq.orderBy(sorting.toCriteriaOrderList(root, cb));
+        return read(() -> {
+            TypedQuery<Tuple> query = persistenceContext.createQuery(cq);
+            if (pageable.isPaged()) {
+                query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+                query.setMaxResults(pageable.getPageSize());
+            }
+            return query.getResultList().stream().map(mapper).toList();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <D> JpaProjection<D> getProjection(Class<D> projection) {
+        return (JpaProjection<D>) projections.computeIfAbsent(projection,
+                type -> JpaProjection.of(persistenceContext.getMetamodel().entity(entityType), type));
+    }
+
+    private PageableResult<T> getOffsetPage(Filter<T> filter, Sorting sorting, Pagination pagination) {
         return PageableResult.of(specificationExecutor.findAll(getSoftDeleteSupportedFilter(filter),
                 getSoftDeleteSupportedFilter(filter.copy()),
                 pagination.toJpaPageable(sorting)));
     }
 
+    /**
+     * Отклонение страницы, смещение которой превышает {@link OffsetPolicy#maxOffset()}.
+     * При стратегии {@link OffsetPolicy.Strategy#KEYSET} клиенту предлагается
+     * запросить страницу по ключу {@link Pagination#getAfter()}.
+     */
+    private InvalidParameterException rejectDeepPage(Pagination pagination) {
+        metrics.increment(DEEP_OFFSET_REJECTED_METRIC);
+        return new InvalidParameterException(offsetPolicy.strategy() == OffsetPolicy.Strategy.KEYSET
+                ? String.format(KEYSET_KEY_REQUIRED_MESSAGE, pagination.getOffset(), offsetPolicy.maxOffset())
+                : String.format(Pagination.MAX_OFFSET_CONSTRAINT_VIOLATION_MESSAGE,
+                pagination.getOffset(), offsetPolicy.maxOffset()));
+    }
+
+    /**
+     * Страница keyset пагинации - seek запрос после строки, заданной клиентским ключом
+     * {@link Pagination#getAfter()}, стоимость которого не зависит от глубины страницы.
+     * Строки с null значением атрибута сортировки seek запросом не выбираются.
+     */
+    private PageableResult<T> getSeekPage(Filter<T> filter, Sorting sorting, Pagination pagination) {
+        List<SortingUnit> keysetSort = toKeysetSort(sorting).orElseThrow(() -> new InvalidParameterException(
+                String.format(KEYSET_INCOMPATIBLE_SORTING_MESSAGE, sorting.getSort())));
+        List<Object> key = toSeekKey(keysetSort, pagination.getAfter());
+        metrics.increment(DEEP_OFFSET_KEYSET_METRIC);
+        Filter<T> softDeleteSupportedFilter = getSoftDeleteSupportedFilter(filter);
+        Filter<T> countFilter = softDeleteSupportedFilter.copy();
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityType);
+        Root<T> root = cq.from(entityType);
+        cq.select(root);
+        cq.where(softDeleteSupportedFilter.toPredicate(root, cb), toSeekPredicate(keysetSort, key, root, cb));
+        cq.orderBy(Sortings.of(keysetSort).toCriteriaOrderList(root, cb));
+        List<T> data = persistenceContext.createQuery(cq)
+                .setMaxResults(pagination.getSize())
+                .getResultList();
+        return PageableResult.of(data, specificationExecutor.count(countFilter), pagination.getSize());
+    }
+
+    /**
+     * Приведение значений клиентского ключа к типам атрибутов сортировки
+     */
+    private List<Object> toSeekKey(List<SortingUnit> keysetSort, List<Object> after) {
+        if (after.size() != keysetSort.size()) {
+            throw new InvalidParameterException(String.format(KEYSET_KEY_SIZE_MESSAGE,
+                    keysetSort.size(), keysetSort, after.size()));
+        }
+        EntityType<T> entity = persistenceContext.getMetamodel().entity(entityType);
+        List<Object> key = new ArrayList<>(after.size());
+        for (int i = 0; i < after.size(); i++) {
+            String field = keysetSort.get(i).field();
+            Object value = after.get(i);
+            if (value == null) {
+                //null значения не сравнимы в seek предикате
+                throw new InvalidParameterException("Ключ keyset пагинации не может содержать null, поле " + field);
+            }
+            Class<?> javaType = ClassUtils.resolvePrimitiveIfNecessary(entity.getAttribute(field).getJavaType());
+            try {
+                key.add(DefaultConversionService.getSharedInstance().convert(value, javaType));
+            } catch (ConversionException e) {
+                throw new InvalidParameterException("Некорректное значение ключа keyset пагинации для поля "
+                        + field + ": " + value, e);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Сортировка совместима с keyset пагинацией, если состоит из базовых сравнимых
+     * атрибутов корневой сущности. Для однозначности порядка в конец
+     * добавляется сортировка по идентификатору.
+     */
+    private Optional<List<SortingUnit>> toKeysetSort(Sorting sorting) {
+        EntityType<T> entity = persistenceContext.getMetamodel().entity(entityType);
+        List<SortingUnit> keysetSort = new ArrayList<>();
+        for (SortingUnit unit : sorting.getSort()) {
+            Attribute<? super T, ?> attribute;
+            try {
+                attribute = entity.getAttribute(unit.field());
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            Class<?> javaType = attribute.getJavaType();
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                    || !(javaType.isPrimitive() || Comparable.class.isAssignableFrom(javaType))) {
+                return Optional.empty();
+            }
+            keysetSort.add(unit);
+        }
+        if (keysetSort.stream().noneMatch(unit -> unit.field().equals(idField.getName()))) {
+            keysetSort.add(SortingUnit.asc(idField.getName()));
+        }
+        return Optional.of(keysetSort);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate toSeekPredicate(List<SortingUnit> keysetSort,
+                                      List<Object> key,
+                                      Root<T> root,
+                                      CriteriaBuilder cb) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (int i = 0; i < keysetSort.size(); i++) {
+            SortingUnit unit = keysetSort.get(i);
+            Expression<Comparable> path = Filter.getTypedExpression(root.get(unit.field()), Comparable.class);
+            Comparable value = (Comparable) key.get(i);
+            List<Predicate> alternative = new ArrayList<>(equalPrefix);
+            alternative.add(unit.order().equals(Sorting.DESC)
+                    ? cb.lessThan(path, value)
+                    : cb.greaterThan(path, value));
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalPrefix.add(cb.equal(path, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
     @Override
     public T getByFilter(@NonNull Filter<T> filter) throws ResourceNotFoundException, NonUniqueResultException {
         Supplier<ResourceNotFoundException> exceptionSupplier = () ->
                 new ResourceNotFoundException(getResourceNotFoundMessage(filter));
         filter.setEntityType(entityType);
-        return !isSoftDeleteSupported ?
-                specificationExecutor.findOne(filter)
-                        .orElseThrow(exceptionSupplier) :
-                specificationExecutor.findOne(getSoftDeleteSupportedFilter(filter))
-                        .orElseThrow(exceptionSupplier);
+        return read(() -> specificationExecutor.findOne(getSoftDeleteSupportedFilter(filter)))
+                .orElseThrow(exceptionSupplier);
     }
 
     @Override
@@ -363,7 +937,28 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         if (!violations.isEmpty()) {
             throw new ValidationException("Ошибка валидации сущности " + entityType, violations);
         }
-        return transactionTemplate.execute(status -> {
+        try {
+            return executeWrite(new CreateOperation(model));
+        } catch (PersistenceException e) {
+            throw new EntityProcessingException("Ошибка сохранения сущности", e, entityType, EntityOperation.CREATE);
+        }
+    }
+
+    /**
+     * Сохранение модели, при повторном выполнении в группе {@link #enableGroupCommit(int, Duration)}
+     * модели возвращаются значения свойств и идентификатор до сохранения
+     */
+    private final class CreateOperation implements JpaGroupCommitter.GroupOperation<T> {
+        private final T model;
+        private final Runnable restore;
+
+        private CreateOperation(T model) {
+            this.model = model;
+            this.restore = snapshot(model);
+        }
+
+        @Override
+        public T execute() {
             try {
                 persistenceContext.persist(model);
                 return model;
@@ -371,25 +966,115 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
                 throw new EntityProcessingException("Ошибка сохранения сущности",
                         e, entityType, EntityOperation.CREATE);
             }
-        });
+        }
+
+        @Override
+        public void reset() {
+            restore.run();
+        }
+    }
+
+    /**
+     * Запоминает идентификатор и значения свойств модели до сохранения. Возвращаемое действие
+     * восстанавливает их после отката транзакции сохранения, так как Hibernate не возвращает
+     * модели сгенерированный идентификатор и начальное значение версии
+     */
+    Runnable snapshot(T model) {
+        EntityPersister persister = getEntityPersister();
+        Object id = persistenceContext.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(model);
+        Object[] values = persister.getValues(model);
+        return () -> {
+            try {
+                idField.set(model, id);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            persister.setValues(model, values);
+        };
     }
 
+    EntityPersister getEntityPersister() {
+        return persistenceContext.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(entityType);
+    }
+
+    /**
+     * Сохраняет модели порциями по {@link #getCreateChunkSize()}: каждая порция отправляется
+     * пакетом JDBC и после сброса отсоединяется от контекста персистентности, поэтому
+     * потребление памяти не зависит от количества моделей. Все модели проверяются валидатором
+     * до начала транзакции. Пакетная вставка невозможна для сущностей с генерацией
+     * идентификатора {@link GenerationType#IDENTITY}: Hibernate выполняет такие вставки по одной.
+     *
+     * @return сохранённые модели, отсоединённые от контекста персистентности
+     * @throws ValidationException если модель не прошла валидацию, сообщение содержит её индекс
+     */
     @Override
-    public List<T> createAll(List<T> models) throws EntityProcessingException {
+    public List<T> createAll(@NonNull List<T> models) throws EntityProcessingException {
+        validateAll(models);
         try {
             return transactionTemplate.execute(status -> {
-                List<T> result = new ArrayList<>();
-                models.forEach(model -> {
-                    persistenceContext.persist(model);
-                    result.add(model);
-                });
-                return result;
+                Session session = persistenceContext.unwrap(Session.class);
+                Integer jdbcBatchSize = session.getJdbcBatchSize();
+                session.setJdbcBatchSize(createChunkSize);
+                try {
+                    for (int from = 0; from < models.size(); from += createChunkSize) {
+                        List<T> chunk = models.subList(from, Math.min(from + createChunkSize, models.size()));
+                        chunk.forEach(persistenceContext::persist);
+                        persistenceContext.flush();
+                        //контекст может быть общим с вызывающим кодом (транзакция, open-in-view),
+                        //поэтому отсоединяются только сохранённые модели
+                        chunk.forEach(persistenceContext::detach);
+                    }
+                } finally {
+                    session.setJdbcBatchSize(jdbcBatchSize);
+                }
+                return new ArrayList<>(models);
             });
         } catch (Exception e) {
             throw new EntityProcessingException("Ошибка создания списка сущностей", e, entityType, EntityOperation.CREATE);
         }
     }
 
+    private void validateAll(List<T> models) {
+        IntStream indexes = IntStream.range(0, models.size());
+        if (parallelValidation) {
+            indexes = indexes.parallel();
+        }
+        indexes.mapToObj(index -> Map.entry(index, validator.validate(models.get(index))))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .findFirst()
+                .ifPresent(entry -> {
+                    throw new ValidationException(String.format("Ошибка валидации сущности %s с индексом %d",
+                            getEntityTypeName(), entry.getKey()), entry.getValue());
+                });
+    }
+
+    /**
+     * Сравнивает модель с состоянием сущности в контексте персистентности (загружается, если отсутствует)
+     * и записывает только изменённые столбцы запросом
+     * <pre>
+     *     {@code
+     *     update User set firstName = ?, version = ? where id = ? and version = ?
+     *     }
+     * </pre>
+     * Условие по версии добавляется для сущностей с числовой {@link Version}, версия модели, если задана,
+     * должна совпадать с версией в БД. Изменения связей, коллекций и встраиваемых объектов переносятся
+     * в загруженную сущность и записываются Hibernate при сбросе контекста с проверкой версии,
+     * без {@link org.hibernate.annotations.DynamicUpdate} такой запрос содержит все столбцы.
+     * Так же записываются все изменения сущностей с {@link org.hibernate.annotations.UpdateTimestamp}
+     * и другими генерируемыми при обновлении свойствами, с обработчиками {@link jakarta.persistence.PreUpdate},
+     * {@link jakarta.persistence.PostUpdate} и {@link jakarta.persistence.EntityListeners} (например, аудит)
+     * или слушателями событий обновления Hibernate - запрос UPDATE их не вызывает.
+     * Количество изменённых свойств каждого вызова записывается в гистограмму {@link #UPDATE_COLUMNS_METRIC}.
+     * После записи запросом загруженная сущность отсоединяется от контекста персистентности,
+     * а возвращается модель с новой версией. Если сущность уже находилась в контексте персистентности
+     * вызывающей транзакции, изменения переносятся в неё и записываются при сбросе контекста,
+     * поэтому экземпляр вызывающего кода остаётся управляемым и актуальным.
+     *
+     * @throws ResourceNotFoundException если сущность не найдена
+     * @throws EntityProcessingException если сущность изменена другой транзакцией, причина -
+     *                                   {@link OptimisticLockException}, либо при ошибке обновления
+     */
     @SneakyThrows
     @Override
     public T fullUpdate(@NonNull T model) throws EntityProcessingException {
@@ -404,16 +1089,95 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
             throw new ValidationException("Ошибка валидации сущности при обновлении " + entityType.getSimpleName(), violations);
         }
         return transactionTemplate.execute(status -> {
-            try {
-                persistenceContext.unwrap(Session.class).update(model);
+            boolean managedBefore = isManaged(id);
+            T loaded = persistenceContext.find(entityType, id);
+            if (loaded == null) {
+                throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
+            }
+            if (loaded == model) {
+                metrics.histogram(UPDATE_COLUMNS_METRIC, UPDATE_COLUMNS_BUCKETS).record(0);
+                invalidateCached(id);
                 return model;
+            }
+            try {
+                T updated = writeDiff(id, loaded, model, managedBefore);
+                invalidateCached(id);
+                return updated;
+            } catch (OptimisticLockException e) {
+                metrics.increment(UPDATE_CONFLICT_METRIC);
+                throw new EntityProcessingException("Сущность с id = " + id + " изменена другой транзакцией",
+                        e, entityType, EntityOperation.UPDATE);
             } catch (Exception e) {
                 throw new EntityProcessingException("Ошибка обновления сущности с id = " + id,
-                        e, entityType, EntityOperation.CREATE);
+                        e, entityType, EntityOperation.UPDATE);
             }
         });
     }
 
+    /**
+     * Находится ли сущность или её прокси в контексте персистентности текущей транзакции
+     */
+    private boolean isManaged(ID id) {
+        SessionImplementor session = persistenceContext.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(id, getEntityPersister());
+        return session.getPersistenceContextInternal().getEntity(key) != null
+                || session.getPersistenceContextInternal().getProxy(key) != null;
+    }
+
+    /**
+     * @param managedBefore находилась ли сущность в контексте персистентности до загрузки,
+     *                      такую сущность нельзя отсоединять после записи запросом
+     */
+    private T writeDiff(ID id, T loaded, T model, boolean managedBefore) {
+        JpaEntityDiff diff = JpaEntityDiff.of(persistenceContext, entityType, loaded, model);
+        metrics.histogram(UPDATE_COLUMNS_METRIC, UPDATE_COLUMNS_BUCKETS).record(diff.size());
+        String versionName = diff.getVersionName();
+        Object loadedVersion = diff.getVersion(loaded);
+        Object modelVersion = diff.getVersion(model);
+        if (modelVersion != null && !modelVersion.equals(loadedVersion)) {
+            throw new OptimisticLockException("Версия " + modelVersion + " не совпадает с версией в БД " + loadedVersion);
+        }
+        if (diff.size() == 0) {
+            return loaded;
+        }
+        Object nextVersion = versionName == null ? null : nextVersion(loadedVersion);
+        if (managedBefore || diff.hasOtherChanges() || diff.isEntityUpdateRequired()
+                || versionName != null && nextVersion == null) {
+            diff.applyTo(loaded, model);
+            return loaded;
+        }
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityType);
+        Root<T> root = update.from(entityType);
+        diff.getBasicChanges().forEach((property, value) -> update.set(root.get(property), value));
+        Predicate predicate = cb.equal(root.get(idField.getName()), bind(cb, id));
+        if (versionName != null) {
+            update.set(root.get(versionName), nextVersion);
+            predicate = cb.and(predicate, cb.equal(root.get(versionName), bind(cb, loadedVersion)));
+        }
+        update.where(predicate);
+        if (persistenceContext.createQuery(update).executeUpdate() != 1) {
+            throw new OptimisticLockException("Сущность изменена после загрузки");
+        }
+        persistenceContext.detach(loaded);
+        if (versionName != null) {
+            diff.setVersion(model, nextVersion);
+        }
+        return model;
+    }
+
+    /**
+     * Следующее значение числовой версии, null для версий других типов
+     */
+    private static Object nextVersion(Object version) {
+        return switch (version) {
+            case Long value -> value + 1;
+            case Integer value -> value + 1;
+            case Short value -> (short) (value + 1);
+            case null, default -> null;
+        };
+    }
+
     @Override
     public T patchUpdate(@NonNull ID id,
                          @NonNull T model) throws EntityProcessingException {
@@ -421,11 +1185,14 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         if (!violations.isEmpty()) {
             throw new ValidationException("Ошибка валидации сущности " + getEntityTypeName(), violations);
         }
-        T dbModel = getById(id);
-        JpaEntityPropertyPatcher.patchIgnoreNulls(model, dbModel);
         return transactionTemplate.execute(status -> {
+            T dbModel = findActiveById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(getResourceNotFoundMessage(id)));
+            JpaEntityPropertyPatcher.patchIgnoreNulls(model, dbModel);
             try {
-                return repository.save(dbModel);
+                T saved = repository.save(dbModel);
+                invalidateCached(id);
+                return saved;
             } catch (DataAccessException e) {
                 throw new EntityProcessingException("Ошибка обновления сущности с id = " + id,
                         e, entityType, EntityOperation.CREATE);
@@ -433,14 +1200,125 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         });
     }
 
+    @Override
+    public int patchUpdateById(@NonNull ID id, @NonNull T model) throws EntityProcessingException {
+        try {
+            return patchUpdateById(id, JpaEntityDiff.nonNullProperties(persistenceContext, entityType, model));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Значение версии из values не записывается, а добавляется условием {@code version = ?},
+     * версия увеличивается на единицу при каждом обновлении. Проверяются ограничения валидации
+     * только обновляемых свойств. Значения, генерируемые Hibernate при обновлении в памяти
+     * ({@link org.hibernate.annotations.UpdateTimestamp}), вычисляются и добавляются в запрос,
+     * если не заданы в values
+     */
+    @Override
+    public int patchUpdateById(@NonNull ID id, @NonNull Map<String, Object> values) throws EntityProcessingException {
+        EntityType<T> entity = persistenceContext.getMetamodel().entity(entityType);
+        Optional<SingularAttribute<? super T, ?>> versionAttribute = entity.getSingularAttributes().stream()
+                .filter(SingularAttribute::isVersion)
+                .findAny();
+        Map<String, Object> updates = new LinkedHashMap<>(values);
+        Object expectedVersion = versionAttribute.map(version -> updates.remove(version.getName())).orElse(null);
+        if (updates.isEmpty()) {
+            throw new InvalidParameterException("Не указаны свойства для обновления " + getEntityTypeName());
+        }
+        Set<ConstraintViolation<T>> violations = new HashSet<>();
+        UpdateSpecification specification = new UpdateSpecification(new LinkedHashMap<>());
+        updates.forEach((property, value) -> {
+            checkPatchableAttribute(entity, property);
+            violations.addAll(validator.validateValue(entityType, property, value));
+            specification.getUpdates().put(property, UpdateSpecification.ub.updateValue(property, value));
+        });
+        if (!violations.isEmpty()) {
+            throw new ValidationException("Ошибка валидации сущности " + getEntityTypeName(), violations);
+        }
+        Filter<T> filter = getActiveIdFilter(id);
+        versionAttribute.ifPresent(version -> {
+            specification.getUpdates().put(version.getName(), new UpdateSpecification.UpdateUnit(
+                    version.getName(), UpdateSpecification.Action.SUM, versionIncrement(version.getJavaType())));
+            if (expectedVersion != null) {
+                filter._and(equal(version.getName(), expectedVersion));
+            }
+        });
+        return transactionTemplate.execute(status -> {
+            putUpdateGeneratedValues(specification);
+            try {
+                int updated = executeUpdate(specification, filter);
+                invalidateCached(id);
+                return updated;
+            } catch (PersistenceException | DataAccessException e) {
+                throw new EntityProcessingException("Ошибка обновления сущности с id = " + id,
+                        e, entityType, EntityOperation.UPDATE);
+            }
+        });
+    }
+
+    /**
+     * Запрос UPDATE не вызывает генераторы Hibernate, поэтому значения генерируемых в памяти
+     * при обновлении свойств, кроме версии, вычисляются явно
+     */
+    private void putUpdateGeneratedValues(UpdateSpecification specification) {
+        EntityPersister persister = getEntityPersister();
+        Generator[] generators = persister.getEntityMetamodel().getGenerators();
+        String[] names = persister.getPropertyNames();
+        SharedSessionContractImplementor session = persistenceContext.unwrap(SharedSessionContractImplementor.class);
+        for (int i = 0; i < names.length; i++) {
+            if (generators[i] instanceof BeforeExecutionGenerator generator
+                    && generator.generatesOnUpdate()
+                    && !(persister.isVersioned() && i == persister.getVersionProperty())
+                    && !specification.getUpdates().containsKey(names[i])) {
+                Object value = generator.generate(session, null, null, org.hibernate.generator.EventType.UPDATE);
+                specification.getUpdates().put(names[i], UpdateSpecification.ub.updateValue(names[i], value));
+            }
+        }
+    }
+
+    private void checkPatchableAttribute(EntityType<T> entity, String property) {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = entity.getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(String.format("Свойство '%s' не найдено в %s",
+                    property, getEntityTypeName()), e);
+        }
+        if (attribute.isCollection() || attribute instanceof SingularAttribute<?, ?> singular && singular.isId()) {
+            throw new InvalidParameterException(String.format("Свойство '%s' не может быть обновлено запросом UPDATE",
+                    property));
+        }
+    }
+
+    private static Number versionIncrement(Class<?> versionType) {
+        if (versionType == Integer.class || versionType == int.class) {
+            return 1;
+        }
+        if (versionType == Short.class || versionType == short.class) {
+            return (short) 1;
+        }
+        if (versionType == Long.class || versionType == long.class) {
+            return 1L;
+        }
+        throw new IllegalStateException("Обновление запросом UPDATE поддерживает только числовые версии, версия "
+                + versionType.getSimpleName());
+    }
+
     @Override
     public void deleteById(@NonNull ID id) throws ResourceNotFoundException, EntityProcessingException {
-        transactionTemplate.executeWithoutResult(status -> {
+        executeWrite(() -> {
             try {
-                if (deleteByFilter(equal(idField.getName(), id)) != 1) {
+                int deleted = persistenceContext.createQuery(idQueries.deleteByIds())
+                        .setParameter(JpaIdQueries.IDS_PARAM, List.of(id))
+                        .executeUpdate();
+                if (deleted != 1) {
                     throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
                 }
-            } catch (DataAccessException e) {
+                invalidateCached(id);
+                return null;
+            } catch (PersistenceException | DataAccessException e) {
                 throw new EntityProcessingException("Ошибка удаления сущности с id : " + id, e, entityType, EntityOperation.DELETE);
             }
         });
@@ -457,6 +1335,12 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
 
     @Override
     public long deleteByFilter(@NonNull Filter<T> filter) throws EntityProcessingException {
+        long deleted = executeDelete(filter);
+        invalidateCache();
+        return deleted;
+    }
+
+    private long executeDelete(Filter<T> filter) throws EntityProcessingException {
         try {
             filter.setEntityType(entityType);
             return specificationExecutor.delete(filter);
@@ -468,25 +1352,44 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
     @Override
     public long countByFilter(@NonNull Filter<T> filter) {
         filter.setEntityType(entityType);
-        return specificationExecutor.count(getSoftDeleteSupportedFilter(filter));
+        return read(() -> specificationExecutor.count(getSoftDeleteSupportedFilter(filter)));
     }
 
     @Override
     public long countAll() {
-        return !isSoftDeleteSupported ? repository.count() :
+        return !isSoftDeleteSupported ? read(repository::count) :
                 countByFilter(getSoftDeleteSupportedFilter(Filter.empty()));
     }
 
     @Override
     public boolean existsById(@NonNull ID id) {
-        return !isSoftDeleteSupported ? repository.existsById(id) :
-                existsByFilter(equal(idField.getName(), id));
+        if (isCacheReadable() && entityCache.get(id).isPresent()) {
+            return true;
+        }
+        return read(() -> !isSoftDeleteSupported ? repository.existsById(id) :
+                !persistenceContext.createQuery(idQueries.existsActiveById())
+                        .setParameter(JpaIdQueries.ID_PARAM, id)
+                        .setMaxResults(1)
+                        .getResultList()
+                        .isEmpty());
     }
 
     @Override
     public boolean existsByFilter(@NonNull Filter<T> filter) {
         filter.setEntityType(entityType);
-        return specificationExecutor.exists(getSoftDeleteSupportedFilter(filter));
+        return read(() -> specificationExecutor.exists(getSoftDeleteSupportedFilter(filter)));
+    }
+
+    /**
+     * Выполняет операцию записи в транзакции, либо в группе, если групповая фиксация
+     * включена и вызов выполняется вне транзакции
+     */
+    private <R> R executeWrite(JpaGroupCommitter.GroupOperation<R> operation) {
+        JpaGroupCommitter committer = groupCommitter;
+        if (committer != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return committer.submit(operation);
+        }
+        return transactionTemplate.execute(status -> operation.execute());
     }
 
     private void checkSoftDeleteAvailability() {
@@ -501,12 +1404,12 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         checkSoftDeleteAvailability();
         try {
             Object updateValue = SOFT_DELETE_FLAG_MAPPING.get(softDeleteField.getType()).get();
-            transactionTemplate.executeWithoutResult(status -> {
-                if (updateByFilter(
-                        updateValue(softDeleteField.getName(), updateValue),
-                        equal(idField.getName(), id)) != 1) {
+            executeWrite(() -> {
+                if (updateFlagById(id, updateValue) != 1) {
                     throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
                 }
+                invalidateCached(id);
+                return null;
             });
         } catch (ResourceNotFoundException e) {
             throw e;
@@ -523,93 +1426,216 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
 
     @Override
     public int updateByFilter(UpdateSpecification specification, Filter<T> filter) {
-        filter.setEntityType(entityType);
+        int updated = executeUpdate(specification, filter);
+        invalidateCache();
+        return updated;
+    }
+
+    /**
+     * Спецификации группируются по форме - набору свойств и действий, значения действий
+     * {@link #FOLDABLE_UPDATE_ACTIONS} в форму не входят и объединяются выражением CASE.
+     * Группа обновляется частями по {@link #UPDATE_EACH_CHUNK_SIZE} идентификаторов,
+     * каждая часть - запрос выборки существующих идентификаторов и запрос обновления
+     */
+    @Override
+    public List<BatchResultWithData<ID>> updateEach(@NonNull Map<ID, UpdateSpecification> updates)
+            throws EntityProcessingException {
+        Map<ID, BatchResultWithData<ID>> results = new LinkedHashMap<>();
+        Map<List<Object>, List<ID>> groups = new LinkedHashMap<>();
+        updates.forEach((id, specification) -> {
+            results.put(id, null);
+            if (specification.getUpdates().isEmpty()) {
+                results.put(id, updateEachResult(id, BatchOperationStatus.FAILED, "empty update specification"));
+            } else {
+                groups.computeIfAbsent(getUpdateShape(specification), shape -> new ArrayList<>()).add(id);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            for (List<ID> group : groups.values()) {
+                for (int from = 0; from < group.size(); from += UPDATE_EACH_CHUNK_SIZE) {
+                    List<ID> chunk = group.subList(from, Math.min(from + UPDATE_EACH_CHUNK_SIZE, group.size()));
+                    Filter<T> chunkFilter = getSoftDeleteSupportedFilter(inCollection(idField.getName(), chunk));
+                    chunkFilter.setEntityType(entityType);
+                    Set<ID> existing = new HashSet<>(selectChunkIds(chunkFilter, null, chunk.size()));
+                    List<ID> found = chunk.stream().filter(existing::contains).toList();
+                    chunk.stream()
+                            .filter(id -> !existing.contains(id))
+                            .forEach(id -> results.put(id, updateEachResult(id, BatchOperationStatus.FAILED,
+                                    getResourceNotFoundMessage(id))));
+                    if (found.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        executeFoldedUpdate(found, updates);
+                    } catch (PersistenceException | DataAccessException e) {
+                        throw new EntityProcessingException("Ошибка обновления сущностей " + getEntityTypeName()
+                                + " с id: " + found, e, entityType, EntityOperation.UPDATE);
+                    }
+                    found.forEach(id -> {
+                        invalidateCached(id);
+                        results.put(id, updateEachResult(id, BatchOperationStatus.SUCCESS, "updated"));
+                    });
+                }
+            }
+        });
+        metrics.histogram(UPDATE_EACH_GROUPS_METRIC, UPDATE_EACH_GROUPS_BUCKETS).record(groups.size());
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * {@code [stock:SUM, name:UPDATE, description:COPY:name]}
+     */
+    private static List<Object> getUpdateShape(UpdateSpecification specification) {
+        return specification.getUpdates().values().stream()
+                .sorted(Comparator.comparing(UpdateSpecification.UpdateUnit::field))
+                .map(unit -> FOLDABLE_UPDATE_ACTIONS.contains(unit.action())
+                        ? List.of(unit.field(), unit.action())
+                        : Arrays.asList(unit.field(), unit.action(), unit.data()))
+                .collect(Collectors.toList());
+    }
+
+    private void executeFoldedUpdate(List<ID> ids, Map<ID, UpdateSpecification> updates) {
         CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
         CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityType);
         Root<T> root = update.from(entityType);
+        Path<ID> idPath = root.get(idField.getName());
+        for (UpdateSpecification.UpdateUnit unit : updates.get(ids.get(0)).getUpdates().values()) {
+            Object data = unit.data();
+            boolean isUniform = ids.stream()
+                    .allMatch(id -> Objects.equals(updates.get(id).getUpdates().get(unit.field()).data(), unit.data()));
+            if (!isUniform && FOLDABLE_UPDATE_ACTIONS.contains(unit.action())) {
+                Class<?> type = root.get(unit.field()).getJavaType();
+                CriteriaBuilder.SimpleCase<ID, Object> folded = cb.selectCase(idPath);
+                for (ID id : ids) {
+                    folded.when(id, toOperand(cb, updates.get(id).getUpdates().get(unit.field()).data(), type));
+                }
+                data = folded.otherwise(toOperand(cb, data, type));
+            }
+            setUpdate(update, cb, root, unit.field(), new UpdateSpecification.UpdateUnit(unit.field(), unit.action(), data));
+        }
+        update.where(idPath.in(ids));
+        persistenceContext.createQuery(update).executeUpdate();
+    }
 
-        for (Map.Entry<String, UpdateSpecification.UpdateUnit> entry :
-                specification.getUpdates().entrySet()) {
+    @SuppressWarnings("unchecked")
+    private static Expression<Object> toOperand(CriteriaBuilder cb, Object value, Class<?> type) {
+        return value == null ? cb.nullLiteral((Class<Object>) type) : bind(cb, value);
+    }
 
-            String field = entry.getKey();
-            UpdateSpecification.UpdateUnit pair = entry.getValue();
-            Path<Object> path = root.get(field);
+    private BatchResultWithData<ID> updateEachResult(ID id, BatchOperationStatus status, String message) {
+        return BatchResultWithDataImpl.<ID>builder()
+                .data(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
 
-            switch (pair.action()) {
-                case UPDATE -> update.set(path, pair.data());
-                case SUM -> {
-                    if (pair.data() instanceof Number number) {
-                        Object sumExpr = cb.sum(Filter.getTypedExpression(path, Number.class), number);
-                        update.set(path, sumExpr);
-                    }
-                }
-                case MULTIPLY -> {
-                    if (pair.data() instanceof Number number) {
-                        Object prodExpr = cb.prod(Filter.getTypedExpression(path, Number.class), number);
-                        update.set(path, prodExpr);
-                    }
+    private int executeUpdate(UpdateSpecification specification, Filter<T> filter) {
+        filter.setEntityType(entityType);
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityType);
+        Root<T> root = update.from(entityType);
+
+        specification.getUpdates().forEach((field, pair) -> setUpdate(update, cb, root, field, pair));
+        update.where(filter.toPredicate(root, cb));
+        return persistenceContext.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Добавляет в запрос изменение свойства. Значением действий UPDATE, SUM, MULTIPLY, DIVIDE и CONCAT
+     * кроме значения может быть выражение, например {@code case e.id when 1 then ? when 2 then ? end}
+     */
+    @SuppressWarnings("unchecked")
+    private void setUpdate(CriteriaUpdate<T> update,
+                           CriteriaBuilder cb,
+                           Root<T> root,
+                           String field,
+                           UpdateSpecification.UpdateUnit pair) {
+        Path<Object> path = root.get(field);
+        switch (pair.action()) {
+            case UPDATE -> update.set(path, pair.data());
+            case SUM -> {
+                if (pair.data() instanceof Number number) {
+                    Object sumExpr = cb.sum(Filter.getTypedExpression(path, Number.class), number);
+                    update.set(path, sumExpr);
+                } else if (pair.data() instanceof Expression<?> operand) {
+                    Object sumExpr = cb.sum(Filter.getTypedExpression(path, Number.class), (Expression<Number>) operand);
+                    update.set(path, sumExpr);
                 }
-                case DIVIDE -> {
-                    if (pair.data() instanceof Number number) {
-                        Object quotExpr = cb.quot(Filter.getTypedExpression(path, Number.class), number);
-                        update.set(path, quotExpr);
-                    }
+            }
+            case MULTIPLY -> {
+                if (pair.data() instanceof Number number) {
+                    Object prodExpr = cb.prod(Filter.getTypedExpression(path, Number.class), number);
+                    update.set(path, prodExpr);
+                } else if (pair.data() instanceof Expression<?> operand) {
+                    Object prodExpr = cb.prod(Filter.getTypedExpression(path, Number.class), (Expression<Number>) operand);
+                    update.set(path, prodExpr);
                 }
-                case ADD_DAYS -> {
-                    if (pair.data() instanceof Integer days) {
-                        if (path.getJavaType() == LocalDate.class) {
-                            Object dateAddExpr = cb.function(
-                                    "DATE_ADD",
-                                    LocalDate.class,
-                                    path,
-                                    cb.literal(days)
-                            );
-                            update.set(path, dateAddExpr);
-                        } else if (path.getJavaType() == LocalDateTime.class) {
-                            Object dateTimeAddExpr = cb.function(
-                                    "DATE_ADD",
-                                    LocalDateTime.class,
-                                    path,
-                                    cb.literal(days)
-                            );
-                            update.set(path, dateTimeAddExpr);
-                        }
-                    }
+            }
+            case DIVIDE -> {
+                if (pair.data() instanceof Number number) {
+                    Object quotExpr = cb.quot(Filter.getTypedExpression(path, Number.class), number);
+                    update.set(path, quotExpr);
+                } else if (pair.data() instanceof Expression<?> operand) {
+                    Object quotExpr = cb.quot(Filter.getTypedExpression(path, Number.class), (Expression<Number>) operand);
+                    update.set(path, quotExpr);
                 }
-                case TRUNCATE_TIME -> {
-                    if (path.getJavaType() == LocalDateTime.class) {
-                        Object truncExpr = cb.function(
-                                "TRUNC",
+            }
+            case ADD_DAYS -> {
+                if (pair.data() instanceof Integer days) {
+                    if (path.getJavaType() == LocalDate.class) {
+                        Object dateAddExpr = cb.function(
+                                "DATE_ADD",
                                 LocalDate.class,
-                                path
+                                path,
+                                bind(cb, days)
                         );
-                        update.set(path, truncExpr);
-                    }
-                }
-                case CONCAT -> {
-                    if (pair.data() instanceof String value) {
-                        Object concatExpr = cb.concat(path.as(String.class), value);
-                        update.set(path, concatExpr);
+                        update.set(path, dateAddExpr);
+                    } else if (path.getJavaType() == LocalDateTime.class) {
+                        Object dateTimeAddExpr = cb.function(
+                                "DATE_ADD",
+                                LocalDateTime.class,
+                                path,
+                                bind(cb, days)
+                        );
+                        update.set(path, dateTimeAddExpr);
                     }
                 }
-                case UPPER_CASE -> {
-                    Object upperExpr = cb.upper(path.as(String.class));
-                    update.set(path, upperExpr);
+            }
+            case TRUNCATE_TIME -> {
+                if (path.getJavaType() == LocalDateTime.class) {
+                    Object truncExpr = cb.function(
+                            "TRUNC",
+                            LocalDate.class,
+                            path
+                    );
+                    update.set(path, truncExpr);
                 }
-                case LOWER_CASE -> {
-                    Object lowerExpr = cb.lower(path.as(String.class));
-                    update.set(path, lowerExpr);
+            }
+            case CONCAT -> {
+                if (pair.data() instanceof String value) {
+                    Object concatExpr = cb.concat(path.as(String.class), value);
+                    update.set(path, concatExpr);
+                } else if (pair.data() instanceof Expression<?> operand) {
+                    Object concatExpr = cb.concat(path.as(String.class), (Expression<String>) operand);
+                    update.set(path, concatExpr);
                 }
-                case COPY -> {
-                    if (pair.data() instanceof String sourceField) {
-                        Object sourcePath = root.get(sourceField);
-                        update.set(path, sourcePath);
-                    }
+            }
+            case UPPER_CASE -> {
+                Object upperExpr = cb.upper(path.as(String.class));
+                update.set(path, upperExpr);
+            }
+            case LOWER_CASE -> {
+                Object lowerExpr = cb.lower(path.as(String.class));
+                update.set(path, lowerExpr);
+            }
+            case COPY -> {
+                if (pair.data() instanceof String sourceField) {
+                    Object sourcePath = root.get(sourceField);
+                    update.set(path, sourcePath);
                 }
             }
         }
-        update.where(filter.toPredicate(root, cb));
-        return persistenceContext.createQuery(update).executeUpdate();
     }
 
     @Override
@@ -625,7 +1651,11 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
                 filter.setEntityType(entityType);
                 update.where(filter.toPredicate(root, cb));
             }
-            return transactionTemplate.execute(status -> persistenceContext.createQuery(update).executeUpdate());
+            return transactionTemplate.execute(status -> {
+                int updated = persistenceContext.createQuery(update).executeUpdate();
+                invalidateCache();
+                return updated;
+            });
         } catch (Exception e) {
             throw new EntityProcessingException(
                     "Неожиданная ошибка мягкого удаления сущности по фильтру: " + filter,
@@ -636,18 +1666,142 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         }
     }
 
+    @Override
+    public long deleteByFilterChunked(@NonNull Filter<T> filter, int chunkSize, @NonNull Duration pause)
+            throws EntityProcessingException {
+        return deleteByFilterChunked(filter, ChunkOptions.of(chunkSize, pause));
+    }
+
+    @Override
+    public long deleteByFilterChunked(@NonNull Filter<T> filter, @NonNull ChunkOptions options)
+            throws EntityProcessingException {
+        return executeChunked(filter, options, EntityOperation.DELETE, ids -> persistenceContext
+                .createQuery(idQueries.deleteByIds())
+                .setParameter(JpaIdQueries.IDS_PARAM, ids)
+                .executeUpdate());
+    }
+
+    @Override
+    public long softDeleteByFilterChunked(@NonNull Filter<T> filter, int chunkSize, @NonNull Duration pause)
+            throws SoftDeleteUnsupportedException, EntityProcessingException {
+        return softDeleteByFilterChunked(filter, ChunkOptions.of(chunkSize, pause));
+    }
+
+    @Override
+    public long softDeleteByFilterChunked(@NonNull Filter<T> filter, @NonNull ChunkOptions options)
+            throws SoftDeleteUnsupportedException, EntityProcessingException {
+        checkSoftDeleteAvailability();
+        Object flag = SOFT_DELETE_FLAG_MAPPING.get(softDeleteField.getType()).get();
+        return executeChunked(getSoftDeleteSupportedFilter(filter), options, EntityOperation.UPDATE, ids -> persistenceContext
+                .createQuery(idQueries.updateFlagByIds())
+                .setParameter(JpaIdQueries.FLAG_PARAM, flag)
+                .setParameter(JpaIdQueries.IDS_PARAM, ids)
+                .executeUpdate());
+    }
+
+    /**
+     * Выполняет операцию частями по возрастанию идентификатора: часть выбирает следующие
+     * идентификаторы по фильтру после последнего обработанного, поэтому строки,
+     * которые операция не изменила, не выбираются повторно
+     */
+    private long executeChunked(Filter<T> filter,
+                                ChunkOptions options,
+                                EntityOperation operation,
+                                ToIntFunction<List<ID>> chunkOperation) {
+        int chunkSize = options.getChunkSize();
+        if (chunkSize <= 0) {
+            throw new InvalidParameterException("Размер части должен быть положительным: " + chunkSize);
+        }
+        filter.setEntityType(entityType);
+        long totalAffected = 0;
+        int chunk = 0;
+        ID lastId = null;
+        while (!options.getCancelled().getAsBoolean()) {
+            ID after = lastId;
+            List<ID> ids;
+            int affected;
+            try {
+                Map.Entry<List<ID>, Integer> result = chunkTransactionTemplate.execute(status -> {
+                    List<ID> chunkIds = selectChunkIds(filter, after, chunkSize);
+                    if (chunkIds.isEmpty()) {
+                        return Map.entry(chunkIds, 0);
+                    }
+                    int chunkAffected = chunkOperation.applyAsInt(chunkIds);
+                    chunkIds.forEach(this::invalidateCached);
+                    return Map.entry(chunkIds, chunkAffected);
+                });
+                ids = result.getKey();
+                affected = result.getValue();
+            } catch (Exception e) {
+                throw new EntityProcessingException(String.format(
+                        "Ошибка обработки части %d по фильтру: %s, зафиксировано строк: %d", chunk + 1, filter, totalAffected),
+                        e, entityType, operation);
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            totalAffected += affected;
+            lastId = ids.get(ids.size() - 1);
+            options.getProgressListener().accept(new ChunkProgress(++chunk, affected, totalAffected));
+            log.debug("Часть {} операции {} сущностей {}: {} строк, всего {}",
+                    chunk, operation, getEntityTypeName(), affected, totalAffected);
+            if (ids.size() < chunkSize || !pause(options.getPause())) {
+                break;
+            }
+        }
+        return totalAffected;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<ID> selectChunkIds(Filter<T> filter, ID after, int chunkSize) {
+        CriteriaBuilder cb = persistenceContext.getCriteriaBuilder();
+        CriteriaQuery<ID> cq = cb.createQuery((Class<ID>) idField.getType());
+        Root<T> root = cq.from(entityType);
+        Path<Comparable> id = root.get(idField.getName());
+        Predicate predicate = filter.toPredicate(root, cq, cb);
+        if (after != null) {
+            predicate = cb.and(predicate, cb.greaterThan(id, (Comparable) after));
+        }
+        cq.select((Path) id).where(predicate).orderBy(cb.asc(id));
+        return persistenceContext.createQuery(cq)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
+    /**
+     * @return false если поток выполнения прерван во время паузы
+     */
+    private static boolean pause(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @SneakyThrows
     @Override
     public void restoreById(@NonNull ID id) throws ResourceNotFoundException, SoftDeleteUnsupportedException, EntityProcessingException {
         checkSoftDeleteAvailability();
         Object updateValue = RESTORE_FLAG_MAPPING.get(softDeleteField.getType()).get();
-        int updatedCount = updateByFilter(
-                updateValue(softDeleteField.getName(), updateValue),
-                equal(idField.getName(), id)
-        );
-        if (updatedCount != 1) {
-            throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (updateFlagById(id, updateValue) != 1) {
+                throw new ResourceNotFoundException(getResourceNotFoundMessage(id));
+            }
+            invalidateCached(id);
+        });
+    }
+
+    private int updateFlagById(ID id, Object flag) {
+        return persistenceContext.createQuery(idQueries.updateFlagById())
+                .setParameter(JpaIdQueries.FLAG_PARAM, flag)
+                .setParameter(JpaIdQueries.ID_PARAM, id)
+                .executeUpdate();
     }
 
     @Override
@@ -668,8 +1822,10 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
                 filter.setEntityType(entityType);
                 update.where(filter.toPredicate(root, cb));
             }
-            transactionTemplate.executeWithoutResult(status ->
-                    persistenceContext.createQuery(update).executeUpdate());
+            transactionTemplate.executeWithoutResult(status -> {
+                persistenceContext.createQuery(update).executeUpdate();
+                invalidateCache();
+            });
         } catch (Exception e) {
             throw new EntityProcessingException(
                     "Неожиданная ошибка восстановления по фильтру: " + filter,
@@ -685,6 +1841,257 @@ public class JpaCrudService<T, ID> implements CrudService<T, ID> {
         return repository.getReferenceById(id);
     }
 
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Выполняет чтение. Вне транзакции чтение выполняется в read-only транзакции,
+     * которая может быть направлена на реплику, см. {@link RoutingContext}, внутри {@link ReadContext#managed(Supplier)}
+     * и внутри транзакции вызывающего кода - без изменения режима, см. {@link ReadContext}
+     */
+    protected <R> R read(Supplier<R> query) {
+        if (ReadContext.isManaged() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        //Spring помечает сессию read-only только для собственного EntityManager транзакции,
+        //сессия open-in-view не помечается: она общая с последующими пишущими транзакциями,
+        //и изменения оставшихся в ней read-only сущностей не были бы сохранены
+        return readOnlyTransactionTemplate.execute(status -> query.get());
+    }
+
+    public Optional<EntityCache<ID, T>> getEntityCache() {
+        return Optional.ofNullable(entityCache);
+    }
+
+    /**
+     * Заменяет кэш сущностей, заданный аннотацией {@link ru.korovin.packages.fasterjpa.annotations.CachedEntity},
+     * null отключает кэширование
+     */
+    public void setEntityCache(EntityCache<ID, T> entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Кэш используется вне транзакции и в read-only транзакции. В пишущей транзакции
+     * сущность должна быть управляемой, поэтому запрос выполняется к БД,
+     * а загруженная сущность не попадает в кэш, так как может содержать незафиксированные изменения
+     */
+    protected boolean isCacheReadable() {
+        return entityCache != null
+                && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * Чтение через кэш. Вызывающий код получает копию кэшированной сущности, а в кэш
+     * помещается копия загруженной, поэтому изменения полученных сущностей не попадают в кэш.
+     * Сущность, загруженная параллельно с инвалидацией, в кэш не помещается.
+     */
+    private Optional<T> findCached(ID id, Supplier<Optional<T>> loader) {
+        if (!isCacheReadable()) {
+            return loader.get();
+        }
+        EntityCache<ID, T> cache = entityCache;
+        Optional<T> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.map(this::copyEntity);
+        }
+        long token = cache.loadToken();
+        Optional<T> loaded = loader.get();
+        loaded.filter(entity -> !isSoftDeleted(entity))
+                .ifPresent(entity -> cache.putIfNotInvalidated(id, copyEntity(entity), token));
+        return loaded;
+    }
+
+    /**
+     * Поверхностная копия сущности: значения атрибутов разделяются, кроме инициализированных
+     * коллекций, которые заменяются собственными копиями. Связанные сущности не копируются.
+     */
+    @SuppressWarnings("unchecked")
+    @SneakyThrows
+    private T copyEntity(T entity) {
+        EntityPersister persister = getEntityPersister();
+        Object[] values = persister.getValues(entity);
+        for (int i = 0; i < values.length; i++) {
+            if (Hibernate.isInitialized(values[i])) {
+                values[i] = switch (values[i]) {
+                    case SortedSet<?> set -> new TreeSet<>(set);
+                    case Set<?> set -> new LinkedHashSet<>(set);
+                    case Collection<?> collection -> new ArrayList<>(collection);
+                    case SortedMap<?, ?> map -> new TreeMap<>(map);
+                    case Map<?, ?> map -> new LinkedHashMap<>(map);
+                    case null, default -> values[i];
+                };
+            }
+        }
+        Constructor<T> constructor = entityType.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        T copy = constructor.newInstance();
+        idField.set(copy, idField.get(entity));
+        persister.setValues(copy, values);
+        return copy;
+    }
+
+    /**
+     * Удаляет сущность из кэша сразу и повторно после завершения текущей транзакции,
+     * чтобы параллельное чтение до фиксации изменений не оставило в кэше устаревшую сущность
+     */
+    protected void invalidateCached(ID id) {
+        EntityCache<ID, T> cache = entityCache;
+        if (cache != null) {
+            cache.invalidate(id);
+            afterTransactionCompletion(() -> cache.invalidate(id));
+        }
+    }
+
+    /**
+     * Очищает кэш целиком, используется операциями по фильтру,
+     * для которых неизвестны идентификаторы изменённых сущностей
+     */
+    protected void invalidateCache() {
+        EntityCache<ID, T> cache = entityCache;
+        if (cache != null) {
+            cache.invalidateAll();
+            afterTransactionCompletion(cache::invalidateAll);
+        }
+    }
+
+    private static void afterTransactionCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    @SneakyThrows
+    private boolean isSoftDeleted(T entity) {
+        if (!isSoftDeleteSupported) {
+            return false;
+        }
+        Object flag = softDeleteField.get(entity);
+        return flag instanceof Boolean deleted ? deleted : flag != null;
+    }
+
+    public OffsetPolicy getOffsetPolicy() {
+        return offsetPolicy;
+    }
+
+    public void setOffsetPolicy(@NonNull OffsetPolicy offsetPolicy) {
+        this.offsetPolicy = offsetPolicy;
+    }
+
+    public int getMultiGetBatchSize() {
+        return multiGetBatchSize;
+    }
+
+    /**
+     * Максимальное количество идентификаторов в одном IN запросе при запросе сущностей по набору идентификаторов
+     */
+    public void setMultiGetBatchSize(int multiGetBatchSize) {
+        if (multiGetBatchSize <= 0) {
+            throw new IllegalArgumentException("Размер порции идентификаторов должен быть больше нуля");
+        }
+        this.multiGetBatchSize = multiGetBatchSize;
+    }
+
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    /**
+     * Размер порции строк, читаемых драйвером JDBC за одно обращение к БД при потоковом чтении
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("Размер порции потокового чтения должен быть больше нуля");
+        }
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public int getStreamClearInterval() {
+        return streamClearInterval;
+    }
+
+    /**
+     * Количество строк потока, после которого контекст персистентности очищается,
+     * значение меньше или равное нулю отключает очистку
+     */
+    public void setStreamClearInterval(int streamClearInterval) {
+        this.streamClearInterval = streamClearInterval;
+    }
+
+    public int getCreateChunkSize() {
+        return createChunkSize;
+    }
+
+    /**
+     * Количество моделей {@link #createAll(List)}, отправляемых одним пакетом JDBC
+     * и отсоединяемых от контекста персистентности после сброса
+     */
+    public void setCreateChunkSize(int createChunkSize) {
+        if (createChunkSize <= 0) {
+            throw new IllegalArgumentException("Размер порции сохранения должен быть больше нуля");
+        }
+        this.createChunkSize = createChunkSize;
+    }
+
+    /**
+     * Включает групповую фиксацию {@link #create(Object)}, {@link #deleteById(Object)}
+     * и {@link #softDeleteById(Object)}, вызванных вне транзакции: операции параллельных вызовов
+     * собираются в группу до maxOperations операций или maxWait с первой операции и выполняются
+     * одной транзакцией, ошибка операции не отменяет остальные операции группы.
+     * Оправдано при большом числе параллельных одиночных записей, когда узким местом
+     * являются фиксация транзакций и получение соединений, при редких записях увеличивает задержку на maxWait
+     */
+    public synchronized void enableGroupCommit(int maxOperations, @NonNull Duration maxWait) {
+        disableGroupCommit();
+        groupCommitter = new JpaGroupCommitter(persistenceContext, transactionTemplate, metrics, maxOperations, maxWait);
+    }
+
+    /**
+     * Выключает групповую фиксацию после выполнения уже собранных операций
+     */
+    public synchronized void disableGroupCommit() {
+        JpaGroupCommitter committer = groupCommitter;
+        groupCommitter = null;
+        if (committer != null) {
+            committer.shutdown();
+        }
+    }
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommitter != null;
+    }
+
+    /**
+     * Останавливает поток групповой фиксации при закрытии контекста приложения
+     */
+    @Override
+    public void destroy() {
+        disableGroupCommit();
+    }
+
+    public boolean isParallelValidation() {
+        return parallelValidation;
+    }
+
+    /**
+     * Проверять модели {@link #createAll(List)} параллельно в общем пуле {@link java.util.concurrent.ForkJoinPool},
+     * оправдано для больших списков с дорогими ограничениями валидации
+     */
+    public void setParallelValidation(boolean parallelValidation) {
+        this.parallelValidation = parallelValidation;
+    }
+
     private void defineSoftDeleteSupport() {
         if (this.entityType == null) {
             return;
@@ -0,0 +1,265 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.Hibernate;
+import org.hibernate.boot.beanvalidation.BeanValidationEventListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.internal.PostUpdateEventListenerStandardImpl;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.jpa.event.spi.CallbackRegistry;
+import org.hibernate.jpa.event.spi.CallbackType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.ListType;
+import org.hibernate.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Различия полной модели сущности и её состояния, загруженного в контекст персистентности.
+ * Значения сравниваются типами Hibernate, связи - по идентификаторам, коллекции - по элементам,
+ * поэтому другой экземпляр с теми же значениями не считается изменением.
+ * Версия и свойства с {@code updatable = false} не сравниваются, незагруженная коллекция модели
+ * (например, отсоединённой сущности) изменением не считается.
+ * <pre>
+ *     {@code
+ *     JpaEntityDiff diff = JpaEntityDiff.of(entityManager, User.class, loaded, model);
+ *     diff.getBasicChanges();   // {firstName=Ivan} - изменения столбцов самой сущности
+ *     diff.hasOtherChanges();   // изменены связи, коллекции или встраиваемые объекты
+ *     }
+ * </pre>
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+final class JpaEntityDiff {
+    private final EntityPersister persister;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Map<String, Object> basicChanges = new LinkedHashMap<>();
+    private final List<Integer> changedProperties = new ArrayList<>();
+    private boolean hasOtherChanges;
+    private boolean entityUpdateRequired;
+
+    private JpaEntityDiff(EntityPersister persister, PersistenceUnitUtil persistenceUnitUtil) {
+        this.persister = persister;
+        this.persistenceUnitUtil = persistenceUnitUtil;
+    }
+
+    static JpaEntityDiff of(EntityManager entityManager, Class<?> entityType, Object loaded, Object model) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        JpaEntityDiff diff = new JpaEntityDiff(sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType),
+                entityManager.getEntityManagerFactory().getPersistenceUnitUtil());
+        String[] names = diff.persister.getPropertyNames();
+        Type[] types = diff.persister.getPropertyTypes();
+        boolean[] updatable = diff.persister.getPropertyUpdateability();
+        diff.entityUpdateRequired = isEntityUpdateRequired(sessionFactory, diff.persister, entityType);
+        for (int i = 0; i < names.length; i++) {
+            Type type = types[i];
+            //коллекции не являются столбцами сущности и всегда отмечены необновляемыми
+            if (!updatable[i] && !type.isCollectionType()
+                    || diff.persister.isVersioned() && i == diff.persister.getVersionProperty()) {
+                continue;
+            }
+            Object loadedValue = diff.persister.getValue(loaded, i);
+            Object modelValue = diff.persister.getValue(model, i);
+            if (!Hibernate.isInitialized(modelValue)) {
+                continue;
+            }
+            boolean changed;
+            if (type instanceof CollectionType collectionType) {
+                changed = !diff.sameElements(collectionType, sessionFactory, loadedValue, modelValue);
+            } else if (type.isEntityType()) {
+                changed = !Objects.equals(diff.toKey(loadedValue), diff.toKey(modelValue));
+            } else {
+                changed = !type.isEqual(loadedValue, modelValue);
+            }
+            if (!changed) {
+                continue;
+            }
+            diff.changedProperties.add(i);
+            if (type.isCollectionType() || type.isEntityType() || type.isComponentType()) {
+                diff.hasOtherChanges = true;
+            } else {
+                diff.basicChanges.put(names[i], modelValue);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Отличающиеся от null значения обновляемых свойств и версии модели по имени свойства.
+     * Пустые коллекции не считаются значением
+     *
+     * @throws IllegalArgumentException если модель содержит непустую коллекцию,
+     *                                  коллекции не могут быть записаны запросом UPDATE
+     */
+    static Map<String, Object> nonNullProperties(EntityManager entityManager, Class<?> entityType, Object model) {
+        EntityPersister persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityType);
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        boolean[] updatable = persister.getPropertyUpdateability();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            Object value = persister.getValue(model, i);
+            if (value == null || !updatable[i] && !(persister.isVersioned() && i == persister.getVersionProperty())) {
+                continue;
+            }
+            if (types[i].isCollectionType()) {
+                if (value instanceof Collection<?> collection && !collection.isEmpty()
+                        || value instanceof Map<?, ?> map && !map.isEmpty()) {
+                    throw new IllegalArgumentException(String.format(
+                            "Коллекция '%s' не может быть обновлена запросом UPDATE", names[i]));
+                }
+                continue;
+            }
+            properties.put(names[i], value);
+        }
+        return properties;
+    }
+
+    /**
+     * Изменённые значения базовых свойств по имени свойства, могут быть записаны CriteriaUpdate
+     */
+    Map<String, Object> getBasicChanges() {
+        return basicChanges;
+    }
+
+    /**
+     * Изменены связи, коллекции или встраиваемые объекты, требующие синхронизации через контекст персистентности
+     */
+    boolean hasOtherChanges() {
+        return hasOtherChanges;
+    }
+
+    /**
+     * Обновление сущности должно выполняться через контекст персистентности: при обновлении генерируются
+     * значения свойств ({@link org.hibernate.annotations.UpdateTimestamp}), вызываются JPA обработчики
+     * {@link jakarta.persistence.PreUpdate}/{@link jakarta.persistence.PostUpdate}, в том числе слушатели
+     * {@link jakarta.persistence.EntityListeners} (аудит Spring Data), либо зарегистрированы слушатели
+     * событий обновления Hibernate (например, Envers). Запрос UPDATE их не вызывает
+     */
+    boolean isEntityUpdateRequired() {
+        return entityUpdateRequired;
+    }
+
+    int size() {
+        return changedProperties.size();
+    }
+
+    /**
+     * Имя свойства {@link jakarta.persistence.Version}, null если сущность не версионируется
+     */
+    String getVersionName() {
+        return persister.isVersioned() ? persister.getPropertyNames()[persister.getVersionProperty()] : null;
+    }
+
+    Object getVersion(Object entity) {
+        return persister.isVersioned() ? persister.getValue(entity, persister.getVersionProperty()) : null;
+    }
+
+    void setVersion(Object entity, Object version) {
+        persister.setValue(entity, persister.getVersionProperty(), version);
+    }
+
+    /**
+     * Переносит изменённые значения модели в загруженную сущность. Содержимое загруженных коллекций
+     * заменяется, а не сама коллекция, чтобы Hibernate не потерял коллекции с orphanRemoval
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void applyTo(Object loaded, Object model) {
+        for (int i : changedProperties) {
+            Object loadedValue = persister.getValue(loaded, i);
+            Object modelValue = persister.getValue(model, i);
+            if (loadedValue instanceof Collection collection) {
+                collection.clear();
+                if (modelValue != null) {
+                    collection.addAll((Collection) modelValue);
+                }
+            } else if (loadedValue instanceof Map map) {
+                map.clear();
+                if (modelValue != null) {
+                    map.putAll((Map) modelValue);
+                }
+            } else {
+                persister.setValue(loaded, i, modelValue);
+            }
+        }
+    }
+
+    private static boolean isEntityUpdateRequired(SessionFactoryImplementor sessionFactory,
+                                                  EntityPersister persister,
+                                                  Class<?> entityType) {
+        if (persister.getEntityMetamodel().hasPreUpdateGeneratedValues()
+                || persister.getEntityMetamodel().hasUpdateGeneratedValues()) {
+            return true;
+        }
+        CallbackRegistry callbacks = sessionFactory.getEventEngine().getCallbackRegistry();
+        if (callbacks.hasRegisteredCallbacks(entityType, CallbackType.PRE_UPDATE)
+                || callbacks.hasRegisteredCallbacks(entityType, CallbackType.POST_UPDATE)) {
+            return true;
+        }
+        //стандартные слушатели: валидация выполняется сервисом до обновления, JPA обработчики проверены выше,
+        //группа слушателей перебирается без события, действие только проверяет тип слушателя
+        EventListenerRegistry listeners = sessionFactory.getEventEngine().getListenerRegistry();
+        AtomicBoolean customListener = new AtomicBoolean();
+        for (EventType<?> eventType : List.of(EventType.PRE_UPDATE, EventType.POST_UPDATE, EventType.POST_COMMIT_UPDATE)) {
+            listeners.getEventListenerGroup(eventType).fireEventOnEachListener(customListener, (listener, found) -> {
+                if (!(listener instanceof BeanValidationEventListener)
+                        && !(listener instanceof PostUpdateEventListenerStandardImpl)) {
+                    found.set(true);
+                }
+            });
+        }
+        return customListener.get();
+    }
+
+    private boolean sameElements(CollectionType type, SessionFactoryImplementor sessionFactory,
+                                 Object loadedValue, Object modelValue) {
+        if (loadedValue instanceof Map<?, ?> || modelValue instanceof Map<?, ?>) {
+            return toMap(loadedValue).equals(toMap(modelValue));
+        }
+        boolean entityElements = type.getElementType(sessionFactory).isEntityType();
+        List<Object> loadedElements = toKeys(loadedValue, entityElements);
+        List<Object> modelElements = toKeys(modelValue, entityElements);
+        if (type instanceof ListType) {
+            return loadedElements.equals(modelElements);
+        }
+        return toCounts(loadedElements).equals(toCounts(modelElements));
+    }
+
+    private List<Object> toKeys(Object value, boolean entityElements) {
+        List<Object> keys = new ArrayList<>();
+        if (value instanceof Collection<?> collection) {
+            collection.forEach(element -> keys.add(entityElements ? toKey(element) : element));
+        }
+        return keys;
+    }
+
+    private Object toKey(Object entity) {
+        return entity == null ? null : persistenceUnitUtil.getIdentifier(entity);
+    }
+
+    private static Map<?, ?> toMap(Object value) {
+        return value instanceof Map<?, ?> map ? new HashMap<>(map) : Map.of();
+    }
+
+    private static Map<Object, Integer> toCounts(List<Object> elements) {
+        Map<Object, Integer> counts = new HashMap<>();
+        elements.forEach(element -> counts.merge(element, 1, Integer::sum));
+        return counts;
+    }
+}
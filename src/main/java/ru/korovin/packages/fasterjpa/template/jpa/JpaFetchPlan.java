@@ -0,0 +1,146 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import lombok.NonNull;
+import ru.korovin.packages.fasterjpa.service.FetchStrategy;
+import ru.korovin.packages.fasterjpa.service.Joins;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * План загрузки связей {@link Joins} сущности: связи, присоединяемые к основному запросу,
+ * и связи, загружаемые отдельными запросами после него. Стратегия {@link FetchStrategy#AUTO}
+ * присоединяет to-one связи и первую коллекцию, остальные коллекции загружаются
+ * запросами {@link FetchStrategy#BATCH}, поэтому основной запрос не размножает строки
+ * декартовым произведением коллекций. Явная стратегия {@link FetchStrategy#JOIN} для нескольких коллекций
+ * допускается, только если ни одна из них не является списком без уникальности элементов,
+ * иначе элементы списка повторялись бы для каждого элемента другой коллекции.
+ * <pre>
+ *     {@code
+ *     select e from User e left join fetch e.roles f0 where e.id in :ids
+ *     }
+ * </pre>
+ *
+ * @param joinPaths      пути, присоединяемые к основному запросу через LEFT JOIN FETCH
+ * @param batchQueries   JPQL запрос по пути связи, выбирающий сущности по параметру {@link #IDS_PARAM}
+ * @param subselectPaths пути, загружаемые запросом с условиями основного запроса
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+record JpaFetchPlan(List<String> joinPaths,
+                    Map<String, String> batchQueries,
+                    List<String> subselectPaths) {
+    static final String IDS_PARAM = "ids";
+
+    static JpaFetchPlan of(@NonNull EntityType<?> entity, @NonNull String idName, @NonNull Joins joins) {
+        List<String> joinPaths = new ArrayList<>();
+        Map<String, String> batchQueries = new LinkedHashMap<>();
+        List<String> subselectPaths = new ArrayList<>();
+        String joinedCollection = null;
+        boolean bagJoined = false;
+        for (String path : joins.properties()) {
+            PluralAttribute.CollectionType collectionType = getCollectionType(entity, path);
+            boolean isCollection = collectionType != null;
+            boolean isBag = isBag(collectionType);
+            FetchStrategy strategy = joins.strategy(path);
+            if (strategy == FetchStrategy.AUTO) {
+                strategy = isCollection && joinedCollection != null ? FetchStrategy.BATCH : FetchStrategy.JOIN;
+            }
+            switch (strategy) {
+                case JOIN -> {
+                    if (isCollection && joinedCollection != null && (isBag || bagJoined)) {
+                        throw new IllegalArgumentException(String.format(
+                                "Коллекции '%s' и '%s' не могут быть загружены одним запросом JOIN, " +
+                                        "элементы списка повторялись бы, используйте BATCH или SUBSELECT",
+                                joinedCollection, path));
+                    }
+                    joinPaths.add(path);
+                    if (isCollection && joinedCollection == null) {
+                        joinedCollection = path;
+                    }
+                    bagJoined |= isBag;
+                }
+                case BATCH -> batchQueries.put(path, toBatchQuery(entity.getName(), idName, path));
+                case SUBSELECT -> subselectPaths.add(path);
+                default -> throw new IllegalStateException("Неизвестная стратегия загрузки " + strategy);
+            }
+        }
+        return new JpaFetchPlan(List.copyOf(joinPaths), Collections.unmodifiableMap(new LinkedHashMap<>(batchQueries)),
+                List.copyOf(subselectPaths));
+    }
+
+    boolean hasFollowUpQueries() {
+        return !batchQueries.isEmpty() || !subselectPaths.isEmpty();
+    }
+
+    static void fetch(FetchParent<?, ?> root, String path) {
+        FetchParent<?, ?> currentParent = root;
+        for (String attribute : path.split("\\.")) {
+            currentParent = currentParent.fetch(attribute, JoinType.LEFT);
+        }
+    }
+
+    private static String toBatchQuery(String entityName, String idName, String path) {
+        StringBuilder query = new StringBuilder("select e from ").append(entityName).append(" e");
+        String parent = "e";
+        String[] attributes = path.split("\\.");
+        for (int i = 0; i < attributes.length; i++) {
+            query.append(" left join fetch ").append(parent).append('.').append(attributes[i]).append(" f").append(i);
+            parent = "f" + i;
+        }
+        return query.append(" where e.").append(idName).append(" in :").append(IDS_PARAM).toString();
+    }
+
+    /**
+     * Тип коллекции на пути связи, null для пути по to-one связям.
+     * Если путь проходит через несколько коллекций, предпочитается список без уникальности элементов
+     */
+    private static PluralAttribute.CollectionType getCollectionType(EntityType<?> entity, String path) {
+        ManagedType<?> type = entity;
+        PluralAttribute.CollectionType collectionType = null;
+        String[] attributes = path.split("\\.");
+        for (int i = 0; i < attributes.length; i++) {
+            Attribute<?, ?> attribute = findAttribute(type, attributes[i]);
+            Type<?> target = attribute instanceof PluralAttribute<?, ?, ?> plural ? plural.getElementType()
+                    : attribute instanceof SingularAttribute<?, ?> singular ? singular.getType() : null;
+            boolean isLast = i == attributes.length - 1;
+            if (!attribute.isAssociation() && !attribute.isCollection()
+                    || !isLast && !(target instanceof ManagedType<?>)) {
+                throw new IllegalArgumentException(String.format(
+                        "Путь '%s' не соответствует связи сущности %s", path, entity.getName()));
+            }
+            if (attribute instanceof PluralAttribute<?, ?, ?> plural && !isBag(collectionType)) {
+                collectionType = plural.getCollectionType();
+            }
+            if (!isLast) {
+                type = (ManagedType<?>) target;
+            }
+        }
+        return collectionType;
+    }
+
+    private static boolean isBag(PluralAttribute.CollectionType collectionType) {
+        return collectionType == PluralAttribute.CollectionType.LIST
+                || collectionType == PluralAttribute.CollectionType.COLLECTION;
+    }
+
+    private static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+        return type.getAttributes().stream()
+                .filter(attribute -> attribute.getName().equals(name))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException(String.format(
+                        "Атрибут '%s' не найден в %s", name, type.getJavaType().getSimpleName())));
+    }
+}
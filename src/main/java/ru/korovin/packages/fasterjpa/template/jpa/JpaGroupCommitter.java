@@ -0,0 +1,249 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+import ru.korovin.packages.fasterjpa.routing.RoutingContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Групповая фиксация одиночных операций записи сервиса. Операции параллельных вызовов
+ * собираются в группу до maxOperations операций, либо пока с первой операции группы
+ * не прошло maxWait, и выполняются потоком фиксации в одной транзакции с одним сбросом
+ * контекста персистентности, поэтому вставки группы отправляются пакетом JDBC,
+ * а соединение и фиксация транзакции приходятся на группу, а не на операцию.
+ * <p>
+ * Исключение операции, не связанное с персистентностью, например {@link ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException},
+ * возвращается её вызывающему потоку, остальные операции группы продолжают выполняться в той же транзакции.
+ * Если ошибкой персистентности завершились операция, сброс или фиксация группы, транзакция группы откатывается
+ * и операции выполняются повторно, каждая в своей транзакции, поэтому ошибка одной операции
+ * не отменяет остальные. Hibernate помечает транзакцию только для отката при любой ошибке сброса,
+ * поэтому точки сохранения для этого не подходят. Каждый вызывающий поток получает
+ * результат или исключение своей операции, а после успешной фиксации - отметку записи
+ * {@link RoutingContext#markWrite()}, которую источник данных ставит потоку фиксации.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+final class JpaGroupCommitter {
+    private static final long[] GROUP_SIZE_BUCKETS = {1, 2, 5, 10, 50, 100, 500};
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final EntityManager persistenceContext;
+    private final TransactionTemplate transactionTemplate;
+    private final ServiceMetrics metrics;
+    private final int maxOperations;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingOperation<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    /**
+     * Операция группы, выполняемая в транзакции потока фиксации без собственной транзакции
+     */
+    interface GroupOperation<R> {
+        /**
+         * Исключение, не связанное с персистентностью, должно выбрасываться до изменения данных,
+         * так как транзакция группы фиксируется вместе с изменениями остальных операций
+         */
+        R execute();
+
+        /**
+         * Возвращает модель в состояние до выполнения, вызывается перед повторным выполнением
+         */
+        default void reset() {
+        }
+    }
+
+    private static final class PendingOperation<R> {
+        private final GroupOperation<R> operation;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+        private RuntimeException error;
+
+        private PendingOperation(GroupOperation<R> operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * @throws RuntimeException ошибка персистентности, после которой транзакция группы не может быть зафиксирована
+         */
+        private void execute(TransactionStatus status) {
+            try {
+                result = operation.execute();
+                error = null;
+            } catch (RuntimeException e) {
+                if (status.isRollbackOnly() || isPersistenceFailure(e)) {
+                    throw e;
+                }
+                result = null;
+                error = e;
+            }
+        }
+
+        private static boolean isPersistenceFailure(Throwable e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof PersistenceException || cause instanceof DataAccessException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    JpaGroupCommitter(EntityManager persistenceContext,
+                      TransactionTemplate transactionTemplate,
+                      ServiceMetrics metrics,
+                      int maxOperations,
+                      Duration maxWait) {
+        if (maxOperations <= 0) {
+            throw new IllegalArgumentException("Размер группы должен быть положительным: " + maxOperations);
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("Время сбора группы не может быть отрицательным: " + maxWait);
+        }
+        this.persistenceContext = persistenceContext;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.metrics = metrics;
+        this.maxOperations = maxOperations;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.committer = new Thread(this::run, "group-commit-" + metrics.getName());
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Добавляет операцию в группу и ожидает фиксации группы
+     *
+     * @throws IllegalStateException если групповая фиксация остановлена
+     */
+    <R> R submit(GroupOperation<R> operation) {
+        if (!running) {
+            throw new IllegalStateException("Групповая фиксация остановлена");
+        }
+        PendingOperation<R> pending = new PendingOperation<>(operation);
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Групповая фиксация остановлена");
+        }
+        try {
+            R result = pending.future.join();
+            RoutingContext.markWrite();
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Останавливает поток фиксации после выполнения уже добавленных операций
+     */
+    void shutdown() {
+        running = false;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                List<PendingOperation<?>> group = collectGroup();
+                if (!group.isEmpty()) {
+                    commit(group);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            PendingOperation<?> pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future.completeExceptionally(new IllegalStateException("Групповая фиксация остановлена"));
+            }
+        }
+    }
+
+    private List<PendingOperation<?>> collectGroup() throws InterruptedException {
+        List<PendingOperation<?>> group = new ArrayList<>();
+        PendingOperation<?> first = running ? queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS) : queue.poll();
+        if (first == null) {
+            return group;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (group.size() < maxOperations) {
+            long remaining = deadline - System.nanoTime();
+            PendingOperation<?> next = remaining > 0 && running
+                    ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                    : queue.poll();
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    private void commit(List<PendingOperation<?>> group) {
+        metrics.histogram(JpaCrudService.GROUP_COMMIT_SIZE_METRIC, GROUP_SIZE_BUCKETS).record(group.size());
+        try {
+            executeInTransaction(group);
+        } catch (RuntimeException e) {
+            log.debug("Группа из {} операций {} выполняется по одной: {}", group.size(), metrics.getName(), e.getMessage());
+            metrics.increment(JpaCrudService.GROUP_COMMIT_FALLBACK_METRIC);
+            for (PendingOperation<?> pending : group) {
+                pending.operation.reset();
+                try {
+                    executeInTransaction(List.of(pending));
+                } catch (RuntimeException operationError) {
+                    pending.error = operationError;
+                }
+            }
+        }
+        group.forEach(PendingOperation::complete);
+    }
+
+    private void executeInTransaction(List<PendingOperation<?>> operations) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = persistenceContext.unwrap(Session.class);
+            Integer jdbcBatchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(maxOperations);
+            try {
+                operations.forEach(pending -> pending.execute(status));
+                persistenceContext.flush();
+            } finally {
+                session.setJdbcBatchSize(jdbcBatchSize);
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.Entity;
+import lombok.NonNull;
+
+import java.lang.reflect.Field;
+
+/**
+ * Набор JPQL запросов сущности по идентификатору, подготавливаемый один раз
+ * в конструкторе {@link JpaCrudService}. Запросы по идентификатору не строятся
+ * через Criteria API на каждый вызов, а значения передаются параметрами
+ * {@link #ID_PARAM}, {@link #IDS_PARAM} и {@link #FLAG_PARAM}, поэтому Hibernate использует
+ * один закэшированный план запроса на строку JPQL.
+ * <pre>
+ *     {@code
+ *     select e from User e where e.id = :id and e.deletedAt is null
+ *     update User e set e.deletedAt = :flag where e.id = :id
+ *     }
+ * </pre>
+ *
+ * @param selectActiveById  выборка сущности, не помеченной мягким удалением,
+ *                          используется также для выборки с блокировкой
+ * @param existsActiveById  проверка существования сущности, не помеченной мягким удалением
+ * @param updateFlagById    изменение флага мягкого удаления, null если мягкое удаление не поддерживается
+ * @param deleteByIds       удаление сущностей по набору идентификаторов
+ * @param updateFlagByIds   пометка мягким удалением не удалённых сущностей по набору идентификаторов,
+ *                          null если мягкое удаление не поддерживается
+ * @param selectActiveIds   выборка идентификаторов не помеченных мягким удалением сущностей из набора
+ * @param selectActiveByIds выборка не помеченных мягким удалением сущностей по набору идентификаторов
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+record JpaIdQueries(String selectActiveById,
+                    String existsActiveById,
+                    String updateFlagById,
+                    String deleteByIds,
+                    String updateFlagByIds,
+                    String selectActiveIds,
+                    String selectActiveByIds) {
+    static final String ID_PARAM = "id";
+    static final String IDS_PARAM = "ids";
+    static final String FLAG_PARAM = "flag";
+
+    static JpaIdQueries of(@NonNull Class<?> entityType, @NonNull Field idField, Field softDeleteField) {
+        Entity entity = entityType.getAnnotation(Entity.class);
+        String entityName = entity == null || entity.name().isEmpty() ? entityType.getSimpleName() : entity.name();
+        String byId = " from " + entityName + " e where e." + idField.getName() + " = :" + ID_PARAM;
+        String byIds = " from " + entityName + " e where e." + idField.getName() + " in :" + IDS_PARAM;
+        String active = softDeleteField == null ? "" : " and e." + softDeleteField.getName()
+                + (softDeleteField.getType() == Boolean.class || softDeleteField.getType() == boolean.class
+                ? " = false" : " is null");
+        return new JpaIdQueries(
+                "select e" + byId + active,
+                "select e." + idField.getName() + byId + active,
+                softDeleteField == null ? null : "update " + entityName + " e set e." + softDeleteField.getName()
+                        + " = :" + FLAG_PARAM + " where e." + idField.getName() + " = :" + ID_PARAM,
+                "delete" + byIds,
+                softDeleteField == null ? null : "update " + entityName + " e set e." + softDeleteField.getName()
+                        + " = :" + FLAG_PARAM + " where e." + idField.getName() + " in :" + IDS_PARAM + active,
+                "select e." + idField.getName() + byIds + active,
+                "select e" + byIds + active
+        );
+    }
+}
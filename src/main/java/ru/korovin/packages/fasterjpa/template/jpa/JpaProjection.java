@@ -0,0 +1,279 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проекция сущности на DTO класс. Каждое свойство DTO сопоставляется
+ * с атрибутом сущности по имени, вложенные to-one атрибуты
+ * разрешаются по правилу camelCase, как в {@link ru.korovin.packages.fasterjpa.dto.DtoMapper}:
+ * <pre>
+ *     {@code
+ *     class Order {
+ *         @Id
+ *         private Long id;
+ *         @ManyToOne
+ *         private User user;
+ *     }
+ *
+ *     record OrderDto(Long id, Long userId, String userFirstName) {
+ *         // id -> id, userId -> user.id, userFirstName -> user.firstName
+ *     }
+ *     }
+ * </pre>
+ * В запрос попадают только колонки свойств DTO, вложенные атрибуты
+ * выбираются через LEFT JOIN. Результат не попадает в контекст персистентности.
+ * DTO класс должен быть record либо иметь конструктор без аргументов.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public class JpaProjection<D> {
+    private final Class<D> projectionType;
+    private final List<String> attributePaths;
+    private final Constructor<D> constructor;
+    private final List<Field> fields;
+
+    private JpaProjection(Class<D> projectionType,
+                          List<String> attributePaths,
+                          Constructor<D> constructor,
+                          List<Field> fields) {
+        this.projectionType = projectionType;
+        this.attributePaths = attributePaths;
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    @SneakyThrows
+    public static <D> JpaProjection<D> of(@NonNull ManagedType<?> entity,
+                                          @NonNull Class<D> projectionType) {
+        if (projectionType.isRecord()) {
+            RecordComponent[] components = projectionType.getRecordComponents();
+            List<String> paths = new ArrayList<>();
+            for (RecordComponent component : components) {
+                paths.add(resolveAttributePath(entity, projectionType, component.getName(), component.getType()));
+            }
+            Constructor<D> constructor = projectionType.getDeclaredConstructor(
+                    Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new));
+            constructor.setAccessible(true);
+            return new JpaProjection<>(projectionType, List.copyOf(paths), constructor, null);
+        }
+        List<Field> fields = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (Class<?> type = projectionType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(field);
+                paths.add(resolveAttributePath(entity, projectionType, field.getName(), field.getType()));
+            }
+        }
+        Constructor<D> constructor;
+        try {
+            constructor = projectionType.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Класс проекции " + projectionType.getName()
+                    + " должен быть record либо иметь конструктор без аргументов", e);
+        }
+        constructor.setAccessible(true);
+        return new JpaProjection<>(projectionType, List.copyOf(paths), constructor, List.copyOf(fields));
+    }
+
+    public Class<D> getProjectionType() {
+        return projectionType;
+    }
+
+    /**
+     * Пути атрибутов сущности в порядке свойств DTO, например {@code [id, user.firstName]}
+     */
+    public List<String> getAttributePaths() {
+        return attributePaths;
+    }
+
+    public List<Selection<?>> toSelections(@NonNull Root<?> root) {
+        return toSelections(root, attributePaths);
+    }
+
+    /**
+     * Преобразует пути атрибутов в выражения запроса, промежуточные
+     * to-one атрибуты присоединяются через LEFT JOIN один раз на путь.
+     */
+    public static List<Selection<?>> toSelections(@NonNull Root<?> root, @NonNull List<String> attributePaths) {
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attributePath : attributePaths) {
+            String[] attributes = attributePath.split("\\.");
+            From<?, ?> from = root;
+            for (int i = 0; i < attributes.length - 1; i++) {
+                From<?, ?> parent = from;
+                String attribute = attributes[i];
+                from = joins.computeIfAbsent(String.join(".", Arrays.copyOf(attributes, i + 1)),
+                        key -> parent.join(attribute, JoinType.LEFT));
+            }
+            Path<?> path = from.get(attributes[attributes.length - 1]);
+            selections.add(path);
+        }
+        return selections;
+    }
+
+    @SneakyThrows
+    public D map(@NonNull Tuple tuple) {
+        if (fields == null) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] args = new Object[parameterTypes.length];
+            for (int i = 0; i < args.length; i++) {
+                Object value = tuple.get(i);
+                args[i] = value == null && parameterTypes[i].isPrimitive()
+                        ? Array.get(Array.newInstance(parameterTypes[i], 1), 0)
+                        : value;
+            }
+            return constructor.newInstance(args);
+        }
+        D dto = constructor.newInstance();
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = tuple.get(i);
+            if (value != null) {
+                fields.get(i).set(dto, value);
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * Проверяет пути атрибутов, запрошенных клиентом, например {@code [id, user.email]}.
+     * Промежуточные атрибуты должны быть to-one связями, конечные - базовыми
+     * или встраиваемыми атрибутами.
+     *
+     * @throws IllegalArgumentException если список пуст или путь не соответствует атрибуту сущности
+     */
+    public static List<String> resolveFieldPaths(@NonNull ManagedType<?> entity, @NonNull List<String> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Не указаны поля выборки сущности " + entity.getJavaType().getSimpleName());
+        }
+        for (String field : fields) {
+            ManagedType<?> type = entity;
+            String[] attributes = field.split("\\.");
+            for (int i = 0; i < attributes.length; i++) {
+                Attribute<?, ?> attribute = findAttribute(type, attributes[i]);
+                boolean isLast = i == attributes.length - 1;
+                if (attribute == null
+                        || isLast && !isSelectable(attribute)
+                        || !isLast && !(attribute instanceof SingularAttribute<?, ?> singular
+                        && singular.isAssociation()
+                        && singular.getType() instanceof ManagedType<?>)) {
+                    throw new IllegalArgumentException(String.format(
+                            "Поле '%s' не соответствует атрибуту сущности %s",
+                            field, entity.getJavaType().getSimpleName()));
+                }
+                if (!isLast) {
+                    type = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Преобразует строку результата во вложенный Map,
+     * путь {@code user.email} становится {@code {user={email=...}}}
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toMap(@NonNull Tuple tuple, @NonNull List<String> attributePaths) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < attributePaths.size(); i++) {
+            String[] attributes = attributePaths.get(i).split("\\.");
+            Map<String, Object> current = row;
+            for (int j = 0; j < attributes.length - 1; j++) {
+                current = (Map<String, Object>) current.computeIfAbsent(attributes[j], key -> new LinkedHashMap<>());
+            }
+            current.put(attributes[attributes.length - 1], tuple.get(i));
+        }
+        return row;
+    }
+
+    private static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+        return type.getAttributes().stream()
+                .filter(attribute -> attribute.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String resolveAttributePath(ManagedType<?> entity,
+                                               Class<?> projectionType,
+                                               String property,
+                                               Class<?> propertyType) {
+        List<String> path = new ArrayList<>();
+        Attribute<?, ?> attribute = resolveAttribute(entity, property, path);
+        if (attribute == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Свойство '%s' проекции %s не соответствует ни одному атрибуту сущности %s",
+                    property, projectionType.getName(), entity.getJavaType().getName()));
+        }
+        if (!ClassUtils.resolvePrimitiveIfNecessary(propertyType)
+                .isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(attribute.getJavaType()))) {
+            throw new IllegalArgumentException(String.format(
+                    "Свойство '%s' проекции %s имеет тип %s, несовместимый с типом атрибута %s - %s",
+                    property, projectionType.getName(), propertyType.getSimpleName(),
+                    String.join(".", path), attribute.getJavaType().getSimpleName()));
+        }
+        return String.join(".", path);
+    }
+
+    private static Attribute<?, ?> resolveAttribute(ManagedType<?> type, String property, List<String> path) {
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (attribute.getName().equals(property) && isSelectable(attribute)) {
+                path.add(property);
+                return attribute;
+            }
+        }
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            String name = attribute.getName();
+            if (attribute instanceof SingularAttribute<?, ?> singular
+                    && singular.isAssociation()
+                    && singular.getType() instanceof ManagedType<?> target
+                    && property.length() > name.length()
+                    && property.startsWith(name)
+                    && Character.isUpperCase(property.charAt(name.length()))) {
+                String nestedProperty = Character.toLowerCase(property.charAt(name.length()))
+                        + property.substring(name.length() + 1);
+                path.add(name);
+                Attribute<?, ?> nested = resolveAttribute(target, nestedProperty, path);
+                if (nested != null) {
+                    return nested;
+                }
+                path.removeLast();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSelectable(Attribute<?, ?> attribute) {
+        return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+                || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED;
+    }
+}
@@ -0,0 +1,313 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Поток результатов запроса поверх серверного курсора Hibernate
+ * ({@link ScrollMode#FORWARD_ONLY}). Поток:
+ * <ul>
+ *     <li>присоединяется к транзакции вызывающего кода, либо открывает собственную
+ *     read-only транзакцию в отдельном контексте персистентности</li>
+ *     <li>читает строки порциями размера fetchSize</li>
+ *     <li>каждые clearInterval строк очищает собственный контекст персистентности,
+ *     в транзакции вызывающего кода отсоединяет только прочитанные сущности,
+ *     поэтому потребление памяти не растёт с количеством строк</li>
+ *     <li>закрывает курсор и завершает собственную транзакцию после чтения последней строки,
+ *     либо вызовом {@link Stream#close()}</li>
+ * </ul>
+ * Собственная транзакция принадлежит потоку, а не потоку выполнения: она не регистрируется
+ * в {@link TransactionSynchronizationManager}, поэтому незакрытый поток не оставляет транзакцию
+ * привязанной к потоку выполнения. Поток, ставший недостижимым без закрытия, считается утечкой:
+ * в лог пишется место его открытия, увеличивается счётчик {@link #STREAM_LEAK_METRIC},
+ * курсор собственной транзакции закрывается, транзакция откатывается, соединение возвращается в пул.
+ * Курсор транзакции вызывающего кода закрывается вместе с ней.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public final class JpaScrollStream {
+    public static final String STREAM_LEAK_METRIC = "stream.leaked";
+    public static final String STREAM_ROWS_METRIC = "stream.rows";
+    private static final Cleaner LEAK_DETECTOR = Cleaner.create();
+
+    private JpaScrollStream() {
+    }
+
+    /**
+     * Открытие потока в транзакции вызывающего кода, либо вне транзакции в собственной
+     * read-only транзакции, завершаемой закрытием потока
+     *
+     * @param queryFactory  создание запроса в сессии транзакции потока
+     * @param fetchSize     размер порции строк, читаемых драйвером JDBC за одно обращение к БД
+     * @param clearInterval количество строк между очистками контекста персистентности,
+     *                      значение меньше или равное нулю отключает очистку
+     */
+    public static <R> Stream<R> open(EntityManager persistenceContext,
+                                     Function<Session, SelectionQuery<R>> queryFactory,
+                                     int fetchSize,
+                                     int clearInterval,
+                                     ServiceMetrics metrics) {
+        Throwable allocationTrace = new Throwable("Место открытия потока");
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Session session = persistenceContext.unwrap(Session.class);
+            ScrollableResults<R> results = scroll(session, queryFactory, fetchSize);
+            return stream(new StreamState(null, results, metrics, allocationTrace), results, session, clearInterval);
+        }
+        EntityManager ownContext = persistenceContext.getEntityManagerFactory().createEntityManager();
+        ScrollableResults<R> results;
+        Session session;
+        try {
+            session = ownContext.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            results = scrollReadOnly(session, queryFactory, fetchSize);
+        } catch (RuntimeException e) {
+            release(ownContext, false);
+            throw e;
+        }
+        return stream(new StreamState(ownContext, results, metrics, allocationTrace), results, session, clearInterval);
+    }
+
+    /**
+     * Обработка потока в read-only транзакции, открытой на время вызова action,
+     * либо в транзакции вызывающего кода. Поток закрывается и транзакция завершается
+     * по выходу из action, в том числе при исключении.
+     *
+     * @see #open
+     */
+    public static <R, X> X withScroll(EntityManager persistenceContext,
+                                      PlatformTransactionManager transactionManager,
+                                      Function<Session, SelectionQuery<R>> queryFactory,
+                                      int fetchSize,
+                                      int clearInterval,
+                                      ServiceMetrics metrics,
+                                      Function<Stream<R>, X> action) {
+        TransactionTemplate readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        readOnlyTemplate.setReadOnly(true);
+        return readOnlyTemplate.execute(status -> {
+            try (Stream<R> stream = open(persistenceContext, queryFactory, fetchSize, clearInterval, metrics)) {
+                return action.apply(stream);
+            }
+        });
+    }
+
+    private static <R> Stream<R> stream(StreamState state,
+                                        ScrollableResults<R> results,
+                                        Session session,
+                                        int clearInterval) {
+        Stream<R> stream = StreamSupport.stream(new ScrollSpliterator<>(state, results, session, clearInterval), false)
+                .onClose(state::close);
+        state.cleanable = LEAK_DETECTOR.register(stream, state::reportLeak);
+        return stream;
+    }
+
+    private static <R> ScrollableResults<R> scroll(Session session,
+                                                   Function<Session, SelectionQuery<R>> queryFactory,
+                                                   int fetchSize) {
+        return queryFactory.apply(session)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     * Соединение собственной транзакции получается при её начале. На время получения
+     * поток выполнения отмечается как выполняющий read-only транзакцию, чтобы
+     * {@link ru.korovin.packages.fasterjpa.routing.ReplicaRoutingDataSource} мог направить чтение на реплику
+     */
+    private static <R> ScrollableResults<R> scrollReadOnly(Session session,
+                                                           Function<Session, SelectionQuery<R>> queryFactory,
+                                                           int fetchSize) {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            session.beginTransaction();
+            session.doWork(connection -> connection.setReadOnly(true));
+            return scroll(session, queryFactory, fetchSize);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        }
+    }
+
+    /**
+     * Завершает собственную транзакцию потока и закрывает его контекст персистентности
+     */
+    private static void release(EntityManager ownContext, boolean commit) {
+        try {
+            if (ownContext.getTransaction().isActive()) {
+                if (commit) {
+                    ownContext.getTransaction().commit();
+                } else {
+                    ownContext.getTransaction().rollback();
+                }
+            }
+        } finally {
+            ownContext.close();
+        }
+    }
+
+    private static final class ScrollSpliterator<R> extends Spliterators.AbstractSpliterator<R> {
+        private final StreamState state;
+        private final ScrollableResults<R> results;
+        private final Session session;
+        private final int clearInterval;
+        private final List<R> emittedRows = new ArrayList<>();
+        private long rows;
+
+        private ScrollSpliterator(StreamState state, ScrollableResults<R> results, Session session, int clearInterval) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.state = state;
+            this.results = results;
+            this.session = session;
+            this.clearInterval = clearInterval;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (state.closed.get()) {
+                return false;
+            }
+            try {
+                if (clearInterval > 0 && rows > 0 && rows % clearInterval == 0) {
+                    clear();
+                }
+                if (!results.next()) {
+                    state.close();
+                    return false;
+                }
+                rows++;
+                state.metrics.increment(STREAM_ROWS_METRIC);
+                R row = results.get();
+                if (state.ownContext == null && clearInterval > 0) {
+                    emittedRows.add(row);
+                }
+                action.accept(row);
+                return true;
+            } catch (RuntimeException e) {
+                state.fail();
+                throw e;
+            }
+        }
+
+        /**
+         * Собственный контекст персистентности очищается целиком, в транзакции вызывающего кода
+         * отсоединяются только прочитанные потоком сущности, чтобы не потерять
+         * несохранённые изменения вызывающего кода
+         */
+        private void clear() {
+            if (state.ownContext != null) {
+                session.clear();
+                return;
+            }
+            emittedRows.stream()
+                    .filter(session::contains)
+                    .forEach(session::detach);
+            emittedRows.clear();
+        }
+    }
+
+    /**
+     * Состояние не должно ссылаться на поток, иначе поток никогда не станет недостижимым
+     */
+    private static final class StreamState {
+        private final EntityManager ownContext;
+        private final ScrollableResults<?> results;
+        private final ServiceMetrics metrics;
+        private final Throwable allocationTrace;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Cleaner.Cleanable cleanable;
+
+        /**
+         * @param ownContext контекст персистентности собственной транзакции потока,
+         *                   null в транзакции вызывающего кода
+         */
+        private StreamState(EntityManager ownContext,
+                            ScrollableResults<?> results,
+                            ServiceMetrics metrics,
+                            Throwable allocationTrace) {
+            this.ownContext = ownContext;
+            this.results = results;
+            this.metrics = metrics;
+            this.allocationTrace = allocationTrace;
+        }
+
+        private void close() {
+            finish(true);
+        }
+
+        private void fail() {
+            finish(false);
+        }
+
+        private void finish(boolean commit) {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    closeResources(commit);
+                } finally {
+                    Cleaner.Cleanable currentCleanable = cleanable;
+                    if (currentCleanable != null) {
+                        currentCleanable.clean();
+                    }
+                }
+            }
+        }
+
+        private void closeResources(boolean commit) {
+            try {
+                results.close();
+            } finally {
+                if (ownContext != null) {
+                    release(ownContext, commit);
+                }
+            }
+        }
+
+        /**
+         * Вызывается потоком очистки, когда поток стал недостижимым. Курсор транзакции
+         * вызывающего кода не закрывается, так как её контекст персистентности
+         * может одновременно использоваться потоком выполнения вызывающего кода
+         */
+        private void reportLeak() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            metrics.increment(STREAM_LEAK_METRIC);
+            log.warn("Поток данных {} не был закрыт. Используйте try-with-resources " +
+                    "или дочитывайте поток до конца", metrics.getName(), allocationTrace);
+            if (ownContext != null) {
+                try {
+                    closeResources(false);
+                } catch (RuntimeException e) {
+                    log.warn("Ошибка освобождения незакрытого потока данных {}", metrics.getName(), e);
+                }
+            }
+        }
+    }
+}
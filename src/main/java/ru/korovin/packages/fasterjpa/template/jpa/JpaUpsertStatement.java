@@ -0,0 +1,352 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.jdbc.Size;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.BasicEntityIdentifierMapping;
+import org.hibernate.metamodel.mapping.EntityIdentifierMapping;
+import org.hibernate.metamodel.mapping.EntityVersionMapping;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.metamodel.mapping.ModelPart;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.hibernate.type.descriptor.sql.spi.DdlTypeRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Запрос вставки или обновления строки сущности по ключу конфликта, построенный по метаданным Hibernate
+ * в синтаксисе диалекта:
+ * <pre>
+ *     {@code
+ *     -- H2, Oracle
+ *     merge into account t using (select cast(? as bigint) id, cast(? as varchar(255)) name, ... from dual) s
+ *       on (t.id = s.id)
+ *       when matched then update set name = s.name, version = t.version + 1
+ *       when not matched then insert (id, name, version) values (s.id, s.name, s.version)
+ *     -- PostgreSQL
+ *     insert into account (id, name, version) values (?, ?, ?)
+ *       on conflict (id) do update set name = excluded.name, version = account.version + 1
+ *     -- MySQL, MariaDB: ключ конфликта определяет уникальный индекс таблицы
+ *     insert into account (id, name, version) values (?, ?, ?)
+ *       on duplicate key update name = values(name), version = version + 1
+ *     }
+ * </pre>
+ * Записываются столбцы самой сущности: базовые свойства, встраиваемые объекты и внешние ключи связей,
+ * коллекции не записываются. Генераторы значений Hibernate ({@code @CreationTimestamp} и т.п.)
+ * не применяются. Идентификатор не записывается, если includeId = false, тогда его значение
+ * должна генерировать БД (IDENTITY), а запрос возвращает его сгенерированным ключом, см. {@link #readGeneratedIds}. Наследуемые сущности и сущности из нескольких таблиц не поддерживаются.
+ *
+ * @param sql             текст запроса с параметрами в порядке {@link #addBatch}
+ * @param reportsOutcome  различает ли БД вставку и обновление количеством изменённых строк:
+ *                        MySQL сообщает 1 для вставленной строки и 2 для обновлённой
+ * @param generatedId     идентификатор, генерируемый БД, null если идентификатор записывается запросом
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+record JpaUpsertStatement(String sql,
+                          List<ModelPart> parts,
+                          EntityVersionMapping versionMapping,
+                          boolean reportsOutcome,
+                          BasicEntityIdentifierMapping generatedId) {
+    static final String INSERTED = "inserted";
+    static final String UPDATED = "updated";
+    static final String UPSERTED = "upserted";
+    static final String UNCHANGED = "unchanged";
+
+    private static final String MERGE_ALIAS = "t";
+    private static final String SOURCE_ALIAS = "s";
+
+    /**
+     * @throws IllegalArgumentException если свойство ключа конфликта не найдено или не является столбцом сущности
+     * @throws IllegalStateException    если диалект или отображение сущности не поддерживаются
+     */
+    static JpaUpsertStatement of(SessionFactoryImplementor sessionFactory,
+                                 Class<?> entityType,
+                                 List<String> conflictKey,
+                                 boolean includeId) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType);
+        if (!(persister instanceof AbstractEntityPersister entityPersister) || entityPersister.getTableSpan() > 1
+                || persister.getSuperMappingType() != null || persister.hasSubclasses()) {
+            throw new IllegalStateException("Upsert не поддерживается для наследуемых сущностей и сущностей " +
+                    "из нескольких таблиц: " + entityType.getSimpleName());
+        }
+        String table = entityPersister.getTableName();
+        EntityVersionMapping versionMapping = persister.getVersionMapping();
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        ColumnTypes types = new ColumnTypes(sessionFactory.getTypeConfiguration().getDdlTypeRegistry(), dialect);
+        List<ModelPart> parts = new ArrayList<>();
+        Map<String, List<String>> columnsByProperty = new LinkedHashMap<>();
+        Map<String, String> columnTypes = new HashMap<>();
+        if (includeId) {
+            parts.add(persister.getIdentifierMapping());
+            columnsByProperty.put(persister.getIdentifierMapping().getAttributeName(),
+                    columns(persister.getIdentifierMapping(), table, types, columnTypes));
+        }
+        persister.forEachAttributeMapping(attribute -> {
+            if (attribute instanceof PluralAttributeMapping || !attribute.getAttributeMetadata().isInsertable()) {
+                return;
+            }
+            List<String> columns = columns(attribute, table, types, columnTypes);
+            if (!columns.isEmpty()) {
+                parts.add(attribute);
+                columnsByProperty.put(attribute.getAttributeName(), columns);
+            }
+        });
+        List<String> keyColumns = new ArrayList<>();
+        for (String property : conflictKey) {
+            List<String> columns = columnsByProperty.get(property);
+            if (columns == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Свойство ключа конфликта '%s' не является столбцом сущности %s", property, entityType.getSimpleName()));
+            }
+            keyColumns.addAll(columns);
+        }
+        String versionColumn = versionMapping == null ? null : versionMapping.getVersionAttribute().getSelectionExpression();
+        List<String> allColumns = columnsByProperty.values().stream().flatMap(List::stream).toList();
+        Set<String> notUpdatable = new HashSet<>(keyColumns);
+        notUpdatable.addAll(columns(persister.getIdentifierMapping(), table, types, new HashMap<>()));
+        columnsByProperty.forEach((property, columns) -> {
+            AttributeMapping attribute = persister.findAttributeMapping(property);
+            if (attribute == null || !attribute.getAttributeMetadata().isUpdatable()) {
+                notUpdatable.addAll(columns);
+            }
+        });
+        if (versionColumn != null) {
+            notUpdatable.add(versionColumn);
+        }
+        List<String> updateColumns = allColumns.stream().filter(column -> !notUpdatable.contains(column)).toList();
+        BasicEntityIdentifierMapping generatedId = null;
+        if (!includeId) {
+            if (!(persister.getIdentifierMapping() instanceof BasicEntityIdentifierMapping basicId)) {
+                throw new IllegalStateException("Генерируемый БД идентификатор должен быть простым: " + entityType.getSimpleName());
+            }
+            generatedId = basicId;
+        }
+        if (dialect instanceof H2Dialect || dialect instanceof OracleDialect) {
+            return new JpaUpsertStatement(toMerge(table, allColumns, columnTypes, keyColumns, updateColumns,
+                    versionColumn, dialect instanceof OracleDialect), parts, versionMapping, false, generatedId);
+        }
+        if (dialect instanceof PostgreSQLDialect) {
+            return new JpaUpsertStatement(toOnConflict(table, allColumns, keyColumns, updateColumns, versionColumn),
+                    parts, versionMapping, false, generatedId);
+        }
+        if (dialect instanceof MySQLDialect || dialect instanceof MariaDBDialect) {
+            return new JpaUpsertStatement(toOnDuplicateKey(table, allColumns, updateColumns, versionColumn),
+                    parts, versionMapping, true, generatedId);
+        }
+        throw new IllegalStateException("Upsert не поддерживается для диалекта " + dialect.getClass().getSimpleName());
+    }
+
+    /**
+     * Добавляет значения столбцов модели параметрами запроса в пакет
+     */
+    void addBatch(PreparedStatement statement, Object model, SharedSessionContractImplementor session) throws SQLException {
+        int[] index = {1};
+        SQLException[] error = new SQLException[1];
+        for (ModelPart part : parts) {
+            Object value = part instanceof EntityIdentifierMapping identifier ? identifier.getIdentifier(model)
+                    : ((AttributeMapping) part).getValue(model);
+            if (versionMapping != null && part == versionMapping.getVersionAttribute() && value == null) {
+                value = versionMapping.getJavaType().seed(versionMapping.getLength(), versionMapping.getPrecision(),
+                        versionMapping.getScale(), session);
+            }
+            part.decompose(value, (valueIndex, jdbcValue, selectable) -> {
+                try {
+                    selectable.getJdbcMapping().getJdbcValueBinder().bind(statement, jdbcValue, index[0]++, session);
+                } catch (SQLException e) {
+                    error[0] = e;
+                }
+            }, session);
+            if (error[0] != null) {
+                throw error[0];
+            }
+        }
+        statement.addBatch();
+    }
+
+    /**
+     * Подготавливает запрос пакета, возвращающий сгенерированный идентификатор, если он генерируется БД
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+        if (generatedId == null) {
+            return connection.prepareStatement(sql);
+        }
+        return connection.prepareStatement(sql, new String[]{generatedId.getSelectionExpression()});
+    }
+
+    /**
+     * Читает идентификаторы, сгенерированные БД при выполнении пакета, в порядке строк пакета.
+     * Драйвер возвращает ключ для каждой вставленной или обновлённой строки, но не для строк,
+     * оставленных без изменений, поэтому идентификаторы сопоставляются строкам, только если
+     * их количество совпадает с количеством изменённых строк
+     *
+     * @param updateCounts количество изменённых строк каждой строки пакета
+     * @return идентификаторы строк пакета, null для строк без сопоставленного идентификатора
+     */
+    List<Object> readGeneratedIds(PreparedStatement statement,
+                                  int[] updateCounts,
+                                  SharedSessionContractImplementor session) throws SQLException {
+        List<Object> ids = new ArrayList<>(Collections.nCopies(updateCounts.length, null));
+        if (generatedId == null) {
+            return ids;
+        }
+        List<Object> keys = new ArrayList<>();
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                keys.add(generatedId.getJdbcMapping().getJdbcValueExtractor().extract(generatedKeys, 1, session));
+            }
+        }
+        long changed = Arrays.stream(updateCounts).filter(count -> count != 0).count();
+        if (keys.size() != changed) {
+            return ids;
+        }
+        Iterator<Object> key = keys.iterator();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] != 0) {
+                ids.set(i, key.next());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Результат строки по количеству изменённых строк, сообщённому драйвером
+     */
+    String outcome(int updateCount) {
+        if (updateCount == 0) {
+            return UNCHANGED;
+        }
+        if (!reportsOutcome || updateCount < 0) {
+            return UPSERTED;
+        }
+        return updateCount == 1 ? INSERTED : UPDATED;
+    }
+
+    /**
+     * Столбцы свойства в таблице сущности, типы столбцов добавляются в columnTypes
+     */
+    private static List<String> columns(ModelPart part,
+                                        String table,
+                                        ColumnTypes types,
+                                        Map<String, String> columnTypes) {
+        List<String> columns = new ArrayList<>();
+        part.forEachSelectable((index, selectable) -> {
+            if (isWritable(selectable, table)) {
+                columns.add(selectable.getSelectionExpression());
+                columnTypes.put(selectable.getSelectionExpression(), types.getTypeName(selectable));
+            }
+        });
+        return columns;
+    }
+
+    private static boolean isWritable(SelectableMapping selectable, String table) {
+        return !selectable.isFormula() && selectable.isInsertable() && table.equals(selectable.getContainingTableExpression());
+    }
+
+    /**
+     * Параметры источника приводятся к типам столбцов, так как H2 не выводит тип параметра в списке выборки
+     */
+    private static String toMerge(String table,
+                                  List<String> columns,
+                                  Map<String, String> columnTypes,
+                                  List<String> keyColumns,
+                                  List<String> updateColumns,
+                                  String versionColumn,
+                                  boolean fromDual) {
+        StringBuilder sql = new StringBuilder("merge into ").append(table).append(' ').append(MERGE_ALIAS)
+                .append(" using (select ")
+                .append(columns.stream().map(column -> "cast(? as " + columnTypes.get(column) + ") " + column).collect(Collectors.joining(", ")))
+                .append(fromDual ? " from dual" : "")
+                .append(") ").append(SOURCE_ALIAS).append(" on (")
+                .append(keyColumns.stream()
+                        .map(column -> MERGE_ALIAS + "." + column + " = " + SOURCE_ALIAS + "." + column)
+                        .collect(Collectors.joining(" and ")))
+                .append(')');
+        List<String> assignments = new ArrayList<>(updateColumns.stream()
+                .map(column -> column + " = " + SOURCE_ALIAS + "." + column)
+                .toList());
+        if (versionColumn != null) {
+            assignments.add(versionColumn + " = " + MERGE_ALIAS + "." + versionColumn + " + 1");
+        }
+        if (!assignments.isEmpty()) {
+            sql.append(" when matched then update set ").append(String.join(", ", assignments));
+        }
+        return sql.append(" when not matched then insert (").append(String.join(", ", columns))
+                .append(") values (")
+                .append(columns.stream().map(column -> SOURCE_ALIAS + "." + column).collect(Collectors.joining(", ")))
+                .append(')')
+                .toString();
+    }
+
+    private static String toOnConflict(String table,
+                                       List<String> columns,
+                                       List<String> keyColumns,
+                                       List<String> updateColumns,
+                                       String versionColumn) {
+        List<String> assignments = new ArrayList<>(updateColumns.stream()
+                .map(column -> column + " = excluded." + column)
+                .toList());
+        if (versionColumn != null) {
+            assignments.add(versionColumn + " = " + table + "." + versionColumn + " + 1");
+        }
+        return toInsert(table, columns) + " on conflict (" + String.join(", ", keyColumns) + ") do "
+                + (assignments.isEmpty() ? "nothing" : "update set " + String.join(", ", assignments));
+    }
+
+    private static String toOnDuplicateKey(String table,
+                                           List<String> columns,
+                                           List<String> updateColumns,
+                                           String versionColumn) {
+        List<String> assignments = new ArrayList<>(updateColumns.stream()
+                .map(column -> column + " = values(" + column + ")")
+                .toList());
+        if (versionColumn != null) {
+            assignments.add(versionColumn + " = " + versionColumn + " + 1");
+        }
+        if (assignments.isEmpty()) {
+            assignments.add(columns.get(0) + " = " + columns.get(0));
+        }
+        return toInsert(table, columns) + " on duplicate key update " + String.join(", ", assignments);
+    }
+
+    private static String toInsert(String table, List<String> columns) {
+        return "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+    }
+
+    private record ColumnTypes(DdlTypeRegistry ddlTypes, Dialect dialect) {
+        String getTypeName(SelectableMapping selectable) {
+            JdbcMapping jdbcMapping = selectable.getJdbcMapping();
+            Size size = dialect.getSizeStrategy().resolveSize(jdbcMapping.getJdbcType(), jdbcMapping.getJavaTypeDescriptor(),
+                    selectable.getPrecision(), selectable.getScale(), selectable.getLength());
+            return ddlTypes.getTypeName(jdbcMapping.getJdbcType().getDdlTypeCode(), size,
+                    jdbcMapping instanceof Type type ? type : null);
+        }
+    }
+}
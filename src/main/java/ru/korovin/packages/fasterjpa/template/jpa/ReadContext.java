@@ -0,0 +1,53 @@
+package ru.korovin.packages.fasterjpa.template.jpa;
+
+import lombok.NonNull;
+
+import java.util.function.Supplier;
+
+/**
+ * Режим чтения методов {@link JpaCrudService} в текущем потоке выполнения.
+ * Вне транзакции методы чтения выполняются в собственной read-only транзакции:
+ * Hibernate не сбрасывает контекст персистентности перед запросами и при фиксации,
+ * а соединение помечается {@link java.sql.Connection#setReadOnly(boolean)}.
+ * Сущности собственного контекста персистентности транзакции загружаются без снимков
+ * для проверки изменений. Открытый контекст персистентности (например, при open-in-view)
+ * общий с последующими пишущими транзакциями, поэтому загруженные в нём сущности
+ * остаются управляемыми, но изменения сохраняются только при следующем сбросе контекста
+ * в пишущей транзакции.
+ * <p>
+ * Если чтение не должно открывать собственную read-only транзакцию,
+ * оно выполняется внутри {@link #managed(Supplier)}:
+ * <pre>
+ *     {@code
+ *     User user = ReadContext.managed(() -> userService.getById(id));
+ *     user.setFirstName("Changed"); //будет сохранено при следующем сбросе контекста
+ *     }
+ * </pre>
+ * Внутри пишущей транзакции чтение всегда присоединяется к ней и возвращает управляемые сущности.
+ *
+ * @author EgorKor
+ * @version 1.0
+ * @since 2025
+ */
+public final class ReadContext {
+    private static final ThreadLocal<Boolean> MANAGED = new ThreadLocal<>();
+
+    private ReadContext() {
+    }
+
+    public static <R> R managed(@NonNull Supplier<R> reads) {
+        if (isManaged()) {
+            return reads.get();
+        }
+        MANAGED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            MANAGED.remove();
+        }
+    }
+
+    public static boolean isManaged() {
+        return MANAGED.get() != null;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.korovin.packages.fasterjpa.testProject.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderSummaryDto {
+    private Long id;
+    private String name;
+    private Long userId;
+    private String userEmail;
+}
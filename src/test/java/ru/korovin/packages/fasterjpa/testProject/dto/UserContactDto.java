@@ -0,0 +1,4 @@
+package ru.korovin.packages.fasterjpa.testProject.dto;
+
+public record UserContactDto(Long id, String firstName, String email) {
+}
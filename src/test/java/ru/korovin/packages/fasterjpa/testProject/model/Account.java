@@ -0,0 +1,22 @@
+package ru.korovin.packages.fasterjpa.testProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Account {
+    @Id
+    private Long id;
+    private String name;
+    private String description;
+    private Long balance;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User owner;
+    @Version
+    private Long version;
+}
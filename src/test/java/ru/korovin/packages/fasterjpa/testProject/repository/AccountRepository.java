@@ -0,0 +1,12 @@
+package ru.korovin.packages.fasterjpa.testProject.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+
+@Profile("test")
+@Repository
+public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account> {
+}
@@ -0,0 +1,20 @@
+package ru.korovin.packages.fasterjpa.testProject.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+
+@Profile("test")
+@Service
+public class AccountServiceImpl extends JpaCrudService<Account, Long> {
+
+    public AccountServiceImpl(JpaRepository<Account, Long> repository, JpaSpecificationExecutor<Account> specificationExecutor, EntityManager persistenceContext, TransactionTemplate transactionTemplate, Validator validator) {
+        super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+    }
+}
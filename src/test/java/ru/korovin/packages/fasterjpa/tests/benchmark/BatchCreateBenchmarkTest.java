@@ -0,0 +1,135 @@
+package ru.korovin.packages.fasterjpa.tests.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.AutoConfigurationSource;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.BatchResultWithDataImpl;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaBatchCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Пропускная способность batchCreate пакетами JDBC с делением порции при ошибке
+ * в сравнении с прежним сохранением repository.save по одной модели в общей транзакции.
+ * Прежняя реализация выполняет merge моделей с повторным идентификатором, перезаписывая строку,
+ * и сообщает об их создании, поэтому помимо скорости выводится число действительно созданных строк.
+ * Запуск: mvn test -Dtest=BatchCreateBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({BatchCreateBenchmarkTest.TestEntityBatchService.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(AutoConfigurationSource.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchCreateBenchmarkTest {
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private TestEntityBatchService service;
+    @Autowired
+    private TestEntityRepository repository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void deleteRows() {
+        service.deleteAll();
+    }
+
+    /**
+     * @param conflictEvery каждая conflictEvery модель повторяет идентификатор сохранённой строки, 0 - без повторов
+     */
+    @ParameterizedTest
+    @CsvSource({"10000, 0", "100000, 0", "100000, 1000", "100000, 100"})
+    public void benchmarkBatchCreate(int rows, int conflictEvery) {
+        measure("batchCreate", rows, conflictEvery, () -> service.batchCreate(models(rows, conflictEvery), BATCH_SIZE));
+        measure("save loop", rows, conflictEvery, () -> saveLoop(models(rows, conflictEvery)));
+    }
+
+    private void measure(String name, int rows, int conflictEvery, Supplier<List<BatchResultWithData<TestEntity>>> run) {
+        service.deleteAll();
+        repository.save(TestEntity.builder().id(0L).name("conflict").isDeleted(false).build());
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        long start = System.nanoTime();
+        List<BatchResultWithData<TestEntity>> results = run.get();
+        long elapsed = System.nanoTime() - start;
+        stats.setStatisticsEnabled(false);
+        long reported = results.stream().filter(result -> result.getStatus() == BatchOperationStatus.SUCCESS).count();
+        System.out.printf("%s, %d rows, conflict every %d: %.0f rows/s, %d reported created, %d created, %d statements%n",
+                name, rows, conflictEvery, rows / (elapsed / 1_000_000_000.0), reported, repository.count() - 1,
+                stats.getPrepareStatementCount());
+    }
+
+    private List<TestEntity> models(int rows, int conflictEvery) {
+        return LongStream.rangeClosed(1, rows)
+                .mapToObj(id -> TestEntity.builder().id(conflictEvery > 0 && id % conflictEvery == 0 ? 0L : id)
+                        .name("entity" + id).isDeleted(false).build())
+                .toList();
+    }
+
+    /**
+     * Прежняя реализация batchCreate
+     */
+    private List<BatchResultWithData<TestEntity>> saveLoop(List<TestEntity> models) {
+        return transactionTemplate.execute(status -> {
+            List<BatchResultWithData<TestEntity>> results = new ArrayList<>();
+            int counter = 0;
+            for (TestEntity model : models) {
+                try {
+                    repository.save(model);
+                    results.add(BatchResultWithDataImpl.<TestEntity>builder()
+                            .data(model).status(BatchOperationStatus.SUCCESS).build());
+                } catch (Exception e) {
+                    results.add(BatchResultWithDataImpl.<TestEntity>builder()
+                            .status(BatchOperationStatus.FAILED).details(e.getMessage()).build());
+                }
+                if (++counter % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return results;
+        });
+    }
+
+    public static class TestEntityBatchService extends JpaBatchCrudService<TestEntity, Long> {
+        public TestEntityBatchService(JpaRepository<TestEntity, Long> repository,
+                                      JpaSpecificationExecutor<TestEntity> specificationExecutor,
+                                      EntityManager persistenceContext,
+                                      TransactionTemplate transactionTemplate,
+                                      Validator validator) {
+            super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+        }
+    }
+}
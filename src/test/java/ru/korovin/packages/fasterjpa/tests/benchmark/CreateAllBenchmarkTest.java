@@ -0,0 +1,63 @@
+package ru.korovin.packages.fasterjpa.tests.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.AutoConfigurationSource;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestEntityCrudServiceImpl;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Пропускная способность createAll при сохранении порциями пакетами JDBC.
+ * Запуск: mvn test -Dtest=CreateAllBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({TestEntityCrudServiceImpl.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(AutoConfigurationSource.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CreateAllBenchmarkTest {
+    @Autowired
+    private TestEntityCrudServiceImpl service;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void deleteRows() {
+        service.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    public void benchmarkCreateAll(int rows) {
+        service.deleteAll();
+        List<TestEntity> models = LongStream.rangeClosed(1, rows)
+                .mapToObj(id -> TestEntity.builder().id(id).name("entity" + id).isDeleted(false).build())
+                .toList();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        long start = System.nanoTime();
+        service.createAll(models);
+        long elapsed = System.nanoTime() - start;
+        stats.setStatisticsEnabled(false);
+        System.out.printf("%d rows: %.0f rows/s, %d inserts in %d statements%n", rows,
+                rows / (elapsed / 1_000_000_000.0), stats.getEntityInsertCount(), stats.getPrepareStatementCount());
+    }
+}
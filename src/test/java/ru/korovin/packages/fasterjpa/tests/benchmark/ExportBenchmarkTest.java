@@ -0,0 +1,133 @@
+package ru.korovin.packages.fasterjpa.tests.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
+import ru.korovin.packages.fasterjpa.export.ExportFormat;
+import ru.korovin.packages.fasterjpa.export.ExportOptions;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Запуск: mvn test -Dtest=ExportBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExportBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void insertRows() {
+        userService.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                insert into users (id, first_name, email, phone, address, password, created_at)
+                select x, 'name' || x, 'user' || x || '@mail.com', '+7 900 000 00 00', 'Moscow, "Red square", ' || x, 'secret', current_date
+                from system_range(1, ?)
+                """, ROWS));
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        userService.deleteAll();
+    }
+
+    @Test
+    public void benchmarkCsvExport() throws InterruptedException {
+        benchmark(ExportFormat.CSV, false);
+    }
+
+    @Test
+    public void benchmarkNdjsonGzipExport() throws InterruptedException {
+        benchmark(ExportFormat.NDJSON, true);
+    }
+
+    private void benchmark(ExportFormat format, boolean gzip) throws InterruptedException {
+        System.gc();
+        long baseline = liveHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(liveHeap(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        long count = userService.export(new ExportedUserFilter(), Sortings.unsorted(), format, out,
+                ExportOptions.builder().gzip(gzip).build());
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        sampler.join();
+
+        assertEquals(ROWS, count);
+        System.out.printf("%s gzip=%s: %d rows in %d ms, %.0f rows/sec, %d MB written, peak live heap +%d MB%n",
+                format, gzip, count, elapsed / 1_000_000, count / (elapsed / 1e9),
+                out.bytes / (1024 * 1024), (peak.get() - baseline) / (1024 * 1024));
+    }
+
+    /**
+     * Занятая куча по результатам последней сборки мусора, без учёта ещё не собранного мусора
+     */
+    private static long liveHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                .sum();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    @SelectableFields({"id", "firstName", "email", "phone", "address", "createdAt", "updatedAt", "deletedAt"})
+    public static class ExportedUserFilter extends Filter<User> {
+    }
+}
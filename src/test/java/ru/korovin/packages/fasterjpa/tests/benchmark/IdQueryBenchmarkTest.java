@@ -0,0 +1,91 @@
+package ru.korovin.packages.fasterjpa.tests.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Filters;
+import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Сравнение выборки по идентификатору через Criteria API, построенный из {@code Filter},
+ * и через подготовленный JPQL запрос сервиса.
+ * Запуск: mvn test -Dtest=IdQueryBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdQueryBenchmarkTest {
+    private static final int ROWS = 1_000;
+    private static final int WARMUP_CALLS = 10_000;
+    private static final int MEASURED_CALLS = 50_000;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void insertRows() {
+        userService.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                insert into users (id, first_name, email, created_at)
+                select x, 'name' || x, 'user' || x || '@mail.com', current_date
+                from system_range(1, ?)
+                """, ROWS));
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        userService.deleteAll();
+    }
+
+    @Test
+    public void benchmarkFindById() {
+        measure("criteria", id -> userService.findByFilter(Filters.equal("id", id)).orElseThrow());
+        measure("prepared jpql", id -> userService.findById(id, Joins.empty()).orElseThrow());
+    }
+
+    @Test
+    public void benchmarkExistsById() {
+        measure("criteria", id -> userService.existsByFilter(Filters.equal("id", id)));
+        measure("prepared jpql", userService::existsById);
+    }
+
+    private void measure(String name, LongConsumer call) {
+        transactionTemplate.executeWithoutResult(status -> run(call, WARMUP_CALLS));
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> run(call, MEASURED_CALLS));
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %.2f us/call%n", name, elapsed / 1_000.0 / MEASURED_CALLS);
+    }
+
+    private void run(LongConsumer call, int calls) {
+        for (int i = 0; i < calls; i++) {
+            call.accept(i % ROWS + 1);
+            if (i % ROWS == 0) {
+                entityManager.clear();
+            }
+        }
+    }
+}
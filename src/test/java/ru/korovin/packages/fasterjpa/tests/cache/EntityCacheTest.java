@@ -0,0 +1,176 @@
+package ru.korovin.packages.fasterjpa.tests.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.annotations.CachedEntity;
+import ru.korovin.packages.fasterjpa.cache.EntityCache;
+import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.fb;
+
+/**
+ * Кэш используется только вне пишущей транзакции, поэтому тесты выполняются без тестовой транзакции
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EntityCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserServiceImpl userServiceImpl;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private Statistics stats;
+
+    @BeforeEach
+    public void setUp() {
+        userService.deleteAll();
+        User.generateUsers(1, 10).forEach(userService::create);
+        userServiceImpl.getMetrics().reset();
+        userServiceImpl.setEntityCache(new EntityCache<>(100, Duration.ofMinutes(5), userServiceImpl.getMetrics()));
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userServiceImpl.setEntityCache(null);
+        userServiceImpl.getMetrics().reset();
+    }
+
+    @Test
+    public void testGetByIdServedFromCache() {
+        stats.setStatisticsEnabled(true);
+        User first = userService.getById(1L);
+        User second = userService.getById(1L);
+        Assertions.assertTrue(userService.existsById(1L));
+        Assertions.assertTrue(userService.findById(1L).isPresent());
+        stats.setStatisticsEnabled(false);
+        assertEquals(1, stats.getPrepareStatementCount());
+        Assertions.assertNotSame(first, second);
+        ServiceMetrics metrics = userServiceImpl.getMetrics();
+        assertEquals(1, metrics.getCounter(EntityCache.MISS_METRIC));
+        assertEquals(3, metrics.getCounter(EntityCache.HIT_METRIC));
+        assertEquals(0.75, userServiceImpl.getEntityCache().orElseThrow().hitRatio());
+    }
+
+    @Test
+    public void testCallerChangesNotCached() {
+        User loaded = userService.getById(1L);
+        String firstName = loaded.getFirstName();
+        loaded.setFirstName("Changed");
+        User cached = userService.getById(1L);
+        cached.setFirstName("Changed again");
+
+        User reloaded = userService.getById(1L);
+        assertEquals(firstName, reloaded.getFirstName());
+        assertEquals(1, userServiceImpl.getMetrics().getCounter(EntityCache.MISS_METRIC));
+    }
+
+    @Test
+    public void testLoadConcurrentWithInvalidationNotCached() {
+        EntityCache<Long, String> cache = new EntityCache<>(10, Duration.ofMinutes(1), new ServiceMetrics("test"));
+        long token = cache.loadToken();
+        cache.invalidate(1L);
+        Assertions.assertFalse(cache.putIfNotInvalidated(1L, "stale", token));
+        Assertions.assertTrue(cache.get(1L).isEmpty());
+        Assertions.assertTrue(cache.putIfNotInvalidated(1L, "fresh", cache.loadToken()));
+        assertEquals("fresh", cache.get(1L).orElseThrow());
+    }
+
+    @Test
+    public void testWriteInvalidatesEntity() {
+        userService.getById(2L);
+        User patch = new User();
+        patch.setFirstName("Patched");
+        userService.patchUpdate(2L, patch);
+        assertEquals("Patched", userService.getById(2L).getFirstName());
+
+        userService.softDeleteById(2L);
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> userService.getById(2L));
+    }
+
+    @Test
+    public void testBulkUpdateInvalidatesRegion() {
+        userService.getById(3L);
+        userService.getById(4L);
+        userService.softDeleteByFilter(fb.and(fb.lessOrEquals("id", "5")));
+        assertEquals(0, userServiceImpl.getEntityCache().orElseThrow().size());
+        Assertions.assertFalse(userService.existsById(3L));
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> userService.getById(4L));
+    }
+
+    @Test
+    public void testCacheBypassedInWriteTransaction() {
+        userService.getById(5L);
+        stats.setStatisticsEnabled(true);
+        transactionTemplate.executeWithoutResult(status -> userService.getById(5L));
+        stats.setStatisticsEnabled(false);
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testInvalidationAfterOuterTransactionCommit() {
+        userService.getById(6L);
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.deleteById(6L);
+            userService.getById(7L);
+        });
+        Assertions.assertTrue(userService.findById(6L).isEmpty());
+    }
+
+    @Test
+    public void testSizeAndTtlEviction() {
+        ServiceMetrics metrics = new ServiceMetrics("test");
+        AtomicLong time = new AtomicLong();
+        EntityCache<Long, String> cache = new EntityCache<>(2, Duration.ofSeconds(10), metrics, time::get);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+        Assertions.assertTrue(cache.get(2L).isEmpty());
+        assertEquals(1, metrics.getCounter(EntityCache.EVICTION_METRIC));
+
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+        Assertions.assertTrue(cache.get(1L).isEmpty());
+        assertEquals(1, metrics.getCounter(EntityCache.EXPIRATION_METRIC));
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCacheConfiguredByAnnotation() {
+        ServiceMetrics metrics = new ServiceMetrics("test");
+        assertEquals(50, EntityCache.forEntity(CachedDictionary.class, metrics).orElseThrow().getMaxSize());
+        Assertions.assertTrue(EntityCache.forEntity(User.class, metrics).isEmpty());
+    }
+
+    @CachedEntity(maxSize = 50, ttlSeconds = 60)
+    private static class CachedDictionary {
+    }
+}
@@ -0,0 +1,105 @@
+package ru.korovin.packages.fasterjpa.tests.counter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.counter.WriteBehindCounters;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.instrumentation.ServiceMetrics;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.AccountServiceImpl;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({AccountServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WriteBehindCountersTest {
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        accountRepository.save(Account.builder().id(1L).name("first").balance(0L).build());
+        accountRepository.save(Account.builder().id(2L).name("second").balance(0L).build());
+        accountService.getMetrics().reset();
+    }
+
+    @Test
+    public void testConcurrentIncrementsCoalesced() throws InterruptedException {
+        WriteBehindCounters<Account, Long> counters = new WriteBehindCounters<>(accountService, Duration.ofHours(1), 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            long id = i % 2 + 1;
+            executor.execute(() -> counters.increment(id, "balance"));
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        counters.add(99L, "balance", 5);
+
+        assertEquals(2, counters.flush());
+
+        assertEquals(500L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(500L, accountRepository.findById(2L).orElseThrow().getBalance());
+        ServiceMetrics metrics = accountService.getMetrics();
+        assertEquals(1001, metrics.getCounter(WriteBehindCounters.EVENTS_METRIC));
+        assertEquals(1, metrics.getCounter(WriteBehindCounters.DROPPED_METRIC));
+        assertEquals(500.5, metrics.ratio(WriteBehindCounters.EVENTS_METRIC, WriteBehindCounters.ROWS_METRIC));
+        assertEquals(0, counters.getPendingKeys());
+        assertEquals(0, counters.flush());
+    }
+
+    @Test
+    public void testFlushedOnScheduleThresholdAndStop() throws InterruptedException {
+        WriteBehindCounters<Account, Long> scheduled = new WriteBehindCounters<>(accountService, Duration.ofMillis(50), 1000);
+        scheduled.start();
+        scheduled.add(1L, "balance", 3);
+        awaitTrue(() -> accountRepository.findById(1L).orElseThrow().getBalance() == 3L);
+        scheduled.stop();
+
+        WriteBehindCounters<Account, Long> bounded = new WriteBehindCounters<>(accountService, Duration.ofHours(1), 2);
+        bounded.start();
+        bounded.add(1L, "balance", 1);
+        bounded.add(2L, "balance", 1);
+        awaitTrue(() -> accountRepository.findById(2L).orElseThrow().getBalance() == 1L);
+
+        bounded.add(2L, "balance", 10);
+        bounded.close();
+        Assertions.assertFalse(bounded.isRunning());
+        assertEquals(11L, accountRepository.findById(2L).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testNonNumericFieldRejected() {
+        WriteBehindCounters<Account, Long> counters = new WriteBehindCounters<>(accountService, Duration.ofSeconds(1), 10);
+        Assertions.assertThrows(InvalidParameterException.class, () -> counters.increment(1L, "name"));
+        Assertions.assertThrows(InvalidParameterException.class, () -> counters.increment(1L, "unknown"));
+        assertEquals(0, counters.getPendingKeys());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Условие не выполнено за 10 секунд");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.korovin.packages.fasterjpa.tests.export;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.BeforeTransaction;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.export.ExportFormat;
+import ru.korovin.packages.fasterjpa.export.ExportOptions;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.fb;
+
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+public class ExportTest {
+    @Autowired
+    private UserService userService;
+
+    @BeforeTransaction
+    public void beforeTransaction() {
+        userService.deleteAll();
+        User.generateUsers(1, 50).forEach(userService::create);
+    }
+
+    @Test
+    public void testNdjsonExport() {
+        userService.softDeleteByFilter(fb.and(fb.greater("id", "10")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = userService.export(new ExportUserFilter(), Sortings.asc("id"), ExportFormat.NDJSON, out,
+                ExportOptions.builder().fields(List.of("id", "firstName")).flushInterval(3).build());
+        User first = userService.getById(1L);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(10, count);
+        assertEquals(10, lines.size());
+        assertEquals("{\"id\":1,\"firstName\":\"" + first.getFirstName() + "\"}", lines.getFirst());
+    }
+
+    @Test
+    public void testInvalidOptionsRejected() {
+        assertThrows(InvalidParameterException.class, () -> ExportOptions.builder().flushInterval(0).build());
+        assertThrows(InvalidParameterException.class, () -> ExportOptions.builder().bufferSize(-1).build());
+    }
+
+    @Test
+    public void testCsvExportEscaping() {
+        User user = User.generateUser(51L);
+        user.setFirstName("Egor, \"the\" first");
+        userService.create(user);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.export(new ExportUserFilter(), Sortings.desc("id"), ExportFormat.CSV, out,
+                ExportOptions.builder().fields(List.of("id", "firstName")).build());
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(52, lines.size());
+        assertEquals("id,firstName", lines.get(0));
+        assertEquals("51,\"Egor, \"\"the\"\" first\"", lines.get(1));
+    }
+
+    @Test
+    public void testGzipExport() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        userService.export(new ExportUserFilter(), Sortings.asc("id"), ExportFormat.CSV, plain);
+        userService.export(new ExportUserFilter(), Sortings.asc("id"), ExportFormat.CSV, compressed,
+                ExportOptions.builder().gzip(true).build());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(plain.toString(StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals("id,firstName,email", plain.toString(StandardCharsets.UTF_8).lines().findFirst().orElseThrow());
+    }
+
+    @Test
+    public void testExportRestrictedToSelectableFields() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(InvalidParameterException.class,
+                () -> userService.export(Filter.empty(), Sortings.asc("id"), ExportFormat.CSV, out));
+        assertThrows(InvalidParameterException.class, () -> userService.export(new ExportUserFilter(),
+                Sortings.asc("id"), ExportFormat.CSV, out, ExportOptions.builder().fields(List.of("id", "password")).build()));
+        assertEquals(0, out.size());
+    }
+
+    @SelectableFields({"id", "firstName", "email"})
+    public static class ExportUserFilter extends Filter<User> {
+    }
+}
@@ -0,0 +1,97 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaBatchCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.model.TestingEntityBatching;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.BatchTestEntityServiceImpl;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({UpsertAllTest.AccountBatchService.class, BatchTestEntityServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchCreateTest {
+    @Autowired
+    private UpsertAllTest.AccountBatchService accountService;
+    @Autowired
+    private BatchTestEntityServiceImpl batchEntityService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        batchEntityService.deleteAll();
+        userRepository.deleteAll();
+        accountRepository.save(Account.builder().id(1L).name("existing").balance(0L).build());
+        accountService.getMetrics().reset();
+    }
+
+    @Test
+    public void testConflictingRowIsolatedByBisection() {
+        List<Account> models = LongStream.of(2, 3, 1, 4, 5, 6, 7, 8)
+                .mapToObj(id -> Account.builder().id(id).name("account " + id).balance(id).build())
+                .toList();
+
+        List<BatchResultWithData<Account>> results = accountService.batchCreate(models, 8);
+
+        assertEquals(8, results.size());
+        assertEquals(BatchOperationStatus.FAILED, results.get(2).getStatus());
+        Assertions.assertTrue(results.get(2).getMessage().contains("fails for entity"));
+        results.stream().filter(result -> result != results.get(2))
+                .forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        assertEquals(8, accountRepository.count());
+        assertEquals("existing", accountRepository.findById(1L).orElseThrow().getName());
+        assertEquals(0L, accountRepository.findById(2L).orElseThrow().getVersion());
+        assertEquals(6, accountService.getMetrics().getCounter(JpaBatchCrudService.BATCH_CREATE_RETRIES_METRIC));
+    }
+
+    @Test
+    public void testGeneratedIdsRestoredForRetry() {
+        TestingEntityBatching tooLong = new TestingEntityBatching(null, "x".repeat(300));
+        List<TestingEntityBatching> models = List.of(
+                new TestingEntityBatching(null, "first"),
+                tooLong,
+                new TestingEntityBatching(null, ""),
+                new TestingEntityBatching(null, "second"));
+
+        List<BatchResultWithData<TestingEntityBatching>> results = batchEntityService.batchCreate(models);
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED,
+                        BatchOperationStatus.FAILED, BatchOperationStatus.SUCCESS),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        Assertions.assertNotNull(results.get(0).getData().getId());
+        Assertions.assertNotNull(results.get(3).getData().getId());
+        Assertions.assertNull(tooLong.getId());
+        Assertions.assertNull(tooLong.getVersion());
+        assertEquals(2, batchEntityService.countAll());
+    }
+
+    @Test
+    public void testInvalidBatchSizeRejected() {
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> accountService.batchCreate(List.of(Account.builder().id(2L).name("a").build()), 0));
+        assertEquals(1, accountRepository.count());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaBatchCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.model.TestNestedEntity;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestNestedEntityRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({BatchDeleteTest.TestEntityBatchService.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchDeleteTest {
+    @Autowired
+    private TestEntityBatchService service;
+    @Autowired
+    private TestEntityRepository testEntityRepository;
+    @Autowired
+    private TestNestedEntityRepository nestedRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        deleteRows();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 1; id <= 4; id++) {
+                testEntityRepository.save(TestEntity.builder().id(id).name("entity " + id).isDeleted(id == 4).build());
+            }
+            TestEntity parent = testEntityRepository.findById(1L).orElseThrow();
+            TestNestedEntity child = nestedRepository.save(TestNestedEntity.builder().parent(parent).build());
+            parent.setNested(new ArrayList<>(List.of(child)));
+        });
+        service.getMetrics().reset();
+    }
+
+    @AfterEach
+    public void deleteRows() {
+        service.setCascadeBatchDelete(false);
+        testEntityRepository.deleteAll();
+        nestedRepository.deleteAll();
+    }
+
+    @Test
+    public void testOutcomeDerivedFromExistingIds() {
+        List<BatchResultWithData<Long>> results = service.batchDelete(List.of(2L, 999L, 3L, 2L, 4L), 10);
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED, BatchOperationStatus.SUCCESS,
+                        BatchOperationStatus.FAILED, BatchOperationStatus.FAILED),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        assertEquals(2L, results.get(0).getData());
+        Assertions.assertTrue(results.get(1).getMessage().contains("999"));
+        assertEquals(List.of(1L, 4L), testEntityRepository.findAll().stream().map(TestEntity::getId).sorted().toList());
+        assertEquals(0, service.getMetrics().getCounter(JpaBatchCrudService.BATCH_DELETE_RETRIES_METRIC));
+    }
+
+    @Test
+    public void testReferencedRowIsolated() {
+        List<BatchResultWithData<Long>> results = service.batchDelete(List.of(2L, 1L, 3L), 10);
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED, BatchOperationStatus.SUCCESS),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        Assertions.assertTrue(testEntityRepository.existsById(1L));
+        assertEquals(1, nestedRepository.count());
+        assertEquals(4, service.getMetrics().getCounter(JpaBatchCrudService.BATCH_DELETE_RETRIES_METRIC));
+    }
+
+    @Test
+    public void testCascadeBatchDelete() {
+        service.setCascadeBatchDelete(true);
+
+        List<BatchResultWithData<Long>> results = service.batchDelete(List.of(1L, 2L, 4L));
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        assertEquals(0, nestedRepository.count());
+        assertEquals(List.of(3L, 4L), testEntityRepository.findAll().stream().map(TestEntity::getId).sorted().toList());
+    }
+
+    public static class TestEntityBatchService extends JpaBatchCrudService<TestEntity, Long> {
+        public TestEntityBatchService(JpaRepository<TestEntity, Long> repository,
+                                      JpaSpecificationExecutor<TestEntity> specificationExecutor,
+                                      EntityManager persistenceContext,
+                                      TransactionTemplate transactionTemplate,
+                                      Validator validator) {
+            super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.BatchOperationException;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaBatchCrudService;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.BatchTestEntityServiceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({UpsertAllTest.AccountBatchService.class, BatchTestEntityServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchUpdateTest {
+    @Autowired
+    private UpsertAllTest.AccountBatchService accountService;
+    @Autowired
+    private BatchTestEntityServiceImpl batchEntityService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        batchEntityService.deleteAll();
+        userRepository.deleteAll();
+        for (long id = 1; id <= 3; id++) {
+            accountRepository.save(Account.builder().id(id).name("account " + id).description("description")
+                    .balance(10L).build());
+        }
+        accountService.getMetrics().reset();
+    }
+
+    @Test
+    public void testVersionCheckedPerItem() {
+        Account unversioned = Account.builder().id(3L).name("unversioned").balance(30L).build();
+        List<BatchResultWithData<Account>> results = accountService.batchUpdate(List.of(
+                Account.builder().id(1L).name("renamed").balance(20L).version(0L).build(),
+                Account.builder().id(2L).name("stale").balance(20L).version(5L).build(),
+                Account.builder().id(99L).name("missing").build(),
+                unversioned), 10);
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED,
+                        BatchOperationStatus.FAILED, BatchOperationStatus.SUCCESS),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        assertEquals(1L, results.get(0).getData().getVersion());
+        Account renamed = accountRepository.findById(1L).orElseThrow();
+        assertEquals("renamed", renamed.getName());
+        Assertions.assertNull(renamed.getDescription());
+        assertEquals("account 2", accountRepository.findById(2L).orElseThrow().getName());
+        assertEquals(30L, accountRepository.findById(3L).orElseThrow().getBalance());
+        Assertions.assertNull(unversioned.getVersion());
+        assertEquals(1, accountService.getMetrics().getCounter(JpaCrudService.UPDATE_CONFLICT_METRIC));
+    }
+
+    @Test
+    public void testFlushFailureIsolatedByBisection() {
+        List<BatchResultWithData<Account>> results = accountService.batchUpdate(List.of(
+                Account.builder().id(1L).name("renamed").balance(20L).build(),
+                Account.builder().id(2L).name("stale").balance(20L).version(5L).build(),
+                Account.builder().id(3L).name("x".repeat(300)).balance(30L).build()), 10);
+
+        assertEquals(List.of(BatchOperationStatus.SUCCESS, BatchOperationStatus.FAILED, BatchOperationStatus.FAILED),
+                results.stream().map(BatchResultWithData::getStatus).toList());
+        assertEquals("renamed", accountRepository.findById(1L).orElseThrow().getName());
+        assertEquals("account 3", accountRepository.findById(3L).orElseThrow().getName());
+        assertEquals(4, accountService.getMetrics().getCounter(JpaBatchCrudService.BATCH_UPDATE_RETRIES_METRIC));
+        assertEquals(1, accountService.getMetrics().getCounter(JpaCrudService.UPDATE_CONFLICT_METRIC));
+    }
+
+    @Test
+    public void testChunkWrittenInOneJdbcBatch() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        List<BatchResultWithData<Account>> results = accountService.batchUpdate(LongStream.rangeClosed(1, 3)
+                .mapToObj(id -> Account.builder().id(id).name("renamed " + id).balance(id).build())
+                .toList(), 10);
+        stats.setStatisticsEnabled(false);
+
+        results.forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        assertEquals(3, stats.getEntityUpdateCount());
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCallerEntitiesStayManagedInAtomicUpdate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account managed = entityManager.find(Account.class, 3L);
+
+            accountService.batchUpdateAtomic(List.of(Account.builder().id(1L).name("renamed").balance(20L).build()));
+
+            Assertions.assertTrue(entityManager.contains(managed));
+            managed.setName("changed by caller");
+        });
+        assertEquals("renamed", accountRepository.findById(1L).orElseThrow().getName());
+        assertEquals("changed by caller", accountRepository.findById(3L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testPatchKeepsOtherProperties() {
+        Map<Long, Account> patches = new LinkedHashMap<>();
+        patches.put(1L, Account.builder().balance(50L).build());
+        patches.put(2L, Account.builder().description("patched").build());
+
+        List<BatchResultWithData<Account>> results = accountService.batchPatch(patches, 1);
+
+        results.forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        Account first = accountRepository.findById(1L).orElseThrow();
+        assertEquals(50L, first.getBalance());
+        assertEquals("description", first.getDescription());
+        Account second = accountRepository.findById(2L).orElseThrow();
+        assertEquals("patched", second.getDescription());
+        assertEquals(10L, second.getBalance());
+        assertEquals(1L, second.getVersion());
+    }
+
+    @Test
+    public void testAtomicUpdateRolledBackOnConflict() {
+        Assertions.assertThrows(BatchOperationException.class, () -> accountService.batchUpdateAtomic(List.of(
+                Account.builder().id(1L).name("renamed").build(),
+                Account.builder().id(2L).name("stale").version(5L).build()), 1));
+        assertEquals("account 1", accountRepository.findById(1L).orElseThrow().getName());
+
+        List<Account> updated = accountService.batchPatchAtomic(Map.of(1L, Account.builder().name("renamed").build()));
+        assertEquals(1, updated.size());
+        assertEquals("renamed", accountRepository.findById(1L).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,108 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.exception.SoftDeleteUnsupportedException;
+import ru.korovin.packages.fasterjpa.service.ChunkOptions;
+import ru.korovin.packages.fasterjpa.service.ChunkProgress;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.AccountServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestEntityCrudServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.equal;
+
+@Import({TestEntityCrudServiceImpl.class, AccountServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChunkedDeleteTest {
+    private static final int FLAGGED = 10;
+
+    @Autowired
+    private TestEntityCrudServiceImpl testEntityService;
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private TestEntityRepository testEntityRepository;
+
+    @BeforeEach
+    public void setUp() {
+        testEntityRepository.deleteAll();
+        for (long id = 1; id <= FLAGGED + 2; id++) {
+            testEntityRepository.save(TestEntity.builder().id(id).name("entity " + id)
+                    .flag(id <= FLAGGED).isDeleted(false).build());
+        }
+    }
+
+    @Test
+    public void testDeleteCommitsEveryChunk() {
+        List<ChunkProgress> progress = new ArrayList<>();
+        long deleted = testEntityService.deleteByFilterChunked(equal("flag", true), ChunkOptions.builder()
+                .chunkSize(3)
+                .progressListener(progress::add)
+                .build());
+
+        assertEquals(FLAGGED, deleted);
+        assertEquals(List.of(3, 3, 3, 1), progress.stream().map(ChunkProgress::affected).toList());
+        assertEquals(FLAGGED, progress.get(progress.size() - 1).totalAffected());
+        assertEquals(2, testEntityRepository.count());
+    }
+
+    @Test
+    public void testFailedRunResumes() {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> testEntityService.deleteByFilterChunked(equal("flag", true), ChunkOptions.builder()
+                        .chunkSize(3)
+                        .progressListener(progress -> {
+                            if (progress.chunk() == 2) {
+                                throw new IllegalStateException("сбой");
+                            }
+                        })
+                        .build()));
+        assertEquals(FLAGGED + 2 - 6, testEntityRepository.count());
+
+        assertEquals(FLAGGED - 6, testEntityService.deleteByFilterChunked(equal("flag", true), 3, Duration.ofMillis(1)));
+        assertEquals(2, testEntityRepository.count());
+    }
+
+    @Test
+    public void testSoftDeleteCancelledAndResumed() {
+        List<ChunkProgress> progress = new ArrayList<>();
+        long softDeleted = testEntityService.softDeleteByFilterChunked(equal("flag", true), ChunkOptions.builder()
+                .chunkSize(4)
+                .progressListener(progress::add)
+                .cancelled(() -> progress.size() == 1)
+                .build());
+
+        assertEquals(4, softDeleted);
+        assertEquals(FLAGGED + 2 - 4, testEntityService.countAll());
+        assertEquals(FLAGGED - 4, testEntityService.softDeleteByFilterChunked(equal("flag", true), 4, Duration.ZERO));
+        assertEquals(0, testEntityService.softDeleteByFilterChunked(equal("flag", true), 4, Duration.ZERO));
+        assertEquals(2, testEntityService.countAll());
+        assertEquals(FLAGGED + 2, testEntityRepository.count());
+    }
+
+    @Test
+    public void testInvalidOptionsRejected() {
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> testEntityService.deleteByFilterChunked(equal("flag", true), 0, Duration.ZERO));
+        Assertions.assertThrows(SoftDeleteUnsupportedException.class,
+                () -> accountService.softDeleteByFilterChunked(equal("name", "main"), 10, Duration.ZERO));
+        assertEquals(FLAGGED + 2, testEntityRepository.count());
+    }
+}
@@ -0,0 +1,139 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.AutoConfigurationSource;
+import ru.korovin.packages.fasterjpa.exception.ValidationException;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.model.TestingEntityBatching;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.BatchTestEntityServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestEntityCrudServiceImpl;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({TestEntityCrudServiceImpl.class, BatchTestEntityServiceImpl.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(AutoConfigurationSource.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CreateAllTest {
+    @Autowired
+    private TestEntityCrudServiceImpl testEntityService;
+    @Autowired
+    private BatchTestEntityServiceImpl batchEntityService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        testEntityService.deleteAll();
+        batchEntityService.deleteAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testEntityService.setCreateChunkSize(JpaCrudService.DEFAULT_CREATE_CHUNK_SIZE);
+        batchEntityService.setParallelValidation(false);
+    }
+
+    @Test
+    public void testChunksSentAsJdbcBatches() {
+        testEntityService.setCreateChunkSize(100);
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        List<TestEntity> created = testEntityService.createAll(generate(1, 1_000));
+        stats.setStatisticsEnabled(false);
+
+        assertEquals(1_000, created.size());
+        assertEquals(1_000, stats.getEntityInsertCount());
+        assertEquals(10, stats.getPrepareStatementCount());
+        assertEquals(1_000, testEntityService.countAll());
+    }
+
+    @Test
+    public void testCallerEntitiesStayManaged() {
+        testEntityService.createAll(generate(1, 1));
+        testEntityService.setCreateChunkSize(2);
+        transactionTemplate.executeWithoutResult(status -> {
+            TestEntity existing = entityManager.find(TestEntity.class, 1L);
+            existing.setName("changed");
+            List<TestEntity> created = testEntityService.createAll(generate(2, 5));
+            Assertions.assertTrue(entityManager.contains(existing));
+            created.forEach(entity -> Assertions.assertFalse(entityManager.contains(entity)));
+        });
+        assertEquals("changed", testEntityService.getById(1L).getName());
+        assertEquals(6, testEntityService.countAll());
+    }
+
+    @Test
+    public void testOpenSessionEntitiesStayManaged() {
+        testEntityService.createAll(generate(1, 1));
+        testEntityService.setCreateChunkSize(2);
+        EntityManager openEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(openEntityManager));
+        try {
+            TestEntity existing = openEntityManager.find(TestEntity.class, 1L);
+            List<TestEntity> created = testEntityService.createAll(generate(2, 5));
+            Assertions.assertTrue(openEntityManager.contains(existing));
+            created.forEach(entity -> Assertions.assertFalse(openEntityManager.contains(entity)));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            openEntityManager.close();
+        }
+        assertEquals(6, testEntityService.countAll());
+    }
+
+    @Test
+    public void testModelsValidatedBeforeInsert() {
+        batchEntityService.setParallelValidation(true);
+        List<TestingEntityBatching> models = List.of(
+                new TestingEntityBatching(null, "first"),
+                new TestingEntityBatching(null, "second"),
+                new TestingEntityBatching(null, " "));
+        ValidationException e = Assertions.assertThrows(ValidationException.class,
+                () -> batchEntityService.createAll(models));
+        Assertions.assertTrue(e.getMessage().contains("индексом 2"), e.getMessage());
+        Assertions.assertTrue(e.getErrors().containsKey("name"));
+        assertEquals(0, batchEntityService.countAll());
+    }
+
+    @Test
+    public void testOrderedWritesEnabled() {
+        assertEquals("true", entityManagerFactory.getProperties().get(AvailableSettings.ORDER_INSERTS));
+        assertEquals("true", entityManagerFactory.getProperties().get(AvailableSettings.ORDER_UPDATES));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> testEntityService.setCreateChunkSize(0));
+    }
+
+    private static List<TestEntity> generate(long fromId, int count) {
+        return LongStream.range(fromId, fromId + count)
+                .mapToObj(id -> TestEntity.builder().id(id).name("entity" + id).isDeleted(false).build())
+                .toList();
+    }
+}
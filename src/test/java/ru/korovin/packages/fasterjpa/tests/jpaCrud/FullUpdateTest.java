@@ -0,0 +1,176 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.EntityProcessingException;
+import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
+import ru.korovin.packages.fasterjpa.instrumentation.Histogram;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecording;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.AccountServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({AccountServiceImpl.class, UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FullUpdateTest {
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserServiceImpl userService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        User owner = userRepository.save(User.generateUser(1L));
+        userRepository.save(User.generateUser(2L));
+        accountRepository.save(Account.builder().id(1L).name("main").description("description").balance(10L)
+                .owner(owner).build());
+        accountService.getMetrics().reset();
+    }
+
+    @Test
+    public void testOnlyChangedColumnsWritten() {
+        Account model = accountRepository.findById(1L).orElseThrow();
+        model.setName("renamed");
+        List<String> updates = recordUpdates(() -> accountService.fullUpdate(model));
+
+        assertEquals(1, updates.size());
+        String update = updates.get(0);
+        Assertions.assertTrue(update.contains("name=?") && update.contains("version=?"), update);
+        Assertions.assertFalse(update.contains("description") || update.contains("balance"), update);
+        Assertions.assertTrue(update.matches(".*where .*id=\\? and .*version=\\?.*"), update);
+        assertEquals(1L, model.getVersion());
+        Account saved = accountRepository.findById(1L).orElseThrow();
+        assertEquals("renamed", saved.getName());
+        assertEquals("description", saved.getDescription());
+        assertEquals(1L, saved.getVersion());
+        assertEquals(1.0, getColumnsHistogram().getMean());
+    }
+
+    @Test
+    public void testStaleVersionRejected() {
+        Account stale = accountRepository.findById(1L).orElseThrow();
+        Account fresh = accountRepository.findById(1L).orElseThrow();
+        fresh.setBalance(20L);
+        accountService.fullUpdate(fresh);
+
+        stale.setName("stale");
+        EntityProcessingException e = Assertions.assertThrows(EntityProcessingException.class,
+                () -> accountService.fullUpdate(stale));
+        Assertions.assertInstanceOf(OptimisticLockException.class, e.getCause());
+        assertEquals(1, accountService.getMetrics().getCounter(JpaCrudService.UPDATE_CONFLICT_METRIC));
+        assertEquals("main", accountRepository.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testUnchangedModelWritesNothing() {
+        Account model = accountRepository.findById(1L).orElseThrow();
+        assertEquals(0, recordUpdates(() -> accountService.fullUpdate(model)).size());
+        assertEquals(0L, accountRepository.findById(1L).orElseThrow().getVersion());
+        assertEquals(0, getColumnsHistogram().getMax());
+    }
+
+    @Test
+    public void testAssociationChangeWrittenByPersistenceContext() {
+        Account model = accountRepository.findById(1L).orElseThrow();
+        model.setOwner(userRepository.findById(2L).orElseThrow());
+        model.setDescription(null);
+        assertEquals(1, recordUpdates(() -> accountService.fullUpdate(model)).size());
+
+        Account saved = accountService.getById(1L);
+        assertEquals(1L, saved.getVersion());
+        Assertions.assertNull(saved.getDescription());
+        assertEquals(2L, accountRepository.findAll().get(0).getOwner().getId());
+        assertEquals(2L, getColumnsHistogram().getSum());
+    }
+
+    @Test
+    public void testUpdateTimestampAndCollectionWrittenByPersistenceContext() throws InterruptedException {
+        User model = userRepository.findById(1L).orElseThrow();
+        LocalDateTime updatedAt = model.getUpdatedAt();
+        model.setFirstName("Renamed");
+        model.setRoles(Set.of("ADMIN"));
+        Thread.sleep(5);
+        List<String> updates = recordUpdates(() -> userService.fullUpdate(model));
+
+        Assertions.assertTrue(updates.stream().allMatch(update -> update.contains("updated_at")), updates.toString());
+        transactionTemplate.executeWithoutResult(status -> {
+            User saved = userRepository.findById(1L).orElseThrow();
+            assertEquals("Renamed", saved.getFirstName());
+            assertEquals(Set.of("ADMIN"), saved.getRoles());
+            Assertions.assertTrue(saved.getUpdatedAt().isAfter(updatedAt));
+        });
+    }
+
+    @Test
+    public void testCallerManagedEntityStaysManaged() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account managed = entityManager.find(Account.class, 1L);
+
+            accountService.fullUpdate(Account.builder().id(1L).name("renamed").description("description")
+                    .balance(10L).owner(managed.getOwner()).build());
+
+            Assertions.assertTrue(entityManager.contains(managed));
+            assertEquals("renamed", managed.getName());
+            managed.setBalance(99L);
+        });
+        Account saved = accountRepository.findById(1L).orElseThrow();
+        assertEquals("renamed", saved.getName());
+        assertEquals(99L, saved.getBalance());
+    }
+
+    @Test
+    public void testMissingEntityRejected() {
+        Assertions.assertThrows(ResourceNotFoundException.class,
+                () -> accountService.fullUpdate(Account.builder().id(2L).name("missing").build()));
+    }
+
+    private List<String> recordUpdates(Supplier<?> call) {
+        try (StatementRecording recording = StatementRecorder.start()) {
+            call.get();
+            return recording.getStatements().stream()
+                    .map(StatementRecording.Statement::sql)
+                    .filter(sql -> sql.startsWith("update"))
+                    .toList();
+        }
+    }
+
+    private Histogram getColumnsHistogram() {
+        return accountService.getMetrics().findHistogram(JpaCrudService.UPDATE_COLUMNS_METRIC).orElseThrow();
+    }
+}
@@ -0,0 +1,172 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.EntityProcessingException;
+import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
+import ru.korovin.packages.fasterjpa.instrumentation.Histogram;
+import ru.korovin.packages.fasterjpa.routing.RoutingContext;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestEntityCrudServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({TestEntityCrudServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GroupCommitTest {
+    private static final int WRITERS = 20;
+
+    @Autowired
+    private TestEntityCrudServiceImpl testEntityService;
+    @Autowired
+    private TestEntityRepository testEntityRepository;
+
+    @BeforeEach
+    public void setUp() {
+        testEntityRepository.deleteAll();
+        testEntityService.getMetrics().reset();
+        testEntityService.enableGroupCommit(WRITERS, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testEntityService.disableGroupCommit();
+        testEntityRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentCreatesShareGroups() {
+        List<CompletableFuture<TestEntity>> created = runConcurrently(LongStream.rangeClosed(1, WRITERS).boxed().toList());
+
+        created.forEach(CompletableFuture::join);
+        assertEquals(WRITERS, testEntityRepository.count());
+        Histogram groups = testEntityService.getMetrics()
+                .findHistogram(JpaCrudService.GROUP_COMMIT_SIZE_METRIC).orElseThrow();
+        Assertions.assertTrue(groups.getCount() < WRITERS, groups.toString());
+        assertEquals(WRITERS, groups.getSum());
+    }
+
+    @Test
+    public void testFailedOperationDoesNotFailGroup() {
+        testEntityRepository.save(TestEntity.builder().id(1L).name("existing").isDeleted(false).build());
+
+        List<CompletableFuture<TestEntity>> created = runConcurrently(List.of(1L, 2L, 3L, 4L));
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> created.get(0).join());
+        Assertions.assertInstanceOf(EntityProcessingException.class, e.getCause());
+        created.subList(1, created.size()).forEach(CompletableFuture::join);
+        assertEquals(4, testEntityRepository.count());
+        assertEquals("existing", testEntityRepository.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testMissingIdDoesNotFailGroup() {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<CompletableFuture<?>> operations = new ArrayList<>();
+            for (long id = 1; id < WRITERS; id++) {
+                long entityId = id;
+                operations.add(CompletableFuture.runAsync(() -> testEntityService.create(
+                        TestEntity.builder().id(entityId).name("entity " + entityId).isDeleted(false).build()), executor));
+            }
+            CompletableFuture<Void> missing = CompletableFuture.runAsync(() -> testEntityService.deleteById(999L), executor);
+
+            CompletionException e = Assertions.assertThrows(CompletionException.class, missing::join);
+            Assertions.assertInstanceOf(ResourceNotFoundException.class, e.getCause());
+            operations.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(WRITERS - 1, testEntityRepository.count());
+        assertEquals(0, testEntityService.getMetrics().getCounter(JpaCrudService.GROUP_COMMIT_FALLBACK_METRIC));
+    }
+
+    @Test
+    public void testDeletesThroughGroup() {
+        testEntityService.create(TestEntity.builder().id(1L).name("entity").isDeleted(false).build());
+        testEntityService.create(TestEntity.builder().id(2L).name("entity").isDeleted(false).build());
+
+        testEntityService.softDeleteById(1L);
+        testEntityService.deleteById(2L);
+
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> testEntityService.deleteById(2L));
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> testEntityService.softDeleteById(3L));
+        assertEquals(1, testEntityRepository.count());
+        assertEquals(0, testEntityService.countAll());
+    }
+
+    @Test
+    public void testDisabledGroupCommit() {
+        testEntityService.disableGroupCommit();
+        Assertions.assertFalse(testEntityService.isGroupCommitEnabled());
+
+        testEntityService.create(TestEntity.builder().id(1L).name("entity").isDeleted(false).build());
+        testEntityService.deleteById(1L);
+
+        assertEquals(0, testEntityRepository.count());
+        assertEquals(0L, testEntityService.getMetrics().findHistogram(JpaCrudService.GROUP_COMMIT_SIZE_METRIC)
+                .map(Histogram::getCount).orElse(0L));
+    }
+
+    @Test
+    public void testWriteMarkedOnCallingThread() {
+        RoutingContext.clear();
+        try {
+            Assertions.assertThrows(ResourceNotFoundException.class, () -> testEntityService.deleteById(1L));
+            Assertions.assertTrue(RoutingContext.getLastWriteNanos().isEmpty());
+
+            testEntityService.create(TestEntity.builder().id(1L).name("entity").isDeleted(false).build());
+
+            Assertions.assertTrue(RoutingContext.getLastWriteNanos().isPresent());
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+
+    @Test
+    public void testCommitterStoppedOnDestroy() {
+        testEntityService.destroy();
+
+        Assertions.assertFalse(testEntityService.isGroupCommitEnabled());
+        testEntityService.create(TestEntity.builder().id(1L).name("entity").isDeleted(false).build());
+        assertEquals(0L, testEntityService.getMetrics().findHistogram(JpaCrudService.GROUP_COMMIT_SIZE_METRIC)
+                .map(Histogram::getCount).orElse(0L));
+    }
+
+    private List<CompletableFuture<TestEntity>> runConcurrently(List<Long> ids) {
+        ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        try {
+            List<CompletableFuture<TestEntity>> futures = new ArrayList<>();
+            for (Long id : ids) {
+                futures.add(CompletableFuture.supplyAsync(() -> testEntityService.create(
+                        TestEntity.builder().id(id).name("entity " + id).isDeleted(false).build()), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            return futures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
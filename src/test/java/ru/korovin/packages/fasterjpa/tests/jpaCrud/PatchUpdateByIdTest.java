@@ -0,0 +1,135 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.exception.ValidationException;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecording;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.model.TestingEntityBatching;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.BatchTestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.AccountServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.BatchTestEntityServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestEntityCrudServiceImpl;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({AccountServiceImpl.class, TestEntityCrudServiceImpl.class, BatchTestEntityServiceImpl.class,
+        UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PatchUpdateByIdTest {
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private TestEntityCrudServiceImpl testEntityService;
+    @Autowired
+    private BatchTestEntityServiceImpl batchEntityService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TestEntityRepository testEntityRepository;
+    @Autowired
+    private BatchTestEntityRepository batchEntityRepository;
+    @Autowired
+    private UserServiceImpl userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        testEntityRepository.deleteAll();
+        batchEntityRepository.deleteAll();
+        accountRepository.save(Account.builder().id(1L).name("main").description("description").balance(10L).build());
+    }
+
+    @Test
+    public void testPatchIsSingleStatement() {
+        try (StatementRecording recording = StatementRecorder.start()) {
+            assertEquals(1, accountService.patchUpdateById(1L, Account.builder().name("renamed").build()));
+            List<StatementRecording.Statement> statements = recording.getStatements();
+            assertEquals(1, statements.size());
+            String update = statements.get(0).sql();
+            Assertions.assertTrue(update.startsWith("update") && update.contains("name=?"), update);
+            Assertions.assertFalse(update.contains("description") || update.contains("balance"), update);
+        }
+        Account saved = accountRepository.findById(1L).orElseThrow();
+        assertEquals("renamed", saved.getName());
+        assertEquals("description", saved.getDescription());
+        assertEquals(1L, saved.getVersion());
+        assertEquals(0, accountService.patchUpdateById(2L, Account.builder().name("missing").build()));
+    }
+
+    @Test
+    public void testVersionGuard() {
+        assertEquals(0, accountService.patchUpdateById(1L, Account.builder().balance(20L).version(5L).build()));
+        assertEquals(10L, accountRepository.findById(1L).orElseThrow().getBalance());
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("description", null);
+        values.put("version", 0L);
+        assertEquals(1, accountService.patchUpdateById(1L, values));
+        Account saved = accountRepository.findById(1L).orElseThrow();
+        Assertions.assertNull(saved.getDescription());
+        assertEquals(1L, saved.getVersion());
+    }
+
+    @Test
+    public void testUpdateTimestampWritten() throws InterruptedException {
+        userRepository.deleteAll();
+        LocalDateTime updatedAt = userRepository.save(User.generateUser(1L)).getUpdatedAt();
+        Thread.sleep(5);
+
+        assertEquals(1, userService.patchUpdateById(1L, Map.of("firstName", "Patched")));
+        User saved = userRepository.findById(1L).orElseThrow();
+        assertEquals("Patched", saved.getFirstName());
+        Assertions.assertTrue(saved.getUpdatedAt().isAfter(updatedAt));
+    }
+
+    @Test
+    public void testSoftDeletedEntityNotPatched() {
+        testEntityRepository.save(TestEntity.builder().id(1L).name("deleted").isDeleted(true).build());
+        assertEquals(0, testEntityService.patchUpdateById(1L, Map.of("name", "restored")));
+        assertEquals("deleted", testEntityRepository.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testInvalidPatchRejected() {
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> accountService.patchUpdateById(1L, Map.of("unknown", 1)));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> accountService.patchUpdateById(1L, Map.of("id", 2L)));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> accountService.patchUpdateById(1L, new Account()));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> testEntityService.patchUpdateById(1L, TestEntity.builder().tags(List.of("tag")).build()));
+
+        Long id = batchEntityRepository.save(new TestingEntityBatching(null, "valid")).getId();
+        ValidationException e = Assertions.assertThrows(ValidationException.class,
+                () -> batchEntityService.patchUpdateById(id, Map.of("name", " ")));
+        Assertions.assertTrue(e.getErrors().containsKey("name"));
+    }
+}
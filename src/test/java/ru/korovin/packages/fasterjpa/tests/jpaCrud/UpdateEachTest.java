@@ -0,0 +1,120 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecording;
+import ru.korovin.packages.fasterjpa.service.UpdateSpecification;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.AccountServiceImpl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.korovin.packages.fasterjpa.service.UpdateSpecification.minus;
+import static ru.korovin.packages.fasterjpa.service.UpdateSpecification.updateValue;
+
+@Import({AccountServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UpdateEachTest {
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            accountRepository.save(Account.builder().id(id).name("account " + id).description("description")
+                    .balance(100L).build());
+        }
+        accountService.getMetrics().reset();
+    }
+
+    @Test
+    public void testDifferentValuesFoldedIntoOneStatement() {
+        Map<Long, UpdateSpecification> updates = new LinkedHashMap<>();
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            updates.put(id, minus("balance", id));
+        }
+        updates.put(99L, minus("balance", 1L));
+
+        List<BatchResultWithData<Long>> results;
+        List<String> statements;
+        try (StatementRecording recording = StatementRecorder.start()) {
+            results = accountService.updateEach(updates);
+            statements = recording.getStatements().stream()
+                    .map(StatementRecording.Statement::sql)
+                    .filter(sql -> sql.startsWith("update"))
+                    .toList();
+        }
+
+        assertEquals(1, statements.size());
+        Assertions.assertTrue(statements.get(0).contains("case"), statements.get(0));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 99L), results.stream().map(BatchResultWithData::getData).toList());
+        results.subList(0, ACCOUNTS).forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        assertEquals(BatchOperationStatus.FAILED, results.get(ACCOUNTS).getStatus());
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            assertEquals(100L - id, accountRepository.findById(id).orElseThrow().getBalance());
+        }
+    }
+
+    @Test
+    public void testSpecificationsGroupedByShape() {
+        Map<Long, UpdateSpecification> updates = new LinkedHashMap<>();
+        updates.put(1L, minus("balance", 10L));
+        updates.put(2L, updateValue("name", "renamed"));
+        updates.put(3L, updateValue("name", "renamed"));
+        updates.put(4L, minus("balance", 20L));
+        updates.put(5L, new UpdateSpecification(Map.of()));
+
+        List<String> statements;
+        try (StatementRecording recording = StatementRecorder.start()) {
+            accountService.updateEach(updates).subList(0, 4)
+                    .forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+            statements = recording.getStatements().stream()
+                    .map(StatementRecording.Statement::sql)
+                    .filter(sql -> sql.startsWith("update"))
+                    .toList();
+        }
+
+        assertEquals(2, statements.size());
+        Assertions.assertFalse(statements.get(1).contains("case"), statements.get(1));
+        assertEquals(90L, accountRepository.findById(1L).orElseThrow().getBalance());
+        assertEquals(80L, accountRepository.findById(4L).orElseThrow().getBalance());
+        assertEquals("renamed", accountRepository.findById(3L).orElseThrow().getName());
+        assertEquals("account 5", accountRepository.findById(5L).orElseThrow().getName());
+        assertEquals(2.0, accountService.getMetrics()
+                .findHistogram(JpaCrudService.UPDATE_EACH_GROUPS_METRIC).orElseThrow().getMean());
+    }
+
+    @Test
+    public void testNullValueFolded() {
+        accountService.updateEach(Map.of(
+                1L, updateValue("description", null),
+                2L, updateValue("description", "changed")));
+
+        Assertions.assertNull(accountRepository.findById(1L).orElseThrow().getDescription());
+        assertEquals("changed", accountRepository.findById(2L).orElseThrow().getDescription());
+    }
+}
@@ -0,0 +1,182 @@
+package ru.korovin.packages.fasterjpa.tests.jpaCrud;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.service.batching.BatchOperationStatus;
+import ru.korovin.packages.fasterjpa.service.batching.BatchResultWithData;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaBatchCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Account;
+import ru.korovin.packages.fasterjpa.testProject.model.EducationProgram;
+import ru.korovin.packages.fasterjpa.testProject.model.TestingEntityBatching;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.AccountRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.EducationProgramRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.BatchTestEntityServiceImpl;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({UpsertAllTest.AccountBatchService.class, BatchTestEntityServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UpsertAllTest {
+    @Autowired
+    private AccountBatchService accountService;
+    @Autowired
+    private BatchTestEntityServiceImpl batchEntityService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EducationProgramRepository educationProgramRepository;
+    @Autowired
+    private Validator validator;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository.deleteAll();
+        batchEntityService.deleteAll();
+        userRepository.deleteAll();
+        User owner = userRepository.save(User.generateUser(1L));
+        accountRepository.save(Account.builder().id(1L).name("main").description("description").balance(10L)
+                .owner(owner).build());
+    }
+
+    @Test
+    public void testUpsertById() {
+        User owner = userRepository.findById(1L).orElseThrow();
+        List<Account> models = List.of(
+                Account.builder().id(1L).name("main").description("updated").balance(20L).owner(owner).build(),
+                Account.builder().id(2L).name("second").balance(5L).build(),
+                Account.builder().id(3L).name("third").balance(7L).build());
+
+        List<BatchResultWithData<Account>> results = accountService.upsertAll(models, List.of("id"), 2);
+
+        assertEquals(3, results.size());
+        results.forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        assertEquals(3, accountRepository.count());
+        Account updated = accountRepository.findById(1L).orElseThrow();
+        assertEquals("updated", updated.getDescription());
+        assertEquals(20L, updated.getBalance());
+        assertEquals(1L, updated.getVersion());
+        Account inserted = accountRepository.findById(2L).orElseThrow();
+        assertEquals("second", inserted.getName());
+        assertEquals(0L, inserted.getVersion());
+        Assertions.assertNull(inserted.getDescription());
+    }
+
+    @Test
+    public void testUpsertByUniqueProperty() {
+        List<BatchResultWithData<TestingEntityBatching>> results = batchEntityService.upsertAll(List.of(
+                TestingEntityBatching.builder().name("first").someValue(1).build(),
+                TestingEntityBatching.builder().name("second").someValue(2).build()), List.of("name"));
+        results.forEach(result -> assertEquals(BatchOperationStatus.SUCCESS, result.getStatus()));
+        assertEquals(2, batchEntityService.countAll());
+
+        List<Long> ids = results.stream().map(result -> result.getData().getId()).toList();
+        Assertions.assertTrue(ids.stream().allMatch(Objects::nonNull), ids.toString());
+
+        List<BatchResultWithData<TestingEntityBatching>> upserted = batchEntityService.upsertAll(List.of(
+                TestingEntityBatching.builder().name("first").someValue(10).build(),
+                TestingEntityBatching.builder().name("third").someValue(3).build()), List.of("name"));
+        assertEquals(ids.get(0), upserted.get(0).getData().getId());
+        Assertions.assertNotNull(upserted.get(1).getData().getId());
+        Assertions.assertFalse(ids.contains(upserted.get(1).getData().getId()));
+
+        assertEquals(3, batchEntityService.countAll());
+        List<Integer> values = entityManager.createQuery(
+                        "select e.someValue from TestingEntityBatching e order by e.name", Integer.class)
+                .getResultList();
+        assertEquals(List.of(10, 2, 3), values);
+    }
+
+    @Test
+    public void testInvalidRowsReportedOthersWritten() {
+        List<BatchResultWithData<TestingEntityBatching>> results = batchEntityService.upsertAll(List.of(
+                TestingEntityBatching.builder().name("valid").build(),
+                TestingEntityBatching.builder().name(" ").build()), List.of("name"));
+
+        assertEquals(BatchOperationStatus.SUCCESS, results.get(0).getStatus());
+        assertEquals("upserted", results.get(0).getMessage());
+        assertEquals(BatchOperationStatus.FAILED, results.get(1).getStatus());
+        assertEquals(1, batchEntityService.countAll());
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> batchEntityService.upsertAll(List.of(new TestingEntityBatching(null, "x")), List.of("unknown")));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> batchEntityService.upsertAll(List.of(new TestingEntityBatching(null, "x")), List.of()));
+    }
+
+    @Test
+    public void testManagedInstanceDetachedInCallerTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account managed = entityManager.find(Account.class, 1L);
+            accountService.upsertAll(List.of(Account.builder().id(1L).name("main").balance(99L).build()), List.of("name"));
+            Assertions.assertFalse(entityManager.contains(managed));
+            Account reloaded = entityManager.find(Account.class, 1L);
+            assertEquals(99L, reloaded.getBalance());
+            Assertions.assertNull(reloaded.getOwner());
+        });
+    }
+
+    @Test
+    public void testNullIdRejectedWhenNotGeneratedByDatabase() {
+        EducationProgramBatchService programService = new EducationProgramBatchService(educationProgramRepository,
+                educationProgramRepository, entityManager, transactionTemplate, validator);
+        long programs = educationProgramRepository.count();
+
+        List<BatchResultWithData<EducationProgram>> programResults = programService.upsertAll(
+                List.of(EducationProgram.builder().name("sequence").build()), List.of("name"));
+        List<BatchResultWithData<Account>> accountResults = accountService.upsertAll(List.of(
+                Account.builder().name("assigned").balance(1L).build(),
+                Account.builder().id(2L).name("second").balance(2L).build()), List.of("name"));
+
+        assertEquals(BatchOperationStatus.FAILED, programResults.get(0).getStatus());
+        assertEquals(programs, educationProgramRepository.count());
+        assertEquals(List.of(BatchOperationStatus.FAILED, BatchOperationStatus.SUCCESS),
+                accountResults.stream().map(BatchResultWithData::getStatus).toList());
+        assertEquals(2, accountRepository.count());
+    }
+
+    public static class EducationProgramBatchService extends JpaBatchCrudService<EducationProgram, Long> {
+        public EducationProgramBatchService(JpaRepository<EducationProgram, Long> repository,
+                                            JpaSpecificationExecutor<EducationProgram> specificationExecutor,
+                                            EntityManager persistenceContext,
+                                            TransactionTemplate transactionTemplate,
+                                            Validator validator) {
+            super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+        }
+    }
+
+    public static class AccountBatchService extends JpaBatchCrudService<Account, Long> {
+        public AccountBatchService(JpaRepository<Account, Long> repository,
+                                   JpaSpecificationExecutor<Account> specificationExecutor,
+                                   EntityManager persistenceContext,
+                                   TransactionTemplate transactionTemplate,
+                                   Validator validator) {
+            super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+        }
+    }
+}
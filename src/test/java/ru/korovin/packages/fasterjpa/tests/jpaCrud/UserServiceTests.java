@@ -2,6 +2,7 @@ package ru.korovin.packages.fasterjpa.tests.jpaCrud;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
 import org.hibernate.SessionFactory;
 import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
@@ -11,25 +12,44 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.transaction.BeforeTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import ru.korovin.packages.fasterjpa.annotations.FieldParamMapping;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.exception.ResourceNotFoundException;
 import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.OffsetPolicy;
 import ru.korovin.packages.fasterjpa.queryparam.Sorting;
 import ru.korovin.packages.fasterjpa.queryparam.factories.Filters;
 import ru.korovin.packages.fasterjpa.queryparam.factories.Paginations;
 import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.queryparam.sortingInternal.SortingUnit;
 import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.service.MultiGetResult;
+import ru.korovin.packages.fasterjpa.service.PageableResult;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
 import ru.korovin.packages.fasterjpa.template.jpa.JpaEntityPropertyPatcher;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaScrollStream;
+import ru.korovin.packages.fasterjpa.testProject.dto.OrderSummaryDto;
+import ru.korovin.packages.fasterjpa.testProject.dto.UserContactDto;
+import ru.korovin.packages.fasterjpa.testProject.model.Order;
 import ru.korovin.packages.fasterjpa.testProject.model.User;
 import ru.korovin.packages.fasterjpa.testProject.repository.OrderRepository;
 import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.OrderService;
 import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.OrderServiceImpl;
 import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static ru.korovin.packages.fasterjpa.queryparam.factories.Filters.fb;
@@ -47,6 +67,10 @@ public class UserServiceTests {
     private EntityManager entityManager;
     private Statistics stats;
 
+    @Autowired
+    private UserServiceImpl userServiceImpl;
+    @Autowired
+    private Validator validator;
     @Autowired
     private UserRepository userRepository;
     @Autowired
@@ -140,6 +164,207 @@ public class UserServiceTests {
         assertEquals(10, users.size());
     }
 
+    @Test
+    public void testDeepOffsetRejected() {
+        userServiceImpl.setOffsetPolicy(OffsetPolicy.reject(20));
+        try {
+            Assertions.assertDoesNotThrow(() -> userService.getPage(Filter.empty(), Sortings.unsorted(), Paginations.of(2, 10)));
+            Assertions.assertThrows(InvalidParameterException.class,
+                    () -> userService.getPage(Filter.empty(), Sortings.unsorted(), Paginations.of(3, 10)));
+            assertEquals(1, userServiceImpl.getMetrics().getCounter(JpaCrudService.DEEP_OFFSET_REJECTED_METRIC));
+        } finally {
+            userServiceImpl.setOffsetPolicy(OffsetPolicy.unlimited());
+            userServiceImpl.getMetrics().reset();
+        }
+    }
+
+    @Test
+    public void testDeepOffsetKeysetFallback() {
+        userService.softDeleteByFilter(fb.and(fb.lessOrEquals("id", "5")));
+        Sorting sorting = Sortings.of(SortingUnit.desc("firstName"), SortingUnit.asc("id"));
+        User boundary = userService.getPage(Filter.empty(), sorting, Paginations.of(2, 10)).getData().getLast();
+        PageableResult<User> expected = userService.getPage(Filter.empty(), sorting, Paginations.of(3, 10));
+        userServiceImpl.setOffsetPolicy(OffsetPolicy.keysetFallback(10));
+        try {
+            Assertions.assertThrows(InvalidParameterException.class,
+                    () -> userService.getPage(Filter.empty(), Sortings.desc("firstName"), Paginations.of(3, 10)));
+            assertEquals(1, userServiceImpl.getMetrics().getCounter(JpaCrudService.DEEP_OFFSET_REJECTED_METRIC));
+
+            PageableResult<User> actual = userService.getPage(Filter.empty(), Sortings.desc("firstName"),
+                    Paginations.after(10, boundary.getFirstName(), String.valueOf(boundary.getId())));
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getPageCount(), actual.getPageCount());
+            assertEquals(expected.getData().stream().map(User::getId).toList(),
+                    actual.getData().stream().map(User::getId).toList());
+            assertEquals(1, userServiceImpl.getMetrics().getCounter(JpaCrudService.DEEP_OFFSET_KEYSET_METRIC));
+
+            Assertions.assertThrows(InvalidParameterException.class,
+                    () -> userService.getPage(Filter.empty(), Sortings.desc("firstName"), Paginations.after(10, "Smith")));
+            Assertions.assertThrows(InvalidParameterException.class,
+                    () -> userService.getPage(Filter.empty(), Sortings.desc("firstName"), Paginations.after(10, null, 1L)));
+            Assertions.assertThrows(InvalidParameterException.class,
+                    () -> userService.getPage(Filter.empty(), Sortings.asc("roles"), Paginations.after(10, 1L, 1L)));
+        } finally {
+            userServiceImpl.setOffsetPolicy(OffsetPolicy.unlimited());
+            userServiceImpl.getMetrics().reset();
+        }
+    }
+
+    @Test
+    public void testProjectionPage() {
+        userService.softDeleteByFilter(fb.and(fb.lessOrEquals("id", "10")));
+        stats.setStatisticsEnabled(true);
+        PageableResult<UserContactDto> page = userService.getPage(Filter.empty(), Sortings.asc("id"),
+                Paginations.of(0, 10), UserContactDto.class);
+        stats.setStatisticsEnabled(false);
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+        assertEquals(40, page.getCount());
+        assertEquals(4, page.getPageCount());
+        assertEquals(11L, page.getData().getFirst().id());
+        User user = userService.getById(11L);
+        assertEquals(user.getEmail(), page.getData().getFirst().email());
+        assertEquals(user.getFirstName(), page.getData().getFirst().firstName());
+    }
+
+    @Test
+    public void testNestedProjectionList() {
+        User user = userService.getById(1L);
+        orderRepository.save(Order.builder().id(1L).name("first").user(user).build());
+        orderRepository.save(Order.builder().id(2L).name("second").build());
+        orderRepository.flush();
+        OrderService orderService = new OrderServiceImpl(orderRepository, orderRepository,
+                entityManager, transactionTemplate, validator);
+        List<OrderSummaryDto> orders = orderService.getList(Filter.empty(), Sortings.asc("id"), OrderSummaryDto.class);
+        assertEquals(2, orders.size());
+        assertEquals(1L, orders.get(0).getUserId());
+        assertEquals(user.getEmail(), orders.get(0).getUserEmail());
+        assertEquals("second", orders.get(1).getName());
+        Assertions.assertNull(orders.get(1).getUserId());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> userService.getList(Filter.empty(), OrderSummaryDto.class));
+    }
+
+    @Test
+    public void testSelectedFieldsPage() {
+        stats.setStatisticsEnabled(true);
+        PageableResult<Map<String, Object>> page = userService.getPage(new SelectableUserFilter(), Sortings.desc("id"),
+                Paginations.of(0, 5), List.of("id", "email"));
+        stats.setStatisticsEnabled(false);
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+        assertEquals(50, page.getCount());
+        Map<String, Object> row = page.getData().getFirst();
+        assertEquals(List.of("id", "email"), List.copyOf(row.keySet()));
+        assertEquals(50L, row.get("id"));
+        Assertions.assertThrows(InvalidParameterException.class, () -> userService.getList(new SelectableUserFilter(),
+                Sortings.unsorted(), List.of("password")));
+        assertEquals(List.of("id", "firstName", "email"), List.copyOf(userService.getList(new SelectableUserFilter(),
+                Sortings.unsorted(), List.of()).getFirst().keySet()));
+    }
+
+    @Test
+    public void testSelectedFieldsDeniedWithoutWhitelist() {
+        Assertions.assertThrows(InvalidParameterException.class, () -> userService.getList(Filter.empty(),
+                Sortings.unsorted(), List.of("id", "password")));
+        Assertions.assertThrows(InvalidParameterException.class, () -> userService.getPage(Filter.empty(),
+                Sortings.unsorted(), Paginations.of(0, 5), List.of()));
+    }
+
+    @Test
+    public void testDataStreamDetachesReadEntities() {
+        userServiceImpl.setStreamClearInterval(10);
+        try (Stream<User> stream = userService.getDataStream(Filter.empty(), Sortings.asc("id"))) {
+            Iterator<User> iterator = stream.iterator();
+            User first = iterator.next();
+            for (int i = 0; i < 24; i++) {
+                iterator.next();
+            }
+            Assertions.assertFalse(entityManager.contains(first));
+        } finally {
+            userServiceImpl.setStreamClearInterval(JpaCrudService.DEFAULT_STREAM_CLEAR_INTERVAL);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testDataStreamOwnTransaction() {
+        beforeTransaction();
+        Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        Stream<User> dataStream = userService.getDataStream();
+        Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        assertEquals(50, dataStream.count());
+        long count = userService.withDataStream(Filter.empty(), Sortings.unsorted(), stream -> {
+            Assertions.assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return stream.count();
+        });
+        assertEquals(50, count);
+        Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> userService.withDataStream(Filter.empty(),
+                Sortings.unsorted(), stream -> {
+                    throw new IllegalArgumentException();
+                }));
+        Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testDataStreamLeakReleased() throws InterruptedException {
+        beforeTransaction();
+        userServiceImpl.getMetrics().reset();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        try {
+            userService.getDataStream().iterator().next();
+            for (int i = 0; i < 50 && userServiceImpl.getMetrics().getCounter(JpaScrollStream.STREAM_LEAK_METRIC) == 0; i++) {
+                System.gc();
+                Thread.sleep(100);
+            }
+            assertEquals(1, userServiceImpl.getMetrics().getCounter(JpaScrollStream.STREAM_LEAK_METRIC));
+            assertEquals(1, stats.getSessionOpenCount());
+            assertEquals(1, stats.getSessionCloseCount());
+        } finally {
+            stats.setStatisticsEnabled(false);
+            userServiceImpl.getMetrics().reset();
+        }
+    }
+
+    @Test
+    public void testGetAllByIdsPreservesOrder() {
+        userServiceImpl.setMultiGetBatchSize(4);
+        try {
+            stats.setStatisticsEnabled(true);
+            List<User> users = userService.getAllByIds(List.of(7L, 3L, 42L, 3L, 15L, 1L, 9L));
+            stats.setStatisticsEnabled(false);
+            assertEquals(2, stats.getPrepareStatementCount());
+            assertEquals(List.of(7L, 3L, 42L, 15L, 1L, 9L), users.stream().map(User::getId).toList());
+        } finally {
+            userServiceImpl.setMultiGetBatchSize(JpaCrudService.DEFAULT_MULTI_GET_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void testFindAllByIdsReportsMissing() {
+        userService.softDeleteById(5L);
+        MultiGetResult<User, Long> result = userService.findAllByIds(List.of(5L, 2L, 1000L, 4L));
+        Assertions.assertFalse(result.isComplete());
+        assertEquals(List.of(2L, 4L), List.copyOf(result.getFound().keySet()));
+        assertEquals(List.of(5L, 1000L), result.getMissingIds());
+        Assertions.assertThrows(ResourceNotFoundException.class,
+                () -> userService.getAllByIds(List.of(2L, 1000L)));
+        assertEquals(List.of(2L, 4L), List.copyOf(userService.getMapByIds(List.of(2L, 5L, 4L)).keySet()));
+    }
+
+    @Test
+    public void testFindAllByIdsWithJoin() {
+        stats.setStatisticsEnabled(true);
+        MultiGetResult<User, Long> result = userService.findAllByIds(List.of(1L, 2L), Joins.of("orders"));
+        stats.setStatisticsEnabled(false);
+        assertEquals(1, stats.getPrepareStatementCount());
+        Assertions.assertTrue(result.isComplete());
+        Assertions.assertNotNull(result.getFound().get(1L).getOrders());
+    }
+
     @Test
     public void testFilterConcat() {
         stats.setStatisticsEnabled(true);
@@ -198,5 +423,7 @@ public class UserServiceTests {
         //assertEquals(2,stats.getPrepareStatementCount());
     }
 
-
+    @SelectableFields({"id", "firstName", "email"})
+    public static class SelectableUserFilter extends Filter<User> {
+    }
 }
@@ -0,0 +1,197 @@
+package ru.korovin.packages.fasterjpa.tests.loading;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.instrumentation.FetchPlanLearner;
+import ru.korovin.packages.fasterjpa.instrumentation.FetchPlanLearningAutoConfiguration;
+import ru.korovin.packages.fasterjpa.instrumentation.FetchPlanLearningProperties;
+import ru.korovin.packages.fasterjpa.instrumentation.FetchPlanReportEndpoint;
+import ru.korovin.packages.fasterjpa.instrumentation.LearnedFetchPlan;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.testProject.model.Order;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.OrderRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * План фиксируется четвёртым вызовом после трёх наблюдаемых, связи загружаются лениво
+ * в транзакции вызывающего кода либо в контексте персистентности, открытом как при open-in-view
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(FetchPlanLearningAutoConfiguration.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "fasterjpa.fetch-learning.enabled=true",
+        "fasterjpa.fetch-learning.min-calls=3",
+        "fasterjpa.fetch-learning.max-joins=1"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FetchPlanLearningTest {
+    private static final int USERS = 3;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private FetchPlanLearner learner;
+    @Autowired
+    private FetchPlanLearningProperties properties;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            long orderId = 1;
+            for (User user : User.generateUsers(1, USERS)) {
+                user.setRoles(Set.of("USER"));
+                userRepository.save(user);
+                for (int i = 0; i < 2; i++) {
+                    orderRepository.save(Order.builder().id(orderId++).name("order").cost(1.0).user(user).build());
+                }
+            }
+        });
+        learner.reset();
+        properties.setMode(FetchPlanLearningProperties.Mode.APPLY);
+    }
+
+    @Test
+    public void testPlanLearnedAndApplied() {
+        callGetList(users -> users.forEach(user -> {
+            user.getOrders().size();
+            user.getRoles().size();
+        }));
+        callGetList(users -> users.forEach(user -> user.getOrders().size()));
+        callGetList(users -> users.forEach(user -> user.getOrders().size()));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        callGetList(users -> users.forEach(user -> {
+            Assertions.assertTrue(Hibernate.isInitialized(user.getOrders()));
+            assertEquals(2, user.getOrders().size());
+        }));
+        stats.setStatisticsEnabled(false);
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        LearnedFetchPlan plan = getPlan("UserServiceImpl.getList(Filter[])");
+        Assertions.assertTrue(plan.learned());
+        assertEquals(3, plan.calls());
+        assertEquals(List.of("orders"), plan.joins());
+        assertEquals(1.0, plan.loadRatios().get("orders"));
+        assertEquals(1.0 / 3, plan.loadRatios().get("roles"), 0.001);
+    }
+
+    @Test
+    public void testMaxJoinsLimitsPlan() {
+        for (int i = 0; i <= 3; i++) {
+            transactionTemplate.executeWithoutResult(status -> userService.getList().forEach(user -> {
+                user.getOrders().size();
+                user.getRoles().size();
+            }));
+        }
+        LearnedFetchPlan plan = getPlan("UserServiceImpl.getList()");
+        assertEquals(Set.of("orders", "roles"), plan.loadRatios().keySet());
+        assertEquals(1, plan.joins().size());
+    }
+
+    @Test
+    public void testSuggestModeDoesNotApplyPlan() {
+        properties.setMode(FetchPlanLearningProperties.Mode.SUGGEST);
+        for (int i = 0; i < 3; i++) {
+            callGetList(users -> users.forEach(user -> user.getOrders().size()));
+        }
+        callGetList(users -> users.forEach(user -> Assertions.assertFalse(Hibernate.isInitialized(user.getOrders()))));
+        assertEquals(List.of("orders"), getPlan("UserServiceImpl.getList(Filter[])").joins());
+        Assertions.assertTrue(learner.getPlan("UserServiceImpl.getList(Filter[])").isPresent());
+    }
+
+    @Test
+    public void testPlanLearnedInOpenSession() {
+        for (int i = 0; i < 3; i++) {
+            callGetListInOpenSession(users -> users.forEach(user -> user.getOrders().size()));
+        }
+        callGetListInOpenSession(users -> users.forEach(user ->
+                Assertions.assertTrue(Hibernate.isInitialized(user.getOrders()))));
+
+        LearnedFetchPlan plan = getPlan("UserServiceImpl.getList(Filter[])");
+        Assertions.assertTrue(plan.learned());
+        assertEquals(List.of("orders"), plan.joins());
+    }
+
+    @Test
+    public void testCallsWithoutPersistenceContextNotObserved() {
+        userService.getList(Filter.empty());
+        callGetList(users -> {
+        });
+        FetchPlanReportEndpoint endpoint = new FetchPlanReportEndpoint(learner);
+        List<LearnedFetchPlan> report = endpoint.getFetchPlans();
+        assertEquals(1, report.size());
+        assertEquals(1, report.get(0).calls());
+        Assertions.assertFalse(report.get(0).learned());
+        Assertions.assertTrue(report.get(0).joins().isEmpty());
+
+        endpoint.resetFetchPlans();
+        Assertions.assertTrue(endpoint.getFetchPlans().isEmpty());
+    }
+
+    private void callGetList(Consumer<List<User>> usage) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = userService.getList(Filter.empty());
+            assertEquals(USERS, users.size());
+            usage.accept(users);
+        });
+    }
+
+    private void callGetListInOpenSession(Consumer<List<User>> usage) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            List<User> users = userService.getList(Filter.empty());
+            assertEquals(USERS, users.size());
+            usage.accept(users);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    private LearnedFetchPlan getPlan(String callSite) {
+        return learner.getReport().stream()
+                .filter(plan -> plan.callSite().equals(callSite))
+                .findAny()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.korovin.packages.fasterjpa.tests.loading;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
+import ru.korovin.packages.fasterjpa.service.FetchStrategy;
+import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Order;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.OrderRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * У каждого пользователя 4 заказа и 3 роли: при загрузке обеих коллекций одним запросом
+ * список заказов содержал бы 12 элементов, поэтому такой план отклоняется. Тесты выполняются без тестовой транзакции,
+ * поэтому незагруженная коллекция остаётся неинициализированной после вызова сервиса
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FetchPlanTest {
+    private static final int ORDERS_PER_USER = 4;
+    private static final Set<String> ROLES = Set.of("ADMIN", "USER", "GUEST");
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserServiceImpl userServiceImpl;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private Statistics stats;
+
+    @BeforeEach
+    public void setUp() {
+        orderRepository.deleteAll();
+        userService.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            long orderId = 1;
+            for (User user : User.generateUsers(1, 3)) {
+                user.setRoles(ROLES);
+                userService.create(user);
+                for (int i = 0; i < ORDERS_PER_USER; i++) {
+                    orderRepository.save(Order.builder().id(orderId++).name("order").cost(1.0).user(user).build());
+                }
+            }
+        });
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stats.setStatisticsEnabled(false);
+        userServiceImpl.setMultiGetBatchSize(JpaCrudService.DEFAULT_MULTI_GET_BATCH_SIZE);
+    }
+
+    @Test
+    public void testAutoLoadsSecondCollectionInBatch() {
+        User user = countStatements(2, () -> userService.getById(1L, Joins.of("orders", "roles")));
+        assertLoaded(user);
+    }
+
+    @Test
+    public void testJoinStrategyRejectedWithListCollection() {
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> userService.getById(1L, Joins.of("orders").with("roles", FetchStrategy.JOIN)));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> userService.getById(1L, Joins.of("roles").with("orders", FetchStrategy.JOIN)));
+
+        User user = countStatements(1, () -> userService.getById(1L, Joins.empty().with("orders", FetchStrategy.JOIN)));
+        assertEquals(ORDERS_PER_USER, user.getOrders().size());
+    }
+
+    @Test
+    public void testBatchAndSubselectStrategies() {
+        List<User> users = countStatements(3, () -> userService.getAllByIds(List.of(3L, 1L, 2L),
+                Joins.empty().with("orders", FetchStrategy.BATCH).with("roles", FetchStrategy.SUBSELECT)));
+        assertEquals(List.of(3L, 1L, 2L), users.stream().map(User::getId).toList());
+        users.forEach(this::assertLoaded);
+    }
+
+    @Test
+    public void testBatchQueriesAreChunked() {
+        userServiceImpl.setMultiGetBatchSize(2);
+        List<User> users = countStatements(4, () -> userService.getAllByIds(List.of(1L, 2L, 3L),
+                Joins.of("orders", "roles")));
+        users.forEach(this::assertLoaded);
+    }
+
+    @Test
+    public void testLockingReadWithFetchPlan() {
+        User user = countStatements(2, () -> userService.getById(2L, LockModeType.PESSIMISTIC_WRITE,
+                Joins.of("roles", "orders")));
+        assertLoaded(user);
+    }
+
+    @Test
+    public void testEntityGraphs() {
+        User withRoles = countStatements(1, () -> userService.getById(1L, Joins.entityGraph("User.withRoles")));
+        Assertions.assertTrue(Hibernate.isInitialized(withRoles.getRoles()));
+        Assertions.assertFalse(Hibernate.isInitialized(withRoles.getOrders()));
+
+        EntityGraph<User> graph = entityManager.createEntityGraph(User.class);
+        graph.addAttributeNodes("orders");
+        User withOrders = userService.getById(1L, Joins.entityGraph(graph));
+        assertEquals(ORDERS_PER_USER, withOrders.getOrders().size());
+        Assertions.assertFalse(Hibernate.isInitialized(withOrders.getRoles()));
+    }
+
+    @Test
+    public void testInvalidPathRejected() {
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> userService.getById(1L, Joins.of("firstName")));
+        Assertions.assertThrows(InvalidParameterException.class,
+                () -> userService.getById(1L, Joins.of("unknown")));
+    }
+
+    private <R> R countStatements(long expected, Supplier<R> call) {
+        stats.clear();
+        stats.setStatisticsEnabled(true);
+        R result = call.get();
+        stats.setStatisticsEnabled(false);
+        assertEquals(expected, stats.getPrepareStatementCount());
+        return result;
+    }
+
+    private void assertLoaded(User user) {
+        Assertions.assertTrue(Hibernate.isInitialized(user.getOrders()));
+        Assertions.assertTrue(Hibernate.isInitialized(user.getRoles()));
+        assertEquals(ORDERS_PER_USER, user.getOrders().size());
+        assertEquals(ROLES, user.getRoles());
+    }
+}
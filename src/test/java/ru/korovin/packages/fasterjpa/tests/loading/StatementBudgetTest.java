@@ -0,0 +1,151 @@
+package ru.korovin.packages.fasterjpa.tests.loading;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.annotations.StatementBudget;
+import ru.korovin.packages.fasterjpa.exception.StatementBudgetExceededException;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementBudgetAutoConfiguration;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementBudgetInterceptor;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecorder;
+import ru.korovin.packages.fasterjpa.instrumentation.StatementRecording;
+import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.template.jpa.JpaCrudService;
+import ru.korovin.packages.fasterjpa.testProject.model.Order;
+import ru.korovin.packages.fasterjpa.testProject.model.TestEntity;
+import ru.korovin.packages.fasterjpa.testProject.model.TestNestedEntity;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.repository.OrderRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.TestNestedEntityRepository;
+import ru.korovin.packages.fasterjpa.testProject.repository.UserRepository;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.TestNestedEntityServiceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link TestNestedEntity#getParent()} загружается жадно отдельным запросом на каждого родителя,
+ * поэтому выборка списка вложенных сущностей - запрос N+1
+ */
+@Import({TestNestedEntityServiceImpl.class, StatementBudgetTest.BudgetedUserService.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(StatementBudgetAutoConfiguration.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "fasterjpa.statements.enabled=true",
+        "fasterjpa.statements.repeat-threshold=3",
+        "fasterjpa.statements.fail-on-violation=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StatementBudgetTest {
+    private static final int PARENTS = 4;
+
+    @Autowired
+    private TestNestedEntityServiceImpl nestedService;
+    @Autowired
+    private BudgetedUserService userService;
+    @Autowired
+    private TestEntityRepository testEntityRepository;
+    @Autowired
+    private TestNestedEntityRepository nestedRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        nestedRepository.deleteAll();
+        testEntityRepository.deleteAll();
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 1; id <= PARENTS; id++) {
+                TestEntity parent = testEntityRepository.save(TestEntity.builder().id(id).name("parent").isDeleted(false).build());
+                nestedRepository.save(TestNestedEntity.builder().parent(parent).build());
+                User user = userRepository.save(User.generateUser(id));
+                orderRepository.save(Order.builder().id(id).name("order").cost(1.0).user(user).build());
+            }
+        });
+        nestedService.getMetrics().reset();
+        userService.getMetrics().reset();
+    }
+
+    @Test
+    public void testRepeatedEagerLoadDetected() {
+        StatementBudgetExceededException e = Assertions.assertThrows(StatementBudgetExceededException.class,
+                () -> nestedService.getList());
+        Assertions.assertTrue(e.getMessage().contains("N+1"), e.getMessage());
+        Assertions.assertTrue(e.getMessage().contains("при загрузке TestEntity"), e.getMessage());
+        assertEquals(1, nestedService.getMetrics().getCounter(StatementBudgetInterceptor.REPEATED_STATEMENTS_METRIC));
+    }
+
+    @Test
+    public void testMethodBudgetOverridesServiceBudget() {
+        User user = userService.getById(1L, Joins.of("orders", "roles"));
+        assertEquals(1, user.getOrders().size());
+        assertEquals(PARENTS, userService.countAll());
+
+        StatementBudgetExceededException e = Assertions.assertThrows(StatementBudgetExceededException.class,
+                () -> userService.getAllByIds(List.of(1L, 2L), Joins.of("orders", "roles")));
+        Assertions.assertTrue(e.getMessage().contains("при бюджете 1"), e.getMessage());
+        assertEquals(1, userService.getMetrics().getCounter(StatementBudgetInterceptor.BUDGET_EXCEEDED_METRIC));
+        Assertions.assertTrue(userService.getMetrics().findHistogram(StatementBudgetInterceptor.STATEMENTS_METRIC).isPresent());
+    }
+
+    @Test
+    public void testRecordingReportsLazyAssociation() {
+        List<StatementRecording.RepeatedStatement> repeated = transactionTemplate.execute(status -> {
+            List<User> users = entityManager.createQuery("select u from User u", User.class).getResultList();
+            try (StatementRecording recording = StatementRecorder.start()) {
+                users.forEach(user -> user.getOrders().size());
+                assertEquals(PARENTS, recording.getCount());
+                return recording.getRepeatedStatements(PARENTS);
+            }
+        });
+        assertEquals(1, repeated.size());
+        assertEquals("User.orders", repeated.get(0).cause());
+        Assertions.assertTrue(StatementRecorder.current().isEmpty());
+    }
+
+    @Test
+    public void testFingerprintIgnoresLiterals() {
+        assertEquals(StatementRecording.fingerprint("select * from users where id in (1, 2,3) and name = 'a'"),
+                StatementRecording.fingerprint("select *  from users where id in (7) and name = 'b''c'"));
+    }
+
+    @StatementBudget(1)
+    public static class BudgetedUserService extends JpaCrudService<User, Long> {
+        public BudgetedUserService(JpaRepository<User, Long> repository,
+                                   JpaSpecificationExecutor<User> specificationExecutor,
+                                   EntityManager persistenceContext,
+                                   TransactionTemplate transactionTemplate,
+                                   Validator validator) {
+            super(repository, specificationExecutor, persistenceContext, transactionTemplate, validator);
+        }
+
+        @Override
+        @StatementBudget(2)
+        public User getById(Long id, Joins joins) {
+            return super.getById(id, joins);
+        }
+    }
+}
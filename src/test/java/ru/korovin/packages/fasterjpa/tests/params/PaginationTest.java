@@ -130,4 +130,19 @@ public class PaginationTest {
     public void testCalculatePageCount() {
         Assertions.assertEquals(PageableResult.countPages(105, 10), 11);
     }
+
+    @Test
+    void testGetOffset() {
+        assertEquals(0, Paginations.unpaged().getOffset());
+        assertEquals(30, new Pagination(2, 15).getOffset());
+        assertEquals(2_000_000L * 100, new Pagination(2_000_000, 100).getOffset());
+    }
+
+    @Test
+    void testWithMaxOffsetConstraint() {
+        assertEquals(100, new Pagination(10, 10).withMaxOffsetConstraint(100).getOffset());
+        assertThrows(IllegalStateException.class, () -> new Pagination(11, 10).withMaxOffsetConstraint(100));
+        assertThrows(IllegalArgumentException.class, () -> new Pagination(0, 10).withMaxOffsetConstraint(-5));
+        assertDoesNotThrow(() -> Paginations.unpaged().withMaxOffsetConstraint(0));
+    }
 }
@@ -0,0 +1,109 @@
+package ru.korovin.packages.fasterjpa.tests.params;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.instrumentation.QueryPlanCacheStats;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Filters;
+import ru.korovin.packages.fasterjpa.service.Joins;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Значения фильтров должны передаваться параметрами:
+ * при случайных значениях количество различных SQL запросов не растёт
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.korovin.packages.fasterjpa.tests.params.ParameterBindingTest$DistinctSqlInspector"
+})
+public class ParameterBindingTest {
+    private static final int CALLS = 50;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private final Random random = new Random();
+
+    @BeforeEach
+    public void clearStatements() {
+        DistinctSqlInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    public void testContainsValueIsBound() {
+        assertDistinctSql(i -> userService.countByFilter(Filters.contains("firstName", randomWord())));
+    }
+
+    @Test
+    public void testLikeValueIsBound() {
+        assertDistinctSql(i -> userService.countByFilter(Filters.like("email", randomWord() + "%")));
+    }
+
+    @Test
+    public void testExpressionStringLiteralIsBound() {
+        assertDistinctSql(i -> userService.countByFilter(
+                Filters.contains("concat(firstName,'" + randomWord() + "')", "a")));
+    }
+
+    @Test
+    public void testExpressionNumberArgumentsAreBound() {
+        assertDistinctSql(i -> userService.countByFilter(
+                Filters.equal("mod(id," + (random.nextInt(100) + 1) + ")", random.nextInt(10))));
+        DistinctSqlInspector.STATEMENTS.clear();
+        assertDistinctSql(i -> userService.countByFilter(
+                Filters.equal("round(id," + random.nextInt(5) + ")", random.nextInt(10))));
+    }
+
+    @Test
+    public void testIdQueriesHitPlanCache() {
+        QueryPlanCacheStats before = QueryPlanCacheStats.of(entityManagerFactory);
+        assertDistinctSql(i -> userService.findById((long) random.nextInt(1000), Joins.empty()));
+        QueryPlanCacheStats stats = QueryPlanCacheStats.of(entityManagerFactory).minus(before);
+        assertTrue(stats.hits() >= CALLS - 1, stats.toString());
+        assertTrue(stats.hitRatio() > 0.9, stats.toString());
+    }
+
+    private void assertDistinctSql(IntConsumer call) {
+        for (int i = 0; i < CALLS; i++) {
+            call.accept(i);
+        }
+        assertEquals(1, DistinctSqlInspector.STATEMENTS.size(), DistinctSqlInspector.STATEMENTS.toString());
+    }
+
+    private String randomWord() {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    public static class DistinctSqlInspector implements StatementInspector {
+        static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
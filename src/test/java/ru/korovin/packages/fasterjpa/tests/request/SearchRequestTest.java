@@ -6,6 +6,7 @@ import lombok.EqualsAndHashCode;
 import org.junit.jupiter.api.Test;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import ru.korovin.packages.fasterjpa.annotations.SelectableFields;
 import ru.korovin.packages.fasterjpa.exception.InvalidParameterException;
 import ru.korovin.packages.fasterjpa.queryparam.Filter;
 import ru.korovin.packages.fasterjpa.queryparam.Pagination;
@@ -37,6 +38,30 @@ public class SearchRequestTest {
         assertEquals(1, pagination.getPage());
     }
 
+    @Test
+    public void testPaginationMaxOffset() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add(PAGE_PARAM, "2000000");
+        params.add(PAGE_SIZE_PARAM, "100");
+        assertThrows(InvalidParameterException.class,
+                () -> new SearchRequest(params, Filter.class, Sorting.class, Map.of(), 10_000));
+        params.set(PAGE_PARAM, "100");
+        SearchRequest searchRequest = new SearchRequest(params, Filter.class, Sorting.class, Map.of(), 10_000);
+        assertEquals(10_000, searchRequest.getPagination().getOffset());
+    }
+
+    @Test
+    public void testPaginationAfterKey() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add(PAGE_SIZE_PARAM, "100");
+        params.add(AFTER_PARAM, "Smith");
+        params.add(AFTER_PARAM, "42");
+        SearchRequest searchRequest = new SearchRequest(params, Filter.class, Sorting.class, Map.of(), 10_000);
+        assertTrue(searchRequest.getPagination().isKeyed());
+        assertEquals(List.of("Smith", "42"), searchRequest.getPagination().getAfter());
+        assertTrue(searchRequest.getFilter().getConditions().isEmpty());
+    }
+
     @Test
     public void testSorting() {
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -112,6 +137,56 @@ public class SearchRequestTest {
     }
 
 
+    @Test
+    public void testFields() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add(FIELDS_PARAM, "id, email,id");
+        params.add("firstName", "Egor");
+        SearchRequest searchRequest = SearchRequest.builder()
+                .params(params)
+                .filterClass(SelectableFilterParams.class)
+                .build();
+        assertEquals(List.of("id", "email"), searchRequest.getFields());
+        assertEquals(List.of(new FilterCondition("firstName", EQUALS, "Egor")),
+                searchRequest.getFilter().getConditions());
+
+        params.set(FIELDS_PARAM, "id,password");
+        assertThrows(InvalidParameterException.class, () -> SearchRequest.builder()
+                .params(params)
+                .filterClass(SelectableFilterParams.class)
+                .build());
+        params.remove("firstName");
+        params.add("name", "Egor");
+        params.set(FIELDS_PARAM, "id");
+        assertThrows(InvalidParameterException.class, () -> SearchRequest.builder()
+                .params(params)
+                .filterClass(FilterParams.class)
+                .build());
+        params.remove("name");
+        params.set(FIELDS_PARAM, "password");
+        assertThrows(InvalidParameterException.class,
+                () -> new SearchRequest(params, Filter.class, Sorting.class, Map.of()));
+    }
+
+    @Test
+    public void testFieldNamesWithDigitsAndUnderscores() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add(FIELDS_PARAM, "address2,_version,profile.home_phone");
+        SearchRequest searchRequest = SearchRequest.builder()
+                .params(params)
+                .filterClass(NumberedFieldsFilterParams.class)
+                .build();
+        assertEquals(List.of("address2", "_version", "profile.home_phone"), searchRequest.getFields());
+
+        for (String invalid : List.of("2address", "profile..phone", "profile.", "id;drop")) {
+            params.set(FIELDS_PARAM, invalid);
+            assertThrows(InvalidParameterException.class, () -> SearchRequest.builder()
+                    .params(params)
+                    .filterClass(NumberedFieldsFilterParams.class)
+                    .build());
+        }
+    }
+
     @EqualsAndHashCode(callSuper = true)
     @Data
     public static class FilterParams extends Filter<User> {
@@ -125,4 +200,17 @@ public class SearchRequestTest {
 
     }
 
+    @EqualsAndHashCode(callSuper = true)
+    @Data
+    @SelectableFields({"id", "firstName", "email"})
+    public static class SelectableFilterParams extends Filter<User> {
+        private String firstName;
+    }
+
+    @EqualsAndHashCode(callSuper = true)
+    @Data
+    @SelectableFields({"address2", "_version", "profile.home_phone", "2address", "profile..phone", "profile.", "id;drop"})
+    public static class NumberedFieldsFilterParams extends Filter<User> {
+    }
+
 }
@@ -0,0 +1,182 @@
+package ru.korovin.packages.fasterjpa.tests.routing;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Paginations;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.routing.ReplicaRoutingAutoConfiguration;
+import ru.korovin.packages.fasterjpa.routing.ReplicaRoutingDataSource;
+import ru.korovin.packages.fasterjpa.routing.RoutingContext;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import javax.sql.DataSource;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Основная БД и реплика - две независимые H2 базы, поэтому по количеству
+ * строк видно, на какую из них направлен запрос: реплика содержит 3 пользователя, основная БД - 1
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ImportAutoConfiguration(ReplicaRoutingAutoConfiguration.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "fasterjpa.routing.enabled=true",
+        "fasterjpa.routing.sticky-window=300ms",
+        "fasterjpa.routing.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "fasterjpa.routing.replicas[0].username=sa"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaRoutingTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        primary = new JdbcTemplate((DataSource) routingDataSource.getResolvedDataSources().get(ReplicaRoutingDataSource.PRIMARY_KEY));
+        replica = new JdbcTemplate((DataSource) routingDataSource.getResolvedDataSources().get("replica-0"));
+        replica.execute("""
+                create table if not exists users (
+                    id bigint primary key, first_name varchar(255), password varchar(255), email varchar(255),
+                    phone varchar(255), address varchar(255), created_at date, updated_at timestamp, deleted_at timestamp
+                )""");
+        primary.update("delete from users");
+        replica.update("delete from users");
+        primary.update("insert into users (id, first_name) values (1, 'primary')");
+        for (long id = 1; id <= 3; id++) {
+            replica.update("insert into users (id, first_name) values (?, 'replica')", id);
+        }
+        RoutingContext.clear();
+        routingDataSource.getMetrics().reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    public void testReadsGoToReplica() {
+        assertEquals(3, userService.countAll());
+        assertEquals(3, userService.getPage(Filter.empty(), Sortings.unsorted(), Paginations.of(0, 10)).getCount());
+        Assertions.assertTrue(userService.existsById(3L));
+        assertEquals("replica", userService.getById(1L).getFirstName());
+        Assertions.assertTrue(routingDataSource.getMetrics().getCounter(ReplicaRoutingDataSource.REPLICA_METRIC) > 0);
+    }
+
+    @Test
+    public void testDataStreamGoesToReplica() {
+        try (Stream<User> stream = userService.getDataStream()) {
+            assertEquals(3, stream.count());
+        }
+        Assertions.assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        assertEquals(1L, (long) transactionTemplate.execute(status -> userService.getDataStream().count()));
+    }
+
+    @Test
+    public void testLockingReadGoesToPrimary() {
+        assertEquals("primary", userService.getById(1L, LockModeType.PESSIMISTIC_WRITE).getFirstName());
+    }
+
+    @Test
+    public void testReadInWriteTransactionGoesToPrimary() {
+        assertEquals(1L, (long) transactionTemplate.execute(status -> userService.countAll()));
+    }
+
+    @Test
+    public void testReadYourWritesWindow() throws InterruptedException {
+        User user = new User();
+        user.setId(2L);
+        user.setFirstName("written");
+        userService.create(user);
+        assertEquals(2, userService.countAll());
+        assertEquals("written", userService.getById(2L).getFirstName());
+        Assertions.assertTrue(routingDataSource.getMetrics().getCounter(ReplicaRoutingDataSource.STICKY_METRIC) > 0);
+
+        Thread.sleep(400);
+        assertEquals(3, userService.countAll());
+    }
+
+    @Test
+    public void testStickinessIsPerThread() throws InterruptedException {
+        User user = new User();
+        user.setId(2L);
+        userService.create(user);
+        long[] count = new long[1];
+        Thread reader = new Thread(() -> count[0] = userService.countAll());
+        reader.start();
+        reader.join();
+        assertEquals(3, count[0]);
+    }
+
+    @Test
+    public void testRolledBackWriteNotSticky() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setId(2L);
+            userService.create(user);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, primary.queryForObject("select count(*) from users", Long.class));
+        assertEquals(3, userService.countAll());
+        assertEquals(0, routingDataSource.getMetrics().getCounter(ReplicaRoutingDataSource.STICKY_METRIC));
+    }
+
+    @Test
+    public void testReadsNotSticky() {
+        assertEquals(3, userService.countAll());
+        assertEquals(3, userService.countAll());
+        Assertions.assertTrue(RoutingContext.getLastWriteNanos().isEmpty());
+    }
+
+    @Test
+    public void testOpenInViewWriteAfterReadGoesToPrimary() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            assertEquals(3, userService.countAll());
+            User user = new User();
+            user.setId(2L);
+            user.setFirstName("written");
+            userService.create(user);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+        assertEquals("written", primary.queryForObject("select first_name from users where id = 2", String.class));
+        assertEquals("replica", replica.queryForObject("select first_name from users where id = 2", String.class));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.korovin.packages.fasterjpa.tests.transactions;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.korovin.packages.fasterjpa.queryparam.Filter;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Paginations;
+import ru.korovin.packages.fasterjpa.queryparam.factories.Sortings;
+import ru.korovin.packages.fasterjpa.template.jpa.ReadContext;
+import ru.korovin.packages.fasterjpa.testProject.model.User;
+import ru.korovin.packages.fasterjpa.testProject.service.UserService;
+import ru.korovin.packages.fasterjpa.testProject.service.impl.UserServiceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Контекст персистентности открыт вне транзакции так же, как при open-in-view,
+ * поэтому видно, остаются ли загруженные методами чтения сущности управляемыми
+ * и сохраняются ли их изменения последующими пишущими методами
+ */
+@Import({UserServiceImpl.class, LocalValidatorFactoryBean.class})
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReadOnlyReadsTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private EntityManager openEntityManager;
+    private Statistics stats;
+
+    @BeforeEach
+    public void setUp() {
+        userService.deleteAll();
+        User.generateUsers(1, 10).forEach(userService::create);
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        openEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(openEntityManager));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stats.setStatisticsEnabled(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        openEntityManager.close();
+    }
+
+    @Test
+    public void testReadsWithoutFlushKeepEntitiesWritable() {
+        User dirty = openEntityManager.find(User.class, 1L);
+        dirty.setFirstName("Dirty");
+        stats.setStatisticsEnabled(true);
+        User byId = userService.getById(2L);
+        List<User> list = userService.getList(Filter.empty(), Sortings.unsorted());
+        userService.getPage(Filter.empty(), Sortings.unsorted(), Paginations.of(0, 5));
+        userService.countAll();
+        stats.setStatisticsEnabled(false);
+
+        assertEquals(0, stats.getFlushCount());
+        Session session = openEntityManager.unwrap(Session.class);
+        Assertions.assertFalse(session.isReadOnly(byId));
+        Assertions.assertTrue(list.stream().noneMatch(session::isReadOnly));
+        Assertions.assertFalse(session.isDefaultReadOnly());
+        assertEquals(10, list.size());
+        Assertions.assertTrue(stats.getTransactionCount() >= 4);
+    }
+
+    @Test
+    public void testManagedReadsOptOut() {
+        User managed = ReadContext.managed(() -> userService.getById(3L));
+        Assertions.assertFalse(openEntityManager.unwrap(Session.class).isReadOnly(managed));
+    }
+
+    @Test
+    public void testUpdatesAfterReadInOpenSession() {
+        User patched = userService.getById(5L);
+        userService.patchUpdate(5L, User.builder().firstName("Patched").build());
+
+        User read = userService.getById(6L);
+        read.setFirstName("Full");
+        userService.fullUpdate(read);
+
+        assertEquals("Patched", jdbcTemplate.queryForObject("select first_name from users where id = 5", String.class));
+        assertEquals("Patched", patched.getFirstName());
+        assertEquals("Full", jdbcTemplate.queryForObject("select first_name from users where id = 6", String.class));
+    }
+
+    @Test
+    public void testReadInCallerTransactionStaysManaged() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        transactionTemplate.executeWithoutResult(status -> userService.getById(4L).setFirstName("Changed"));
+        assertEquals("Changed", userService.getById(4L).getFirstName());
+    }
+}